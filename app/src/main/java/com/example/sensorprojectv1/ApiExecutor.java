@@ -0,0 +1,276 @@
+package com.example.sensorprojectv1;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecutor compartido de las peticiones de ApiService (Java puro): un número
+ * fijo de hilos y colas acotadas por prioridad, en lugar de un Thread nuevo
+ * por petición.
+ *
+ * Con el servidor lento, un hilo por petición acumula hilos bloqueados en
+ * connect/read sin límite. Aquí las peticiones esperan en tres carriles y cada
+ * hilo libre toma la primera del carril más urgente:
+ * - {@link Priority#CRITICAL}: alertas y control de sesión;
+ * - {@link Priority#INTERACTIVE}: lo que una pantalla está esperando;
+ * - {@link Priority#TELEMETRY}: muestras y lotes. Usa como mucho
+ *   maxTelemetryWorkers hilos a la vez, así siempre queda uno para los otros
+ *   carriles aunque la subida esté trabada.
+ *
+ * Si un carril se llena, la petición nueva se rechaza, salvo en telemetría,
+ * donde se descarta la más vieja. En ambos casos se ejecuta el onDropped de la
+ * petición afectada, para que su callback no quede esperando; los lotes de
+ * telemetría salen de la cola persistente de MainActivity, que ante ese error
+ * conserva el registro y lo reintenta más tarde, así que descartar no pierde
+ * datos.
+ *
+ * Thread-safe.
+ */
+public class ApiExecutor {
+
+    public enum Priority { CRITICAL, INTERACTIVE, TELEMETRY }
+
+    private static class Task {
+        final Priority priority;
+        final Runnable run;
+        final Runnable onDropped;
+
+        Task(Priority priority, Runnable run, Runnable onDropped) {
+            this.priority = priority;
+            this.run = run;
+            this.onDropped = onDropped;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final List<ArrayDeque<Task>> lanes = new ArrayList<>();
+    private final int[] capacities;
+    private final int maxTelemetryWorkers;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private int runningTelemetry = 0;
+    private int running = 0;
+    private boolean shutdown = false;
+
+    // Métricas por carril (índice = ordinal de Priority)
+    private final long[] submitted;
+    private final long[] rejected;
+    private final long[] completed;
+    private final int[] maxDepth;
+    private long droppedTelemetry = 0;
+    private long failed = 0;
+
+    /**
+     * @param threads             hilos de trabajo
+     * @param capacities          peticiones en espera por carril, en el orden de {@link Priority}
+     * @param maxTelemetryWorkers hilos que puede ocupar la telemetría a la vez (menos que threads)
+     */
+    public ApiExecutor(String name, int threads, int[] capacities, int maxTelemetryWorkers) {
+        int lanesCount = Priority.values().length;
+        if (threads < 2 || capacities.length != lanesCount
+                || maxTelemetryWorkers < 1 || maxTelemetryWorkers >= threads) {
+            throw new IllegalArgumentException("Configuración inválida: " + threads + " hilos, "
+                    + maxTelemetryWorkers + " para telemetría");
+        }
+        this.capacities = capacities.clone();
+        this.maxTelemetryWorkers = maxTelemetryWorkers;
+        for (int i = 0; i < lanesCount; i++) {
+            if (capacities[i] < 1) {
+                throw new IllegalArgumentException("Capacidad inválida: " + capacities[i]);
+            }
+            lanes.add(new ArrayDeque<>());
+        }
+        submitted = new long[lanesCount];
+        rejected = new long[lanesCount];
+        completed = new long[lanesCount];
+        maxDepth = new int[lanesCount];
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::workerLoop, name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Encola la petición.
+     *
+     * @param onDropped se ejecuta (en el hilo que llama) si la petición se
+     *                  rechaza ahora o se descarta después sin ejecutarse
+     * @return false si se rechazó
+     */
+    public boolean submit(Priority priority, Runnable run, Runnable onDropped) {
+        Task task = new Task(priority, run, onDropped);
+        Task dropped = null;
+        synchronized (lock) {
+            int lane = priority.ordinal();
+            ArrayDeque<Task> queue = lanes.get(lane);
+            if (shutdown) {
+                rejected[lane]++;
+            } else {
+                if (queue.size() >= capacities[lane]) {
+                    if (priority == Priority.TELEMETRY) {
+                        dropped = queue.pollFirst();
+                        droppedTelemetry++;
+                    } else {
+                        rejected[lane]++;
+                    }
+                }
+                if (queue.size() < capacities[lane]) {
+                    queue.addLast(task);
+                    submitted[lane]++;
+                    maxDepth[lane] = Math.max(maxDepth[lane], queue.size());
+                    lock.notifyAll();
+                    task = null;
+                }
+            }
+        }
+        if (dropped != null) {
+            drop(dropped);
+        }
+        if (task != null) {
+            drop(task);
+            return false;
+        }
+        return true;
+    }
+
+    private static void drop(Task task) {
+        if (task.onDropped != null) {
+            task.onDropped.run();
+        }
+    }
+
+    private void workerLoop() {
+        while (true) {
+            Task task;
+            synchronized (lock) {
+                while ((task = nextTask()) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                running++;
+                if (task.priority == Priority.TELEMETRY) {
+                    runningTelemetry++;
+                }
+            }
+            boolean ok = false;
+            try {
+                task.run.run();
+                ok = true;
+            } catch (RuntimeException e) {
+                // Las peticiones manejan sus errores; esto no debería pasar,
+                // pero no puede llevarse el hilo
+            } finally {
+                synchronized (lock) {
+                    running--;
+                    if (task.priority == Priority.TELEMETRY) {
+                        runningTelemetry--;
+                        // Un hilo de telemetría libre puede destrabar otra espera
+                        lock.notifyAll();
+                    }
+                    completed[task.priority.ordinal()]++;
+                    if (!ok) {
+                        failed++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Primera petición del carril más urgente que se pueda ejecutar (con lock).
+     */
+    private Task nextTask() {
+        for (Priority priority : Priority.values()) {
+            if (priority == Priority.TELEMETRY && runningTelemetry >= maxTelemetryWorkers) {
+                continue;
+            }
+            Task task = lanes.get(priority.ordinal()).pollFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * No acepta más peticiones; los hilos terminan cuando se vacían las colas.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    public boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread worker : workers) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            worker.join(remaining);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getQueueDepth(Priority priority) {
+        synchronized (lock) {
+            return lanes.get(priority.ordinal()).size();
+        }
+    }
+
+    public int getRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    public long getRejectedCount(Priority priority) {
+        synchronized (lock) {
+            return rejected[priority.ordinal()];
+        }
+    }
+
+    public long getDroppedTelemetry() {
+        synchronized (lock) {
+            return droppedTelemetry;
+        }
+    }
+
+    /**
+     * Resumen para el log: por carril en espera (máximo), encoladas, terminadas y rechazadas.
+     */
+    public String describeMetrics() {
+        synchronized (lock) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Hilos: ").append(workers.size())
+                    .append(" | En curso: ").append(running);
+            for (Priority priority : Priority.values()) {
+                int i = priority.ordinal();
+                sb.append(" | ").append(priority).append(": ")
+                        .append(lanes.get(i).size()).append('/').append(capacities[i])
+                        .append(" (máx ").append(maxDepth[i]).append(')')
+                        .append(", ").append(submitted[i]).append(" encoladas")
+                        .append(", ").append(completed[i]).append(" terminadas")
+                        .append(", ").append(rejected[i]).append(" rechazadas");
+            }
+            sb.append(" | Telemetría descartada: ").append(droppedTelemetry)
+                    .append(" | Fallidas: ").append(failed);
+            return sb.toString();
+        }
+    }
+}
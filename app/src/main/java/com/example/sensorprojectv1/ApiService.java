@@ -5,6 +5,7 @@ import android.util.Log;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -13,6 +14,123 @@ import java.net.URL;
 public class ApiService {
     private static final String API_BASE = "http://192.168.1.80:3001/api"; // Actualizar a URL iberryserver
 
+    // Error de red (sin respuesta del servidor): quien reintenta lo distingue
+    // de un rechazo del servidor, que no se arregla reenviando
+    public static final String CONNECTION_ERROR = "Error al conectar con el servidor";
+
+    // Respuesta temporal del servidor (5xx, 408, 429): quien reintenta conserva
+    // la petición. El resto de los 4xx no cambia reenviando lo mismo
+    public static final String SERVER_ERROR = "Servidor no disponible temporalmente";
+
+    // Token rechazado (401) en un envío de la cola: el registro se conserva y se
+    // reenvía con el token que haya cuando el usuario vuelva a autenticarse
+    public static final String UNAUTHORIZED_ERROR = "Token rechazado por el servidor";
+
+    public static boolean isRetryableStatus(int responseCode) {
+        return responseCode >= 500 || responseCode == 408 || responseCode == 429;
+    }
+
+    // Lotes de telemetría en formato binario por columnas (SensorBatchCodec).
+    // Un 415 no dice si el rechazo es por el formato o por la compresión, así
+    // que cada 415 descarta una sola cosa y quien envía reintenta la misma
+    // petición: primero la compresión del formato por columnas, después el
+    // formato (se vuelve a JSON, comprimido si el endpoint lo tiene activado)
+    // y por último la compresión de JSON
+    public static final String UNSUPPORTED_FORMAT_ERROR = "Formato de lote no soportado por el servidor";
+    private static volatile boolean columnarBatchSupported = true;
+    private static volatile boolean columnarCompressionSupported = true;
+
+    // Las peticiones corren en un ejecutor compartido con colas acotadas por
+    // prioridad (ver ApiExecutor), no en un Thread nuevo cada una: alertas y
+    // sesión primero, pantallas después, telemetría al final. Si la petición
+    // se rechaza o se descarta, el callback recibe BUSY_ERROR
+    public static final String BUSY_ERROR = "Demasiadas peticiones pendientes";
+    private static final int EXECUTOR_THREADS = 3;
+    private static final int[] EXECUTOR_CAPACITIES = { 32, 16, 8 }; // CRITICAL, INTERACTIVE, TELEMETRY
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 15_000;
+    private static final ApiExecutor executor =
+            new ApiExecutor("ApiService", EXECUTOR_THREADS, EXECUTOR_CAPACITIES, 1);
+
+    private static void execute(ApiExecutor.Priority priority, ApiCallback callback, Runnable request) {
+        if (!executor.submit(priority, request, () -> callback.onError(BUSY_ERROR))) {
+            Log.w("API_EXECUTOR", "Petición " + priority + " rechazada - " + executor.describeMetrics());
+        }
+    }
+
+    /**
+     * Conexión con timeouts: sin ellos un servidor colgado retiene el hilo
+     * del ejecutor indefinidamente.
+     */
+    private static HttpURLConnection openConnection(URL url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        return conn;
+    }
+
+    public static int getQueueDepth(ApiExecutor.Priority priority) {
+        return executor.getQueueDepth(priority);
+    }
+
+    public static long getRejectedCount(ApiExecutor.Priority priority) {
+        return executor.getRejectedCount(priority);
+    }
+
+    public static String describeExecutor() {
+        return executor.describeMetrics();
+    }
+
+    // Compresión deflate de los cuerpos, activada por endpoint: solo los lotes
+    // de telemetría, grandes y repetitivos; el resto no llega al mínimo
+    public static final String ENDPOINT_SENSOR_DATA = "/sensordata";
+    public static final String ENDPOINT_SENSOR_BATCH = "/sensordata/batch";
+    private static final RequestBodyCompressor compressor = new RequestBodyCompressor();
+
+    static {
+        compressor.setEnabled(ENDPOINT_SENSOR_BATCH, true);
+    }
+
+    public static void setCompressionEnabled(String endpoint, boolean enabled) {
+        compressor.setEnabled(endpoint, enabled);
+    }
+
+    public static RequestBodyCompressor.Stats getCompressionStats(String endpoint) {
+        return compressor.getStats(endpoint);
+    }
+
+    public static String describeCompression() {
+        return compressor.describeMetrics();
+    }
+
+    private static boolean writeBody(HttpURLConnection conn, String endpoint, byte[] body) throws IOException {
+        return writeBody(conn, endpoint, body, true);
+    }
+
+    /**
+     * Escribe el cuerpo en la conexión, comprimido si el endpoint lo tiene
+     * activado, supera el mínimo y allowCompression es true.
+     *
+     * @return true si se envió comprimido
+     */
+    private static boolean writeBody(HttpURLConnection conn, String endpoint, byte[] body,
+            boolean allowCompression) throws IOException {
+        boolean compress = allowCompression && compressor.shouldCompress(endpoint, body.length);
+        if (compress) {
+            conn.setRequestProperty("Content-Encoding", RequestBodyCompressor.CONTENT_ENCODING);
+            conn.setChunkedStreamingMode(0);
+        } else {
+            conn.setFixedLengthStreamingMode(body.length);
+        }
+        OutputStream os = conn.getOutputStream();
+        try {
+            compressor.write(os, endpoint, body, compress);
+        } finally {
+            os.close();
+        }
+        return compress;
+    }
+
     public interface ApiCallback {
         void onSuccess(JSONObject response);
 
@@ -20,10 +138,10 @@ public class ApiService {
     }
 
     public static void login(String email, String password, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/login");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setDoOutput(true);
@@ -58,17 +176,17 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_LOGIN", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void registerNewUser(String nombre, String correo, String password,
             String confirmPassword, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/register");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setDoOutput(true);
@@ -108,16 +226,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_REGISTER", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void checkEmailAvailability(String email, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/registervalid/" + email);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("GET");
                 conn.setRequestProperty("Content-Type", "application/json");
 
@@ -140,16 +258,16 @@ public class ApiService {
                 Log.e("API_CHECK_EMAIL", "Error: " + e.toString());
                 callback.onError("Error al verificar email");
             }
-        }).start();
+        });
     }
 
     // Actualizar nombre y correo de usuario
     public static void updateUser(String correoActual, String nombre, String nuevoCorreo, String token,
             ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/" + correoActual);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("PUT");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setRequestProperty("Authorization", "Bearer " + token);
@@ -188,18 +306,18 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_UPDATE_USER", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void changePassword(String userEmail, String currentPassword, String newPassword,
             String confirmPassword,
             String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/changepassword/" + userEmail);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("PUT");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setRequestProperty("Authorization", "Bearer " + token);
@@ -240,18 +358,18 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_CHANGE_PASS", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     // Registrar o actualizar dispositivo
     public static void registerDevice(long userId, String deviceUUID, String deviceModel,
             String androidVersion, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.CRITICAL, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/dispositivos/register");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -297,17 +415,17 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_REGISTER_DEVICE", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void startSession(long userId, long deviceId, String contexto,
             String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.CRITICAL, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/sesiones/start");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -353,16 +471,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_START_SESSION", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void endSession(long sessionId, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.CRITICAL, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/sesiones/" + sessionId + "/finalizar");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("PUT");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setRequestProperty("Authorization", "Bearer " + token);
@@ -392,16 +510,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_END_SESSION", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void sendSensorData(long sessionId, JSONObject sensorData, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.TELEMETRY, callback, () -> {
             try {
-                URL url = new URL(API_BASE + "/sensordata");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                URL url = new URL(API_BASE + ENDPOINT_SENSOR_DATA);
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setRequestProperty("Authorization", "Bearer " + token);
@@ -410,9 +528,7 @@ public class ApiService {
 
                 sensorData.put("id_sesion", sessionId);
 
-                OutputStream os = conn.getOutputStream();
-                os.write(sensorData.toString().getBytes("UTF-8"));
-                os.close();
+                writeBody(conn, ENDPOINT_SENSOR_DATA, sensorData.toString().getBytes("UTF-8"));
 
                 int responseCode = conn.getResponseCode();
 
@@ -438,17 +554,17 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_SENSOR_DATA", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void sendSensorDataBatch(long sessionId, org.json.JSONArray sensorDataArray,
             String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.TELEMETRY, callback, () -> {
             try {
-                URL url = new URL(API_BASE + "/sensordata/batch");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                URL url = new URL(API_BASE + ENDPOINT_SENSOR_BATCH);
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setRequestProperty("Authorization", "Bearer " + token);
@@ -461,11 +577,33 @@ public class ApiService {
                     item.put("id_sesion", sessionId);
                 }
 
-                OutputStream os = conn.getOutputStream();
-                os.write(sensorDataArray.toString().getBytes("UTF-8"));
-                os.close();
+                boolean compressed = writeBody(conn, ENDPOINT_SENSOR_BATCH,
+                        sensorDataArray.toString().getBytes("UTF-8"));
 
                 int responseCode = conn.getResponseCode();
+                if (responseCode == HttpURLConnection.HTTP_UNSUPPORTED_TYPE && compressed) {
+                    // El servidor no acepta cuerpos comprimidos en esta ruta
+                    compressor.setEnabled(ENDPOINT_SENSOR_BATCH, false);
+                    conn.disconnect();
+                    Log.w("API_SENSOR_BATCH", "Compresión rechazada - se envía sin comprimir");
+                    callback.onError(UNSUPPORTED_FORMAT_ERROR);
+                    return;
+                }
+
+                if (isRetryableStatus(responseCode)) {
+                    // Sin leer el cuerpo: en una caída puede no ser JSON
+                    Log.w("API_SENSOR_BATCH", "HTTP " + responseCode + " - se reintentará");
+                    conn.disconnect();
+                    callback.onError(SERVER_ERROR);
+                    return;
+                }
+
+                if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                    Log.w("API_SENSOR_BATCH", "HTTP 401 - token rechazado");
+                    conn.disconnect();
+                    callback.onError(UNAUTHORIZED_ERROR);
+                    return;
+                }
 
                 BufferedReader in = new BufferedReader(new InputStreamReader(
                         responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream()));
@@ -489,17 +627,99 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_SENSOR_BATCH", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
+    }
+
+    public static boolean isColumnarBatchSupported() {
+        return columnarBatchSupported;
+    }
+
+    /**
+     * Mismo endpoint que sendSensorDataBatch, con el lote ya codificado por
+     * SensorBatchCodec (el id de sesión va dentro del cuerpo).
+     */
+    public static void sendSensorDataBatchColumnar(byte[] body, String token, ApiCallback callback) {
+        execute(ApiExecutor.Priority.TELEMETRY, callback, () -> {
+            try {
+                URL url = new URL(API_BASE + ENDPOINT_SENSOR_BATCH);
+                HttpURLConnection conn = openConnection(url);
+                conn.setRequestMethod("POST");
+                conn.setRequestProperty("Content-Type", SensorBatchCodec.CONTENT_TYPE);
+                conn.setRequestProperty("Accept", "application/json");
+                conn.setRequestProperty("Authorization", "Bearer " + token);
+                conn.setDoOutput(true);
+                conn.setDoInput(true);
+
+                boolean compressed = writeBody(conn, ENDPOINT_SENSOR_BATCH, body, columnarCompressionSupported);
+
+                int responseCode = conn.getResponseCode();
+                if (responseCode == HttpURLConnection.HTTP_UNSUPPORTED_TYPE) {
+                    // Primero se descarta la compresión, solo para este formato:
+                    // el rechazo puede ser del formato y no decir nada de JSON
+                    // comprimido. Si ya iba sin comprimir, el servidor no
+                    // soporta el formato y se vuelve a JSON
+                    if (compressed) {
+                        columnarCompressionSupported = false;
+                        Log.w("API_SENSOR_BATCH", "Lote por columnas comprimido rechazado - se envía sin comprimir");
+                    } else {
+                        columnarBatchSupported = false;
+                        Log.w("API_SENSOR_BATCH", "Formato por columnas rechazado - se usa JSON");
+                    }
+                    conn.disconnect();
+                    callback.onError(UNSUPPORTED_FORMAT_ERROR);
+                    return;
+                }
+
+                if (isRetryableStatus(responseCode)) {
+                    // Sin leer el cuerpo: en una caída puede no ser JSON
+                    Log.w("API_SENSOR_BATCH", "HTTP " + responseCode + " - se reintentará");
+                    conn.disconnect();
+                    callback.onError(SERVER_ERROR);
+                    return;
+                }
+
+                if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                    Log.w("API_SENSOR_BATCH", "HTTP 401 - token rechazado");
+                    conn.disconnect();
+                    callback.onError(UNAUTHORIZED_ERROR);
+                    return;
+                }
+
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream()));
+                StringBuilder response = new StringBuilder();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    response.append(line);
+                }
+                in.close();
+
+                JSONObject jsonResponse = new JSONObject(response.toString());
+
+                if (responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED) {
+                    callback.onSuccess(jsonResponse);
+                } else {
+                    String errorMsg = jsonResponse.optString("message", "Error al enviar lote de datos");
+                    callback.onError(errorMsg);
+                }
+
+                conn.disconnect();
+
+            } catch (Exception e) {
+                Log.e("API_SENSOR_BATCH", "Error: " + e.toString());
+                callback.onError(CONNECTION_ERROR);
+            }
+        });
     }
 
     // Enviar código de recuperación de contraseña
     public static void forgotPassword(String email, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/forgotpass");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setDoOutput(true);
@@ -536,16 +756,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_FORGOT_PASS", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void verifyCode(String email, String code, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/verifycode");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setDoOutput(true);
@@ -583,16 +803,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_VERIFY_CODE", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void resetPassword(String email, String code, String newPassword, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/usuarios/resetpass");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
                 conn.setDoOutput(true);
@@ -631,17 +851,17 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_RESET_PASS", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void sendAlerta(long sessionId, long userId, String tipoAlerta, String severidad,
             String descripcion, JSONObject contexto, long detectedAt, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.CRITICAL, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/alertas");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("POST");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -668,6 +888,21 @@ public class ApiService {
 
                 int responseCode = conn.getResponseCode();
 
+                if (isRetryableStatus(responseCode)) {
+                    // Sin leer el cuerpo: en una caída puede no ser JSON
+                    Log.w("API_ALERTA", "HTTP " + responseCode + " - se reintentará");
+                    conn.disconnect();
+                    callback.onError(SERVER_ERROR);
+                    return;
+                }
+
+                if (responseCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                    Log.w("API_ALERTA", "HTTP 401 - token rechazado");
+                    conn.disconnect();
+                    callback.onError(UNAUTHORIZED_ERROR);
+                    return;
+                }
+
                 BufferedReader in = new BufferedReader(new InputStreamReader(
                         responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream()));
                 StringBuilder response = new StringBuilder();
@@ -690,16 +925,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_ALERTA", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void getAlertasByUsuario(long userId, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/alertas/usuario/" + userId);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("GET");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -732,16 +967,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_GET_ALERTAS", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void getAlertasByDeviceUUID(String deviceUUID, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/alertas/dispositivo/" + deviceUUID);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("GET");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -769,16 +1004,16 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_GET_ALERTAS_DEVICE", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 
     public static void getAlertasBySession(long sessionId, String token, ApiCallback callback) {
-        new Thread(() -> {
+        execute(ApiExecutor.Priority.INTERACTIVE, callback, () -> {
             try {
                 URL url = new URL(API_BASE + "/alertas/sesion/" + sessionId);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                HttpURLConnection conn = openConnection(url);
                 conn.setRequestMethod("GET");
                 conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
 
@@ -811,8 +1046,8 @@ public class ApiService {
 
             } catch (Exception e) {
                 Log.e("API_GET_SESSION_ALERTS", "Error: " + e.toString());
-                callback.onError("Error al conectar con el servidor");
+                callback.onError(CONNECTION_ERROR);
             }
-        }).start();
+        });
     }
 }
@@ -0,0 +1,281 @@
+package com.example.sensorprojectv1;
+
+import java.util.Arrays;
+
+/**
+ * Estimador continuo de cadencia (pasos por minuto) por autocorrelación de la
+ * aceleración vertical en una ventana deslizante (Java puro).
+ *
+ * A diferencia de la clasificación por un solo intervalo entre pasos, un pico
+ * perdido o de más apenas mueve la autocorrelación de la ventana, así que la
+ * velocidad no cambia de clase por un error aislado del detector de picos.
+ *
+ * Funcionamiento:
+ * - La señal se remuestrea a una grilla fija ({@link #DEFAULT_GRID_PERIOD_NS})
+ *   tomando la última muestra recibida, y se centra con una media exponencial.
+ * - Las sumas de productos x[n]·x[n-L] de cada retardo L del rango de
+ *   cadencias se mantienen de forma incremental: al entrar una muestra se suman
+ *   sus productos y al salir la más vieja se restan los suyos. Costo por
+ *   muestra O(retardos), ~50 multiplicaciones, sin reservas de memoria. Con cada
+ *   ventana completa se recalculan las sumas desde cero para no acumular error.
+ * - El periodo de paso es el primer máximo local cercano al máximo global
+ *   (evita tomar el periodo de zancada, dos pasos), refinado con interpolación
+ *   parabólica.
+ * - La confianza es la autocorrelación normalizada en ese retardo (0..1); la
+ *   cadencia informada se suaviza con una media exponencial mientras la
+ *   confianza supera {@link #MIN_CONFIDENCE}.
+ *
+ * Los tiempos son timestamps monotónicos en nanosegundos. No es thread-safe.
+ */
+public class CadenceEstimator {
+
+    public static final long DEFAULT_GRID_PERIOD_NS = 40_000_000L; // 25 Hz
+    public static final long DEFAULT_WINDOW_NS = 4_000_000_000L; // 4 segundos
+
+    // Rango de cadencias buscado (pasos/min)
+    public static final float MIN_CADENCE = 50f;
+    public static final float MAX_CADENCE = 180f;
+
+    // Por debajo de esta confianza la cadencia no se usa para la velocidad
+    public static final float MIN_CONFIDENCE = 0.5f;
+
+    // Varianza mínima de la ventana ((m/s²)²): por debajo, el usuario está quieto
+    private static final float MIN_VARIANCE = 0.05f;
+    // Un máximo local cuenta como periodo de paso si llega a esta fracción del global
+    private static final float PEAK_RATIO = 0.8f;
+    // Suavizado de la media (centrado) y de la cadencia, por muestra de la grilla
+    private static final float MEAN_ALPHA = 0.02f; // ~2 s
+    private static final float CADENCE_ALPHA = 0.05f; // ~0.8 s
+
+    private final long gridPeriodNs;
+    private final int windowSize;
+    private final int minLag;
+    private final int maxLag;
+
+    private final float[] window;
+    // lagSums[k] = Σ x[n]·x[n-L] con L = minLag - 1 + k (incluye los vecinos para interpolar)
+    private final double[] lagSums;
+    private final float[] correlation;
+    private double energy;
+    private int head = 0; // posición de la próxima muestra
+    private int filled = 0;
+    private int samplesSinceRecompute = 0;
+
+    private boolean hasGrid = false;
+    private long nextGridNs;
+    private float mean;
+    private boolean hasMean = false;
+
+    private float rawCadence = 0f;
+    private float cadence = 0f;
+    private float confidence = 0f;
+
+    public CadenceEstimator() {
+        this(DEFAULT_GRID_PERIOD_NS, DEFAULT_WINDOW_NS);
+    }
+
+    public CadenceEstimator(long gridPeriodNs, long windowNs) {
+        this.gridPeriodNs = gridPeriodNs;
+        // Retardo = periodo de paso en muestras de la grilla
+        minLag = Math.max(2, (int) Math.floor(60e9 / MAX_CADENCE / gridPeriodNs));
+        maxLag = (int) Math.ceil(60e9 / MIN_CADENCE / gridPeriodNs);
+        windowSize = (int) (windowNs / gridPeriodNs);
+        if (windowSize < 2 * (maxLag + 1)) {
+            throw new IllegalArgumentException("Ventana demasiado corta para la cadencia mínima: "
+                    + windowNs + " ns");
+        }
+        window = new float[windowSize];
+        lagSums = new double[maxLag - minLag + 3];
+        correlation = new float[lagSums.length];
+    }
+
+    /**
+     * Agrega una muestra de aceleración vertical (sin gravedad, o con gravedad
+     * constante: la media se quita aquí).
+     *
+     * @return true si la estimación se actualizó
+     */
+    public boolean onSample(float verticalAcc, long timestampNs) {
+        if (!hasGrid) {
+            hasGrid = true;
+            nextGridNs = timestampNs;
+        } else if (timestampNs - nextGridNs > windowSize * gridPeriodNs) {
+            // Hueco más largo que la ventana (sensores pausados): empezar de nuevo
+            reset();
+            hasGrid = true;
+            nextGridNs = timestampNs;
+        }
+
+        boolean updated = false;
+        while (timestampNs >= nextGridNs) {
+            push(verticalAcc);
+            nextGridNs += gridPeriodNs;
+            if (filled == windowSize) {
+                estimate();
+                updated = true;
+            }
+        }
+        return updated;
+    }
+
+    private void push(float value) {
+        if (!hasMean) {
+            mean = value;
+            hasMean = true;
+        } else {
+            mean += MEAN_ALPHA * (value - mean);
+        }
+        float x = value - mean;
+
+        if (filled == windowSize) {
+            // Sale la más vieja (en head): restar sus productos con las siguientes
+            float oldest = window[head];
+            energy -= (double) oldest * oldest;
+            for (int k = 0; k < lagSums.length; k++) {
+                int lag = minLag - 1 + k;
+                lagSums[k] -= (double) oldest * window[(head + lag) % windowSize];
+            }
+        } else {
+            filled++;
+        }
+
+        window[head] = x;
+        energy += (double) x * x;
+        for (int k = 0; k < lagSums.length; k++) {
+            int lag = minLag - 1 + k;
+            if (lag < filled) {
+                lagSums[k] += (double) x * window[(head - lag + windowSize) % windowSize];
+            }
+        }
+        head = (head + 1) % windowSize;
+
+        if (++samplesSinceRecompute >= windowSize && filled == windowSize) {
+            recompute();
+        }
+    }
+
+    /**
+     * Recalcula las sumas desde la ventana para descartar el error de redondeo
+     * acumulado por las sumas y restas incrementales.
+     */
+    private void recompute() {
+        samplesSinceRecompute = 0;
+        double e = 0;
+        for (int i = 0; i < windowSize; i++) {
+            e += (double) window[i] * window[i];
+        }
+        energy = e;
+        for (int k = 0; k < lagSums.length; k++) {
+            int lag = minLag - 1 + k;
+            double sum = 0;
+            // head es la muestra más vieja con la ventana llena
+            for (int i = lag; i < windowSize; i++) {
+                sum += (double) window[(head + i) % windowSize]
+                        * window[(head + i - lag) % windowSize];
+            }
+            lagSums[k] = sum;
+        }
+    }
+
+    private void estimate() {
+        double variance = energy / windowSize;
+        if (variance < MIN_VARIANCE) {
+            confidence = 0f;
+            return;
+        }
+
+        // Autocorrelación normalizada: cada retardo promedia windowSize - L productos
+        float best = -1f;
+        for (int k = 0; k < lagSums.length; k++) {
+            int lag = minLag - 1 + k;
+            correlation[k] = (float) (lagSums[k] / (windowSize - lag) / variance);
+            if (k > 0 && k < lagSums.length - 1 && correlation[k] > best) {
+                best = correlation[k];
+            }
+        }
+        if (best <= 0f) {
+            confidence = 0f;
+            return;
+        }
+
+        // Primer máximo local suficientemente alto: periodo de paso, no de zancada
+        int peak = -1;
+        for (int k = 1; k < lagSums.length - 1; k++) {
+            float r = correlation[k];
+            if (r >= PEAK_RATIO * best && r >= correlation[k - 1] && r >= correlation[k + 1]) {
+                peak = k;
+                break;
+            }
+        }
+        if (peak < 0) {
+            confidence = 0f;
+            return;
+        }
+
+        float left = correlation[peak - 1];
+        float center = correlation[peak];
+        float right = correlation[peak + 1];
+        float denominator = left - 2f * center + right;
+        float offset = denominator < 0f ? 0.5f * (left - right) / denominator : 0f;
+        float lag = minLag - 1 + peak + offset;
+
+        rawCadence = (float) (60e9 / (lag * gridPeriodNs));
+        float previousConfidence = confidence;
+        confidence = Math.min(1f, center);
+
+        if (confidence < MIN_CONFIDENCE) {
+            return;
+        }
+        if (previousConfidence < MIN_CONFIDENCE || cadence == 0f) {
+            cadence = rawCadence; // Nueva caminata: sin arrastrar la cadencia anterior
+        } else {
+            cadence += CADENCE_ALPHA * (rawCadence - cadence);
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(window, 0f);
+        Arrays.fill(lagSums, 0);
+        energy = 0;
+        head = 0;
+        filled = 0;
+        samplesSinceRecompute = 0;
+        hasGrid = false;
+        hasMean = false;
+        rawCadence = 0f;
+        cadence = 0f;
+        confidence = 0f;
+    }
+
+    /**
+     * Cadencia suavizada en pasos por minuto (0 hasta la primera estimación confiable).
+     */
+    public float getCadence() {
+        return cadence;
+    }
+
+    /**
+     * Cadencia de la última ventana, sin suavizar.
+     */
+    public float getRawCadence() {
+        return rawCadence;
+    }
+
+    /**
+     * Autocorrelación normalizada en el periodo de paso (0..1).
+     */
+    public float getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * true si la cadencia suavizada puede usarse para la velocidad.
+     */
+    public boolean isConfident() {
+        return confidence >= MIN_CONFIDENCE && cadence > 0f;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+}
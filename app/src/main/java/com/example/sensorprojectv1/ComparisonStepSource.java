@@ -0,0 +1,76 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Modo comparación: alimenta dos fuentes con los mismos eventos. La principal
+ * define el estado de caminata y las alertas; la secundaria corre en paralelo
+ * solo para medir la diferencia de conteo entre ambas.
+ */
+public class ComparisonStepSource implements StepSource {
+
+    private final StepSource primary;
+    private final StepSource shadow;
+
+    public ComparisonStepSource(StepSource primary, StepSource shadow) {
+        this.primary = primary;
+        this.shadow = shadow;
+    }
+
+    @Override
+    public boolean onMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        shadow.onMotionSample(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+        return primary.onMotionSample(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+    }
+
+    @Override
+    public int onMotionSamples(SensorSampleBatch batch) {
+        shadow.onMotionSamples(batch);
+        return primary.onMotionSamples(batch);
+    }
+
+    @Override
+    public boolean onHardwareStep(long timestampNs) {
+        shadow.onHardwareStep(timestampNs);
+        return primary.onHardwareStep(timestampNs);
+    }
+
+    @Override
+    public boolean usesHardwareStepDetector() {
+        return primary.usesHardwareStepDetector() || shadow.usesHardwareStepDetector();
+    }
+
+    @Override
+    public boolean isStepInProgress() {
+        return primary.isStepInProgress() || shadow.isStepInProgress();
+    }
+
+    @Override
+    public WalkingStateTracker getWalkingState() {
+        return primary.getWalkingState();
+    }
+
+    @Override
+    public StepDetector getStepDetector() {
+        return primary.getStepDetector();
+    }
+
+    /**
+     * Pasos de la principal menos pasos de la secundaria.
+     */
+    public int getStepDifference() {
+        return primary.getWalkingState().getStepCount() - shadow.getWalkingState().getStepCount();
+    }
+
+    @Override
+    public String describe() {
+        return "COMPARACION | Principal: " + primary.describe()
+                + " || Secundaria: " + shadow.describe()
+                + " || Diferencia: " + getStepDifference();
+    }
+
+    @Override
+    public void reset() {
+        primary.reset();
+        shadow.reset();
+    }
+}
@@ -0,0 +1,398 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Cadena de detección completa, sin dependencias de Android (Java puro).
+ *
+ * Recibe las muestras ya separadas por {@link SensorSource} (aceleración
+ * equivalente + gravedad, giroscopio y pasos del sensor hub) y ejecuta:
+ * fuente de pasos y cadencia → estado de caminata → fusión alineada por
+ * timestamp → uso del teléfono → detección combinada y alertas. La usan tanto
+ * MainActivity, con los eventos en vivo, como {@link SensorTraceReplayer},
+ * con una grabación, para que ambas rutas corran exactamente el mismo código.
+ *
+ * Los efectos externos (log, UI, sonido, red, frecuencia de muestreo) quedan
+ * en el {@link Listener}. No es thread-safe: se usa desde un solo hilo.
+ */
+public class DetectionPipeline {
+
+    public static final long DEFAULT_FUSION_PERIOD_NS = 40_000_000L; // 25 Hz
+    public static final long RECENT_STEPS_WINDOW_NS = 2_000_000_000L; // 2 segundos
+
+    private static final int STEP_STATUS_TRACE_INTERVAL = 10; // muestras (~5 Hz)
+    private static final float G = 9.81f;
+
+    public interface Listener {
+        /**
+         * Después de procesar una muestra, lote o paso del sensor hub.
+         *
+         * @param stepDetected   se aceptó al menos un paso
+         * @param stoppedWalking el usuario dejó de caminar con esta entrada
+         */
+        void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking);
+
+        /**
+         * Después de cada detección combinada (una por muestra combinada o por lote).
+         */
+        void onDetection(long timestampNs);
+
+        /**
+         * Comienzo de una alerta (caminando y usando el teléfono).
+         */
+        void onAlert(long timestampNs);
+    }
+
+    private final StepDetector stepDetector;
+    private final boolean fusedGravity;
+    private final DetectionTrace trace;
+    private final Listener listener;
+    private final SensorFusionStage fusionStage;
+    private final PhoneUsageDetector phoneUsageDetector = new PhoneUsageDetector();
+    private final CadenceEstimator cadenceEstimator = new CadenceEstimator();
+    private StepSource stepSource;
+
+    // En modo por lotes la detección combinada corre una vez por ráfaga
+    private boolean batching = false;
+    private long lastTimestampNs = 0;
+    private int lastRejectedSteps = 0;
+    // Muestras de movimiento recibidas, con cualquier fuente de pasos y entrega
+    private long motionSamples = 0;
+
+    private volatile int stepCount = 0; // volatile: se consulta desde la UI
+    private boolean walking = false;
+    private String walkingSpeed = StepDetector.SPEED_NONE;
+    private boolean usingPhone = false;
+    private boolean walkingAndUsingPhone = false;
+    private volatile int totalAlerts = 0; // volatile: se consulta desde la UI
+
+    /**
+     * @param fusedGravity true si la orientación debe usar la gravedad del
+     *                     sensor fusionado en lugar de la aceleración
+     */
+    public DetectionPipeline(StepDetector stepDetector, StepSource stepSource, boolean fusedGravity,
+            DetectionTrace trace, long fusionPeriodNs, Listener listener) {
+        this.stepDetector = stepDetector;
+        this.stepSource = stepSource;
+        this.fusedGravity = fusedGravity;
+        this.trace = trace;
+        this.listener = listener;
+        this.fusionStage = new SensorFusionStage(fusionPeriodNs, this::onFusedSample);
+    }
+
+    public void setStepSource(StepSource stepSource) {
+        this.stepSource = stepSource;
+    }
+
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
+    public void setGyroscopeEnabled(boolean enabled) {
+        fusionStage.setGyroscopeEnabled(enabled);
+    }
+
+    public void onGyroscope(float x, float y, float z, long timestampNs) {
+        lastTimestampNs = timestampNs;
+        // Solo actualiza la etapa de fusión: no dispara la detección combinada
+        fusionStage.onGyroscope(x, y, z, timestampNs);
+    }
+
+    /**
+     * Muestra de movimiento entregada evento por evento.
+     */
+    public void onMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        lastTimestampNs = timestampNs;
+        motionSamples++;
+        boolean wasWalking = walking;
+        estimateCadence(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+        boolean stepDetected = stepSource.onMotionSample(accX, accY, accZ,
+                gravityX, gravityY, gravityZ, timestampNs);
+        updateWalkingState(wasWalking, stepDetected);
+
+        // Emite (según el periodo de salida) una muestra combinada → onFusedSample
+        fusionStage.onAccelerometer(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+    }
+
+    /**
+     * Modo por lotes: la muestra solo alimenta la fusión; los pasos se procesan
+     * con el lote completo en {@link #onMotionBurst}.
+     */
+    public void onBatchedMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        lastTimestampNs = timestampNs;
+        motionSamples++;
+        fusionStage.onAccelerometer(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+    }
+
+    /**
+     * Ráfaga del FIFO: pasos del lote completo y una detección combinada con la
+     * última muestra combinada.
+     */
+    public void onMotionBurst(SensorSampleBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean wasWalking = walking;
+        for (int i = 0; i < batch.size(); i++) {
+            estimateCadence(batch.x[i], batch.y[i], batch.z[i],
+                    batch.gravityX[i], batch.gravityY[i], batch.gravityZ[i], batch.timestamps[i]);
+        }
+        int steps = stepSource.onMotionSamples(batch);
+        updateWalkingState(wasWalking, steps > 0);
+
+        if (fusionStage.hasOutput()) {
+            runCombinedDetection(fusionStage.getLatestSample());
+        }
+    }
+
+    /**
+     * Evento de TYPE_STEP_DETECTOR: un paso detectado por el sensor hub.
+     */
+    public void onHardwareStep(long timestampNs) {
+        lastTimestampNs = timestampNs;
+        boolean wasWalking = walking;
+        boolean stepDetected = stepSource.onHardwareStep(timestampNs);
+        updateWalkingState(wasWalking, stepDetected);
+    }
+
+    /**
+     * Alimenta {@link CadenceEstimator} con la aceleración vertical: proyección
+     * sobre la gravedad fusionada o, sin ella, el módulo de la aceleración
+     * (independiente de la orientación). Corre con cualquier fuente de pasos,
+     * también con el sensor hub, que no entrega la señal.
+     */
+    private void estimateCadence(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        float vertical;
+        if (fusedGravity) {
+            float gravitySq = gravityX * gravityX + gravityY * gravityY + gravityZ * gravityZ;
+            if (gravitySq <= 0f) {
+                return; // Todavía sin gravedad del sensor fusionado
+            }
+            vertical = (accX * gravityX + accY * gravityY + accZ * gravityZ)
+                    / (float) Math.sqrt(gravitySq);
+        } else {
+            vertical = (float) Math.sqrt(accX * accX + accY * accY + accZ * accZ);
+        }
+        // La media la quita el estimador; restar G solo deja la señal cerca de 0
+        cadenceEstimator.onSample(vertical - G, timestampNs);
+    }
+
+    private void onFusedSample(SensorFusionStage.FusedSample sample) {
+        if (!batching) {
+            runCombinedDetection(sample);
+        }
+    }
+
+    private void runCombinedDetection(SensorFusionStage.FusedSample sample) {
+        detectPhoneUsage(sample);
+        detectWalkingAndPhoneUse();
+        listener.onDetection(lastTimestampNs);
+    }
+
+    private void updateWalkingState(boolean wasWalking, boolean stepDetected) {
+        WalkingStateTracker walkingState = stepSource.getWalkingState();
+        stepCount = walkingState.getStepCount();
+        walking = walkingState.isWalking();
+        // Con una cadencia confiable la velocidad sale de la ventana completa; si
+        // no (arranque, señal irregular), del último intervalo entre pasos
+        if (walking && cadenceEstimator.isConfident()) {
+            walkingSpeed = WalkingStateTracker.speedForCadence(cadenceEstimator.getCadence());
+        } else {
+            walkingSpeed = walkingState.getWalkingSpeed();
+        }
+
+        // Pico y umbral solo si los pasos salen del detector de picos; con el
+        // sensor hub serían los de la última vez que corrió el software
+        StepDetector activeDetector = stepSource.getStepDetector();
+        float peak = activeDetector != null ? activeDetector.getLastStepPeak() : DetectionTrace.NO_VALUE;
+        float threshold = activeDetector != null ? activeDetector.getDynamicThreshold() : DetectionTrace.NO_VALUE;
+        if (stepDetected) {
+            trace.record(DetectionTrace.Event.STEP_DETECTED, lastTimestampNs,
+                    walkingState.getLastStepIntervalMs(), peak, threshold, stepCount,
+                    DetectionTrace.speedCode(walkingSpeed), cadenceEstimator.getCadence());
+        } else if (walkingState.getRejectedSteps() != lastRejectedSteps) {
+            trace.record(DetectionTrace.Event.STEP_REJECTED, lastTimestampNs,
+                    walkingState.getRejectedSteps(), peak, threshold);
+        }
+        lastRejectedSteps = walkingState.getRejectedSteps();
+
+        if (activeDetector != null && activeDetector.isBufferReady()
+                && activeDetector.getSamplesCollected() % STEP_STATUS_TRACE_INTERVAL == 0) {
+            trace.record(DetectionTrace.Event.STEP_STATUS, lastTimestampNs,
+                    activeDetector.getVerticalAcc(), activeDetector.getFilteredAcc(),
+                    activeDetector.getCenteredAcc(), activeDetector.getDynamicThreshold(),
+                    activeDetector.getStdDev(), stepCount);
+        }
+
+        listener.onStepUpdate(lastTimestampNs, stepDetected, wasWalking && !walking);
+    }
+
+    /**
+     * Uso del teléfono: delega en {@link PhoneUsageDetector} (sin trigonometría,
+     * con histéresis y tiempo mínimo de permanencia).
+     */
+    private void detectPhoneUsage(SensorFusionStage.FusedSample sample) {
+        // Orientación: con sensores fusionados se usa la gravedad, que no incluye
+        // la aceleración de los pasos
+        boolean changed;
+        if (fusedGravity) {
+            changed = phoneUsageDetector.onSample(sample.gyroX, sample.gyroY, sample.gyroZ,
+                    sample.gravityX, sample.gravityY, sample.gravityZ, sample.timestampNs);
+        } else {
+            changed = phoneUsageDetector.onSample(sample.gyroX, sample.gyroY, sample.gyroZ,
+                    sample.accX, sample.accY, sample.accZ, sample.timestampNs);
+        }
+        usingPhone = phoneUsageDetector.isUsingPhone();
+
+        trace.record(DetectionTrace.Event.PHONE_USAGE, sample.timestampNs,
+                phoneUsageDetector.getGyroMagnitudeSq(),
+                phoneUsageDetector.isOriented() ? 1f : 0f,
+                phoneUsageDetector.isGyroActive() ? 1f : 0f,
+                phoneUsageDetector.isCandidate() ? 1f : 0f,
+                usingPhone ? 1f : 0f,
+                0f);
+        if (changed) {
+            trace.record(DetectionTrace.Event.PHONE_USAGE_CHANGED, sample.timestampNs,
+                    usingPhone ? 1f : 0f,
+                    phoneUsageDetector.isOriented() ? 1f : 0f,
+                    phoneUsageDetector.isGyroActive() ? 1f : 0f);
+        }
+    }
+
+    private void detectWalkingAndPhoneUse() {
+        boolean previousState = walkingAndUsingPhone;
+
+        // Validación robusta: requiere caminata confirmada + uso del teléfono
+        // Evita alertas por un solo paso o movimientos aislados
+        long now = lastTimestampNs;
+
+        // Contar pasos recientes (últimos 2 segundos)
+        int stepsInLast2Seconds = stepSource.getWalkingState().countRecentSteps(now, RECENT_STEPS_WINDOW_NS);
+
+        boolean walkingConfirmed = walking && stepsInLast2Seconds >= 2;
+
+        walkingAndUsingPhone = walkingConfirmed && usingPhone;
+
+        // Con el sensor hub no hay varianza de ventana: la del detector de
+        // picos sería la de la última vez que corrió
+        StepDetector activeDetector = stepSource.getStepDetector();
+        float variance = activeDetector != null ? activeDetector.getVariance() : DetectionTrace.NO_VALUE;
+        trace.record(DetectionTrace.Event.DETECTION_STATUS, now,
+                walking ? 1f : 0f,
+                DetectionTrace.speedCode(walkingSpeed),
+                usingPhone ? 1f : 0f,
+                walkingAndUsingPhone ? 1f : 0f,
+                variance,
+                stepCount);
+
+        // Si cambió el estado a alerta, avisar (sonido/vibración/servidor)
+        if (!previousState && walkingAndUsingPhone) {
+            totalAlerts++;
+            trace.record(DetectionTrace.Event.ALERT, now, totalAlerts,
+                    DetectionTrace.speedCode(walkingSpeed), variance);
+            listener.onAlert(now);
+        }
+    }
+
+    /**
+     * Reinicia la detección de pasos y las alertas (no la fusión ni el uso del teléfono).
+     */
+    public void resetStepDetection() {
+        stepDetector.reset();
+        stepSource.reset();
+        cadenceEstimator.reset();
+        stepCount = 0;
+        walking = false;
+        walkingSpeed = StepDetector.SPEED_NONE;
+        lastRejectedSteps = 0;
+        totalAlerts = 0;
+    }
+
+    public StepDetector getStepDetector() {
+        return stepDetector;
+    }
+
+    /**
+     * Detector de picos de la fuente de pasos actual, o null con el sensor hub.
+     */
+    public StepDetector getActiveStepDetector() {
+        return stepSource.getStepDetector();
+    }
+
+    /**
+     * true si la gravedad de las muestras viene del sensor fusionado.
+     */
+    public boolean hasFusedGravity() {
+        return fusedGravity;
+    }
+
+    public StepSource getStepSource() {
+        return stepSource;
+    }
+
+    public SensorFusionStage getFusionStage() {
+        return fusionStage;
+    }
+
+    public PhoneUsageDetector getPhoneUsageDetector() {
+        return phoneUsageDetector;
+    }
+
+    public CadenceEstimator getCadenceEstimator() {
+        return cadenceEstimator;
+    }
+
+    /**
+     * Timestamp (ns) de la última entrada procesada: el reloj de la detección.
+     */
+    public long getLastTimestampNs() {
+        return lastTimestampNs;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Muestras de movimiento recibidas desde que se creó el pipeline (evento
+     * por evento o por lotes).
+     */
+    public long getMotionSampleCount() {
+        return motionSamples;
+    }
+
+    public boolean isWalking() {
+        return walking;
+    }
+
+    public String getWalkingSpeed() {
+        return walkingSpeed;
+    }
+
+    /**
+     * Cadencia suavizada (pasos/min) de {@link CadenceEstimator}.
+     */
+    public float getCadence() {
+        return cadenceEstimator.getCadence();
+    }
+
+    /**
+     * Confianza de la cadencia (0..1).
+     */
+    public float getCadenceConfidence() {
+        return cadenceEstimator.getConfidence();
+    }
+
+    public boolean isUsingPhone() {
+        return usingPhone;
+    }
+
+    public boolean isWalkingAndUsingPhone() {
+        return walkingAndUsingPhone;
+    }
+
+    public int getTotalAlerts() {
+        return totalAlerts;
+    }
+}
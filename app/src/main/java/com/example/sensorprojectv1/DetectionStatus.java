@@ -0,0 +1,88 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Instantánea inmutable del estado de detección que se muestra en la UI.
+ *
+ * El hilo de sensores obtiene la siguiente instantánea con {@link #with}, que
+ * devuelve la misma instancia si ningún campo cambió: solo se reserva memoria
+ * y se notifica a la UI cuando algo cambia de verdad. Al ser inmutable se
+ * puede compartir entre hilos sin copias.
+ */
+public final class DetectionStatus {
+
+    public enum State {
+        SAFE,
+        PHONE_STATIC,
+        WALKING,
+        ALERT;
+
+        public static State of(boolean walkingAndUsingPhone, boolean walking, boolean usingPhone) {
+            if (walkingAndUsingPhone) {
+                return ALERT;
+            } else if (walking) {
+                return WALKING;
+            } else if (usingPhone) {
+                return PHONE_STATIC;
+            }
+            return SAFE;
+        }
+    }
+
+    public static final DetectionStatus INITIAL =
+            new DetectionStatus(State.SAFE, StepDetector.SPEED_NONE, 0, 0, false, false);
+
+    private final State state;
+    private final String walkingSpeed;
+    private final int stepCount;
+    private final int totalAlerts;
+    private final boolean walking;
+    private final boolean usingPhone;
+
+    private DetectionStatus(State state, String walkingSpeed, int stepCount, int totalAlerts,
+            boolean walking, boolean usingPhone) {
+        this.state = state;
+        this.walkingSpeed = walkingSpeed;
+        this.stepCount = stepCount;
+        this.totalAlerts = totalAlerts;
+        this.walking = walking;
+        this.usingPhone = usingPhone;
+    }
+
+    /**
+     * Devuelve una instantánea con estos valores: esta misma si no cambió nada.
+     */
+    public DetectionStatus with(boolean walkingAndUsingPhone, boolean walking, boolean usingPhone,
+            String walkingSpeed, int stepCount, int totalAlerts) {
+        State newState = State.of(walkingAndUsingPhone, walking, usingPhone);
+        if (newState == state && walking == this.walking && usingPhone == this.usingPhone
+                && stepCount == this.stepCount && totalAlerts == this.totalAlerts
+                && walkingSpeed.equals(this.walkingSpeed)) {
+            return this;
+        }
+        return new DetectionStatus(newState, walkingSpeed, stepCount, totalAlerts, walking, usingPhone);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getWalkingSpeed() {
+        return walkingSpeed;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getTotalAlerts() {
+        return totalAlerts;
+    }
+
+    public boolean isWalking() {
+        return walking;
+    }
+
+    public boolean isUsingPhone() {
+        return usingPhone;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Traza de diagnóstico de los detectores en un buffer circular preasignado
+ * (Java puro).
+ *
+ * Cada registro guarda solo primitivos (timestamp, tipo y hasta
+ * {@link #MAX_FIELDS} valores float): registrar no reserva memoria, no hace
+ * boxing ni formatea texto. El formateo ocurre únicamente al volcar la traza
+ * ({@link #dump}), por ejemplo desde el menú de depuración o un broadcast.
+ * Con el nivel por debajo del evento, {@link #record} se reduce a una
+ * comparación de enteros.
+ *
+ * No es thread-safe: se registra y se vuelca desde el hilo de sensores.
+ */
+public class DetectionTrace {
+
+    public static final int LEVEL_OFF = 0;
+    public static final int LEVEL_INFO = 1; // Pasos, rechazos y alertas
+    public static final int LEVEL_DEBUG = 2; // Estado por muestra de los detectores
+
+    public static final int MAX_FIELDS = 6;
+
+    // Campo que no aplica a este registro (p. ej. el pico de un paso del
+    // sensor hub); el volcado lo muestra como "-"
+    public static final float NO_VALUE = Float.NaN;
+
+    // Tipo de cada campo al formatear: f = float, i = entero, b = SI/NO, v = velocidad
+    public enum Event {
+        STEP_DETECTED(LEVEL_INFO, "Intervalo(ms):i", "Peak:f", "Threshold:f", "Pasos:i", "Velocidad:v", "Cadencia:f"),
+        STEP_REJECTED(LEVEL_INFO, "Rechazados:i", "Peak:f", "Threshold:f"),
+        STEP_STATUS(LEVEL_DEBUG, "Vertical:f", "Filt:f", "Centered:f", "Threshold:f", "StdDev:f", "Pasos:i"),
+        PHONE_USAGE(LEVEL_DEBUG, "GyroMag²:f", "Orientado:b", "Activo:b", "Candidato:b", "Usando:b"),
+        PHONE_USAGE_CHANGED(LEVEL_INFO, "Usando:b", "Orientado:b", "Activo:b"),
+        DETECTION_STATUS(LEVEL_DEBUG, "Caminando:b", "Velocidad:v", "Telefono:b", "Alerta:b", "Varianza:f", "Pasos:i"),
+        ALERT(LEVEL_INFO, "Alerta:i", "Velocidad:v", "Varianza:f");
+
+        final int level;
+        final String[] labels;
+        final char[] kinds;
+
+        Event(int level, String... fields) {
+            this.level = level;
+            labels = new String[fields.length];
+            kinds = new char[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                int sep = fields[i].lastIndexOf(':');
+                labels[i] = fields[i].substring(0, sep);
+                kinds[i] = fields[i].charAt(sep + 1);
+            }
+        }
+    }
+
+    /**
+     * Recibe cada línea formateada del volcado; la línea se reutiliza.
+     */
+    public interface LineSink {
+        void onLine(CharSequence line);
+    }
+
+    private static final Event[] EVENTS = Event.values();
+    private static final String[] SPEEDS = {
+            StepDetector.SPEED_NONE, StepDetector.SPEED_SLOW,
+            StepDetector.SPEED_NORMAL, StepDetector.SPEED_FAST
+    };
+
+    private final long[] timestamps;
+    private final byte[] types;
+    private final float[] values;
+    private final int capacity;
+
+    private int level;
+    private long written = 0;
+
+    public DetectionTrace(int capacity, int level) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.level = level;
+        timestamps = new long[capacity];
+        types = new byte[capacity];
+        values = new float[capacity * MAX_FIELDS];
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Útil cuando calcular los valores de un evento cuesta más que registrarlo.
+     */
+    public boolean isEnabled(Event event) {
+        return event.level <= level;
+    }
+
+    public void record(Event event, long timestampNs, float v0, float v1, float v2) {
+        record(event, timestampNs, v0, v1, v2, 0f, 0f, 0f);
+    }
+
+    public void record(Event event, long timestampNs,
+            float v0, float v1, float v2, float v3, float v4, float v5) {
+        if (event.level > level) {
+            return;
+        }
+        int slot = (int) (written % capacity);
+        timestamps[slot] = timestampNs;
+        types[slot] = (byte) event.ordinal();
+        int base = slot * MAX_FIELDS;
+        values[base] = v0;
+        values[base + 1] = v1;
+        values[base + 2] = v2;
+        values[base + 3] = v3;
+        values[base + 4] = v4;
+        values[base + 5] = v5;
+        written++;
+    }
+
+    /**
+     * Código numérico de una velocidad de {@link StepDetector} para registrarla.
+     */
+    public static float speedCode(String speed) {
+        for (int i = 0; i < SPEEDS.length; i++) {
+            if (SPEEDS[i].equals(speed)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Formatea en orden los registros de los últimos windowNs nanosegundos
+     * antes de nowNs. El tiempo de cada línea es relativo a nowNs.
+     *
+     * @return cantidad de registros volcados
+     */
+    public int dump(long nowNs, long windowNs, LineSink sink) {
+        long available = Math.min(written, capacity);
+        StringBuilder line = new StringBuilder(160);
+        int dumped = 0;
+        for (long sequence = written - available; sequence < written; sequence++) {
+            int slot = (int) (sequence % capacity);
+            long t = timestamps[slot];
+            if (nowNs - t > windowNs) {
+                continue;
+            }
+            Event event = EVENTS[types[slot]];
+            line.setLength(0);
+            line.append(String.format("[%+.3fs] ", (t - nowNs) / 1e9)).append(event.name());
+            int base = slot * MAX_FIELDS;
+            for (int i = 0; i < event.labels.length; i++) {
+                line.append(" | ").append(event.labels[i]).append(": ");
+                appendValue(line, event.kinds[i], values[base + i]);
+            }
+            sink.onLine(line);
+            dumped++;
+        }
+        return dumped;
+    }
+
+    private static void appendValue(StringBuilder line, char kind, float value) {
+        if (Float.isNaN(value)) {
+            line.append('-');
+            return;
+        }
+        switch (kind) {
+            case 'i':
+                line.append((long) value);
+                break;
+            case 'b':
+                line.append(value != 0f ? "SI" : "NO");
+                break;
+            case 'v':
+                int code = (int) value;
+                line.append(code >= 0 && code < SPEEDS.length ? SPEEDS[code] : "?");
+                break;
+            default:
+                line.append(String.format("%.3f", value));
+                break;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Total de registros escritos desde la creación (incluye los sobrescritos).
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    public void clear() {
+        written = 0;
+    }
+}
@@ -0,0 +1,602 @@
+package com.example.sensorprojectv1;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Cola de subida persistente: log de solo anexado en segmentos, con checksum
+ * por registro y un offset confirmado (Java puro).
+ *
+ * Lo que hay que subir (lotes de telemetría, alertas) se escribe aquí antes
+ * del envío y se confirma con {@link #commit} cuando el servidor respondió;
+ * si no hay red o la app muere, queda en disco y se reenvía en orden al
+ * volver. La entrega es "al menos una vez": un registro enviado cuya
+ * confirmación no llegó a guardarse se vuelve a enviar.
+ *
+ * Formato:
+ * - Segmentos "<secuencia del primer registro>.log" de hasta segmentBytes.
+ * - Registro (little-endian): largo del payload (int), CRC32 (int) de
+ *   secuencia + tipo + payload, secuencia (long), tipo (byte), payload.
+ * - "commit": próxima secuencia a entregar (long) + su CRC32 (int), escrito
+ *   en un archivo temporal y renombrado (reemplazo atómico).
+ *
+ * Al abrir se recorren los segmentos validando cada registro; la cola se
+ * corta en el primer registro incompleto o corrupto (escritura interrumpida)
+ * y se borran los segmentos ya confirmados. Un registro dañado entre
+ * registros válidos no corta la cola: {@link #peek} lo salta y lo cuenta
+ * como descartado, igual que si se daña con la cola abierta. La lectura es secuencial con un
+ * cursor en el segmento actual, así que reenviar tras un corte no busca nada.
+ *
+ * Disco acotado: si los segmentos superan maxBytes se borran los más viejos
+ * aunque no estén confirmados (se cuentan en {@link #getDroppedRecords()}).
+ * No se fuerza fsync en cada registro: sobrevive a la muerte del proceso (el
+ * sistema ya tiene los datos); ante un corte de energía se pueden perder los
+ * últimos registros, que el CRC detecta al abrir.
+ *
+ * No es thread-safe: se usa desde un solo hilo.
+ */
+public class DurableUploadQueue implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    static final int HEADER_BYTES = 4 + 4 + 8 + 1;
+    static final int MAX_PAYLOAD_BYTES = 4 * 1024 * 1024;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMMIT_FILE = "commit";
+    private static final int COMMIT_BYTES = 8 + 4;
+
+    /**
+     * Registro leído de la cola; {@link #payload} es una copia propia.
+     */
+    public static class Record {
+        public final long sequence;
+        public final byte type;
+        public final byte[] payload;
+
+        Record(long sequence, byte type, byte[] payload) {
+            this.sequence = sequence;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    private static class Segment {
+        final long baseSequence;
+        final File file;
+        long size;
+        long records;
+
+        Segment(long baseSequence, File file) {
+            this.baseSequence = baseSequence;
+            this.file = file;
+        }
+    }
+
+    private final File dir;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel writeChannel;
+    private long nextSequence;
+    private long committedSequence; // próxima secuencia a entregar
+    private long totalBytes;
+    private long droppedRecords = 0;
+    private boolean closed = false;
+
+    // Cursor de lectura: posición del registro committedSequence
+    private FileChannel readChannel;
+    private Segment readSegment;
+    private long readPosition;
+
+    private DurableUploadQueue(File dir, long segmentBytes, long maxBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public static DurableUploadQueue open(File dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_BYTES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Abre (o crea) la cola en dir y recupera los registros pendientes.
+     *
+     * @param segmentBytes tamaño a partir del cual se empieza un segmento nuevo
+     * @param maxBytes     tope de disco de todos los segmentos
+     */
+    public static DurableUploadQueue open(File dir, long segmentBytes, long maxBytes) throws IOException {
+        if (segmentBytes < HEADER_BYTES || maxBytes < 2 * segmentBytes) {
+            throw new IllegalArgumentException("Segmento o tope inválidos: "
+                    + segmentBytes + " / " + maxBytes);
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("No se pudo crear " + dir);
+        }
+        DurableUploadQueue queue = new DurableUploadQueue(dir, segmentBytes, maxBytes);
+        queue.recover();
+        return queue;
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        long[] bases = new long[files != null ? files.length : 0];
+        for (int i = 0; i < bases.length; i++) {
+            String name = files[i].getName();
+            try {
+                bases[i] = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                bases[i] = -1; // Ajeno a la cola: se ignora
+            }
+        }
+        Arrays.sort(bases);
+
+        long expected = -1;
+        for (long base : bases) {
+            if (base < 0) {
+                continue;
+            }
+            // Si falta un tramo (segmento cortado o borrado) se acepta el salto;
+            // el cursor de lectura lo cuenta como descartado al llegar ahí
+            Segment segment = new Segment(base, segmentFile(base));
+            expected = scan(segment);
+            segments.add(segment);
+            totalBytes += segment.size;
+        }
+        nextSequence = Math.max(0, expected);
+
+        committedSequence = readCommit();
+        if (committedSequence > nextSequence) {
+            // Commit más nuevo que los datos (se perdió el final del log)
+            nextSequence = committedSequence;
+        }
+        if (!segments.isEmpty() && committedSequence < segments.get(0).baseSequence) {
+            droppedRecords += segments.get(0).baseSequence - committedSequence;
+            committedSequence = segments.get(0).baseSequence;
+        }
+        openWriteSegment();
+        deleteCommittedSegments();
+    }
+
+    /**
+     * Valida los registros del segmento y lo corta en el primero inválido,
+     * salvo que sea un registro dañado en medio de registros válidos: ese se
+     * conserva (el cursor lo descarta al llegar) para no perder los siguientes.
+     *
+     * @return secuencia siguiente al último registro válido
+     */
+    private long scan(Segment segment) throws IOException {
+        long sequence = segment.baseSequence;
+        try (RandomAccessFile file = new RandomAccessFile(segment.file, "rw")) {
+            FileChannel channel = file.getChannel();
+            long position = 0;
+            long length = channel.size();
+            while (true) {
+                Record record = readRecord(channel, position, length);
+                if (record == null || record.sequence != sequence) {
+                    long next = skipTarget(channel, position, length, sequence);
+                    if (next < 0) {
+                        break;
+                    }
+                    position = next;
+                    sequence++;
+                    segment.records++;
+                    continue;
+                }
+                position += HEADER_BYTES + record.payload.length;
+                sequence++;
+                segment.records++;
+            }
+            if (position < length) {
+                channel.truncate(position);
+            }
+            segment.size = position;
+        }
+        return sequence;
+    }
+
+    /**
+     * Lee el registro en position; null si está incompleto o no pasa el CRC.
+     */
+    private Record readRecord(FileChannel channel, long position, long length) throws IOException {
+        if (length - position < HEADER_BYTES) {
+            return null;
+        }
+        header.clear();
+        while (header.hasRemaining()) {
+            if (channel.read(header, position + header.position()) < 0) {
+                return null;
+            }
+        }
+        header.flip();
+        int payloadLength = header.getInt();
+        int expectedCrc = header.getInt();
+        long sequence = header.getLong();
+        byte type = header.get();
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_BYTES
+                || length - position - HEADER_BYTES < payloadLength) {
+            return null;
+        }
+
+        byte[] payload = new byte[payloadLength];
+        ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+        long payloadPosition = position + HEADER_BYTES;
+        while (payloadBuffer.hasRemaining()) {
+            if (channel.read(payloadBuffer, payloadPosition + payloadBuffer.position()) < 0) {
+                return null;
+            }
+        }
+        if (checksum(sequence, type, payload) != expectedCrc) {
+            return null;
+        }
+        return new Record(sequence, type, payload);
+    }
+
+    private int checksum(long sequence, byte type, byte[] payload) {
+        crc.reset();
+        for (int shift = 0; shift < 64; shift += 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        crc.update(type);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Escribe un registro al final de la cola.
+     *
+     * @return secuencia asignada
+     */
+    public long append(byte type, byte[] payload) throws IOException {
+        ensureOpen();
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Registro demasiado grande: " + payload.length + " bytes");
+        }
+        Segment active = segments.get(segments.size() - 1);
+        if (active.size > 0 && active.size + HEADER_BYTES + payload.length > segmentBytes) {
+            rollSegment();
+            active = segments.get(segments.size() - 1);
+        }
+
+        long sequence = nextSequence;
+        header.clear();
+        header.putInt(payload.length)
+                .putInt(checksum(sequence, type, payload))
+                .putLong(sequence)
+                .put(type);
+        header.flip();
+        ByteBuffer[] buffers = { header, ByteBuffer.wrap(payload) };
+        long written = 0;
+        long bytes = HEADER_BYTES + payload.length;
+        while (written < bytes) {
+            written += writeChannel.write(buffers);
+        }
+
+        active.size += bytes;
+        active.records++;
+        totalBytes += bytes;
+        nextSequence++;
+        enforceCap();
+        return sequence;
+    }
+
+    /**
+     * Primer registro sin confirmar, o null si no hay pendientes. No avanza:
+     * el mismo registro se devuelve hasta confirmarlo con {@link #commit}.
+     * Un registro que se dañó en disco después de abrir la cola se descarta
+     * (cuenta en {@link #getDroppedRecords()}) para no trabar la entrega.
+     */
+    public Record peek() throws IOException {
+        ensureOpen();
+        while (committedSequence < nextSequence) {
+            alignReadCursor();
+            Record record = readRecord(readChannel, readPosition, readSegment.size);
+            if (record != null && record.sequence == committedSequence) {
+                return record;
+            }
+            skipUnreadable();
+        }
+        return null;
+    }
+
+    /**
+     * Salta el registro ilegible del cursor. Si su largo lleva a un registro
+     * válido (o al final del segmento) se descarta solo ese; si no, no hay
+     * forma confiable de seguir leyendo y se descarta el resto del segmento.
+     */
+    private void skipUnreadable() throws IOException {
+        long next;
+        if (committedSequence + 1 == end(readSegment)) {
+            long candidate = nextPosition(readChannel, readPosition, readSegment.size);
+            next = candidate == readSegment.size ? candidate : -1;
+        } else {
+            next = skipTarget(readChannel, readPosition, readSegment.size, committedSequence);
+        }
+        if (next >= 0) {
+            readPosition = next;
+            committedSequence++;
+            droppedRecords++;
+        } else {
+            long end = end(readSegment);
+            droppedRecords += end - committedSequence;
+            committedSequence = end;
+            if (readSegment == segments.get(segments.size() - 1)) {
+                // Lo que se anexe después tiene que quedar legible
+                rollSegment();
+            }
+        }
+        writeCommit();
+        deleteCommittedSegments();
+    }
+
+    /**
+     * Posición después del registro inválido en position, si su largo es
+     * creíble y ahí empieza el registro sequence + 1; -1 si no.
+     */
+    private long skipTarget(FileChannel channel, long position, long length, long sequence) throws IOException {
+        long next = nextPosition(channel, position, length);
+        if (next < 0 || next == length) {
+            return -1; // Al final del archivo es una escritura cortada
+        }
+        Record following = readRecord(channel, next, length);
+        return following != null && following.sequence == sequence + 1 ? next : -1;
+    }
+
+    /**
+     * Fin del registro en position según su largo, o -1 si el largo no cabe.
+     */
+    private long nextPosition(FileChannel channel, long position, long length) throws IOException {
+        if (length - position < HEADER_BYTES) {
+            return -1;
+        }
+        int payloadLength = readPayloadLength(channel, position);
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_BYTES
+                || length - position - HEADER_BYTES < payloadLength) {
+            return -1;
+        }
+        return position + HEADER_BYTES + payloadLength;
+    }
+
+    /**
+     * Confirma todos los registros hasta sequence (inclusive) y guarda el offset.
+     */
+    public void commit(long sequence) throws IOException {
+        ensureOpen();
+        long next = Math.min(sequence + 1, nextSequence);
+        if (next <= committedSequence) {
+            return;
+        }
+        // Avanzar el cursor registro por registro (normalmente es uno solo)
+        while (committedSequence < next) {
+            alignReadCursor();
+            if (committedSequence >= next) {
+                break; // Quedó dentro de un hueco ya descartado
+            }
+            readPosition += HEADER_BYTES + readPayloadLength(readChannel, readPosition);
+            committedSequence++;
+        }
+        writeCommit();
+        deleteCommittedSegments();
+    }
+
+    private int readPayloadLength(FileChannel channel, long position) throws IOException {
+        header.clear();
+        header.limit(4);
+        while (header.hasRemaining()) {
+            if (channel.read(header, position + header.position()) < 0) {
+                throw new IOException("Registro incompleto en " + position);
+            }
+        }
+        header.flip();
+        return header.getInt();
+    }
+
+    private void rollSegment() throws IOException {
+        writeChannel.close();
+        Segment segment = new Segment(nextSequence, segmentFile(nextSequence));
+        segments.add(segment);
+        writeChannel = new FileOutputStream(segment.file, true).getChannel();
+    }
+
+    private void openWriteSegment() throws IOException {
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.baseSequence + last.records != nextSequence) {
+            // Sin segmentos, o el commit quedó más adelante que los datos
+            segments.add(new Segment(nextSequence, segmentFile(nextSequence)));
+        }
+        Segment active = segments.get(segments.size() - 1);
+        writeChannel = new FileOutputStream(active.file, true).getChannel();
+    }
+
+    /**
+     * Borra los segmentos más viejos mientras se supere el tope de disco.
+     */
+    private void enforceCap() throws IOException {
+        boolean dropped = false;
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.remove(0);
+            totalBytes -= oldest.size;
+            long end = oldest.baseSequence + oldest.records;
+            if (committedSequence < end) {
+                droppedRecords += end - committedSequence;
+                committedSequence = end;
+                dropped = true;
+            }
+            if (readSegment == oldest) {
+                closeReadChannel();
+            }
+            deleteFile(oldest.file);
+        }
+        if (dropped) {
+            writeCommit();
+        }
+    }
+
+    private void deleteCommittedSegments() throws IOException {
+        // El segmento activo se conserva aunque esté confirmado
+        while (segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            if (oldest.baseSequence + oldest.records > committedSequence) {
+                break;
+            }
+            segments.remove(0);
+            totalBytes -= oldest.size;
+            if (readSegment == oldest) {
+                closeReadChannel();
+            }
+            deleteFile(oldest.file);
+        }
+    }
+
+    /**
+     * Deja el cursor de lectura sobre el registro committedSequence: abre el
+     * segmento que lo contiene, pasa al siguiente cuando se agotó el actual y
+     * salta los huecos entre segmentos (se cuentan como descartados).
+     */
+    private void alignReadCursor() throws IOException {
+        if (readChannel == null) {
+            int index = 0;
+            while (index < segments.size() - 1 && committedSequence >= end(segments.get(index))) {
+                index++;
+            }
+            moveReadCursor(index);
+            for (long s = readSegment.baseSequence; s < committedSequence; s++) {
+                readPosition += HEADER_BYTES + readPayloadLength(readChannel, readPosition);
+            }
+        }
+        while (committedSequence >= end(readSegment) && readSegment != segments.get(segments.size() - 1)) {
+            moveReadCursor(segments.indexOf(readSegment) + 1);
+        }
+        if (committedSequence < readSegment.baseSequence) {
+            droppedRecords += readSegment.baseSequence - committedSequence;
+            committedSequence = readSegment.baseSequence;
+        }
+    }
+
+    private void moveReadCursor(int index) throws IOException {
+        closeReadChannel();
+        readSegment = segments.get(index);
+        readChannel = new RandomAccessFile(readSegment.file, "r").getChannel();
+        readPosition = 0;
+    }
+
+    private static long end(Segment segment) {
+        return segment.baseSequence + segment.records;
+    }
+
+    private void closeReadChannel() throws IOException {
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+            readSegment = null;
+        }
+    }
+
+    private long readCommit() throws IOException {
+        File file = new File(dir, COMMIT_FILE);
+        if (!file.isFile() || file.length() != COMMIT_BYTES) {
+            return 0;
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            ByteBuffer buffer = ByteBuffer.allocate(COMMIT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            input.getChannel().read(buffer, 0);
+            buffer.flip();
+            long sequence = buffer.getLong();
+            int expectedCrc = buffer.getInt();
+            return checksum(sequence, (byte) 0, new byte[0]) == expectedCrc ? sequence : 0;
+        }
+    }
+
+    private void writeCommit() throws IOException {
+        File temp = new File(dir, COMMIT_FILE + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(COMMIT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(committedSequence).putInt(checksum(committedSequence, (byte) 0, new byte[0]));
+        buffer.flip();
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            FileChannel channel = output.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        if (!temp.renameTo(new File(dir, COMMIT_FILE))) {
+            throw new IOException("No se pudo guardar el offset confirmado en " + dir);
+        }
+    }
+
+    private File segmentFile(long baseSequence) {
+        return new File(dir, String.format(Locale.US, "%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private static void deleteFile(File file) throws IOException {
+        if (!file.delete() && file.exists()) {
+            throw new IOException("No se pudo borrar " + file);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Cola cerrada");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeReadChannel();
+        writeChannel.close();
+    }
+
+    /**
+     * Registros escritos y todavía sin confirmar.
+     */
+    public long getPendingCount() {
+        return nextSequence - committedSequence;
+    }
+
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    public long getCommittedSequence() {
+        return committedSequence;
+    }
+
+    public long getBytesOnDisk() {
+        return totalBytes;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Registros descartados sin confirmar (tope de disco o segmentos perdidos).
+     */
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    public String describe() {
+        return "Pendientes: " + getPendingCount()
+                + " | Segmentos: " + segments.size()
+                + " | Bytes: " + totalBytes
+                + " | Descartados: " + droppedRecords;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Fuente de pasos del sensor hub (TYPE_STEP_DETECTOR): cada evento es un paso
+ * ya detectado en hardware de bajo consumo, con el timestamp en que ocurrió.
+ *
+ * Las muestras de movimiento solo hacen avanzar el reloj para detectar que el
+ * usuario se detuvo; no se ejecuta detección de picos en la CPU.
+ */
+public class HardwareStepSource implements StepSource {
+
+    private final WalkingStateTracker walkingState = new WalkingStateTracker();
+    private int hardwareEvents = 0;
+
+    @Override
+    public boolean onMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        walkingState.update(timestampNs);
+        return false;
+    }
+
+    @Override
+    public int onMotionSamples(SensorSampleBatch batch) {
+        if (!batch.isEmpty()) {
+            walkingState.update(batch.getLastTimestamp());
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean onHardwareStep(long timestampNs) {
+        hardwareEvents++;
+        boolean accepted = walkingState.onStep(timestampNs);
+        walkingState.update(timestampNs);
+        return accepted;
+    }
+
+    @Override
+    public boolean usesHardwareStepDetector() {
+        return true;
+    }
+
+    @Override
+    public boolean isStepInProgress() {
+        return false;
+    }
+
+    @Override
+    public WalkingStateTracker getWalkingState() {
+        return walkingState;
+    }
+
+    @Override
+    public StepDetector getStepDetector() {
+        return null;
+    }
+
+    public int getHardwareEvents() {
+        return hardwareEvents;
+    }
+
+    @Override
+    public String describe() {
+        return "HARDWARE | Eventos: " + hardwareEvents
+                + " | Pasos: " + walkingState.getStepCount()
+                + " | Rechazados: " + walkingState.getRejectedSteps();
+    }
+
+    @Override
+    public void reset() {
+        walkingState.reset();
+        hardwareEvents = 0;
+    }
+}
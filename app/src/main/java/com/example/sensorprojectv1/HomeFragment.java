@@ -40,6 +40,10 @@ public class HomeFragment extends Fragment {
 
         updateUserUI();
 
+        if (getActivity() instanceof MainActivity) {
+            updateDetectionStatus(((MainActivity) getActivity()).getDetectionStatus());
+        }
+
         btnLogin.setOnClickListener(v -> {
             Intent intent = new Intent(requireContext(), LoginActivity.class);
             startActivity(intent);
@@ -66,10 +70,44 @@ public class HomeFragment extends Fragment {
         }
     }
 
-    public void updateSensorStatus(String status) {
-        if (textViewStatus != null) {
-            textViewStatus.setText(status);
+    /**
+     * Se llama en el hilo principal solo cuando la instantánea cambia, así que
+     * el texto se formatea aquí una vez por cambio y no por cada muestra.
+     */
+    public void updateDetectionStatus(DetectionStatus status) {
+        if (textViewStatus == null) {
+            return;
+        }
+
+        String text;
+        switch (status.getState()) {
+            case ALERT:
+                text = String.format("ALERTA: Caminando (%s) y usando el telefono", status.getWalkingSpeed());
+                break;
+            case WALKING:
+                text = String.format("Caminando - Velocidad: %s", status.getWalkingSpeed());
+                break;
+            case PHONE_STATIC:
+                text = "Usando telefono (estatico)";
+                break;
+            default:
+                text = "Estado seguro - Sin actividad";
+                break;
         }
+
+        text += String.format("\n\n--- DETECCION ---" +
+                "\nPasos totales: %d" +
+                "\nCaminando: %s" +
+                "\nTipo caminata: %s" +
+                "\nUsando telefono: %s" +
+                "\nAlertas totales: %d",
+                status.getStepCount(),
+                status.isWalking() ? "SI" : "NO",
+                status.getWalkingSpeed(),
+                status.isUsingPhone() ? "SI" : "NO",
+                status.getTotalAlerts());
+
+        textViewStatus.setText(text);
     }
 
     public void updateGyroData(String data) {
@@ -3,12 +3,22 @@ package com.example.sensorprojectv1;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.appcompat.widget.Toolbar;
+import androidx.annotation.NonNull;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentTransaction;
 
+import android.Manifest;
 import android.os.Bundle;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.BroadcastReceiver;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
@@ -23,89 +33,148 @@ import android.provider.Settings;
 import android.os.Build;
 import android.os.Vibrator;
 import android.media.MediaPlayer;
+import android.view.Choreographer;
 import android.view.MenuItem;
 import android.widget.TextView;
 
 import com.google.android.material.navigation.NavigationView;
 
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 public class MainActivity extends AppCompatActivity
-        implements SensorEventListener, NavigationView.OnNavigationItemSelectedListener {
+        implements SensorEventListener, NavigationView.OnNavigationItemSelectedListener,
+        DetectionPipeline.Listener {
 
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
     private Toolbar toolbar;
 
     private SensorManager sensorManager;
-    private Sensor gyroscopeSensor, accelerometerSensor;
+    // Ruta de sensores elegida por dispositivo (fusionados o acelerómetro + software)
+    private SensorSource sensorSource;
     private float gyroX, gyroY, gyroZ;
     private float accX, accY, accZ;
 
+    private final SensorPayload uploadPayload = new SensorPayload();
+
+    // Hilo dedicado para el procesamiento de sensores (con su propio Looper).
+    // Todo el estado de detección se lee y escribe exclusivamente en este hilo;
+    // la UI solo recibe resultados terminados vía runOnUiThread.
+    private HandlerThread sensorThread;
+    private volatile Handler sensorHandler;
+
+    // Modo de recolección por lotes (FIFO del sensor): el hardware acumula
+    // muestras y las entrega en ráfagas (latencia según el perfil de
+    // rendimiento), evitando despertar la app por cada muestra. Cada ráfaga se
+    // procesa de una sola vez.
+    private static final int SENSOR_BATCH_CAPACITY = 256;
+    private final SensorSampleBatch accBatch = new SensorSampleBatch(SENSOR_BATCH_CAPACITY);
+    private volatile boolean sensorBatchingActive = false;
+    private boolean burstDrainScheduled = false;
+    private final Runnable burstDrainTask = this::processAccelerometerBurst;
+
+    // Cadena de detección (Java puro, la misma que usa la reproducción de
+    // grabaciones). La fusión acelerómetro/giroscopio hace que el uso del
+    // teléfono, la detección combinada y el envío corran una vez por muestra
+    // combinada (alineada por timestamp), no por cada evento de cualquier sensor
+    private static final long FUSION_OUTPUT_PERIOD_NS = DetectionPipeline.DEFAULT_FUSION_PERIOD_NS; // 25 Hz
+    private DetectionPipeline pipeline;
+
+    // Grabación binaria de las muestras para reproducir casos de campo:
+    // adb shell am broadcast -a com.example.sensorprojectv1.RECORD_SENSORS --ez enabled true
+    public static final String ACTION_RECORD_SENSORS = "com.example.sensorprojectv1.RECORD_SENSORS";
+    public static final String EXTRA_RECORD_ENABLED = "enabled";
+    private static final String SENSOR_TRACE_DIR = "sensor_traces";
+    private SensorTraceRecorder sensorRecorder; // Solo hilo de sensores
+
+    // Texto de acelerómetro y giroscopio en HomeFragment: el hilo de sensores solo
+    // guarda el último valor y el hilo principal lo formatea como mucho a 10 Hz,
+    // sincronizado con los frames del Choreographer
+    private Choreographer choreographer;
+    private final Choreographer.FrameCallback uiFrameCallback = this::onUiFrame;
+    private final UiUpdateBridge uiBridge =
+            new UiUpdateBridge((bridge, delayMs) -> choreographer.postFrameCallbackDelayed(uiFrameCallback, delayMs),
+                    this::renderSensorText);
+
+    // Frecuencia adaptativa: baja el muestreo (y apaga el giroscopio) cuando el
+    // usuario está quieto o la pantalla apagada, y lo sube ante pasos candidatos
+    private final SamplingRateController samplingController = new SamplingRateController();
+    private BroadcastReceiver screenStateReceiver;
+    // Solo el hilo de sensores lo lee y escribe. Al detener las mediciones
+    // queda en false y ningún registro encolado (pantalla, ajustes, perfil)
+    // vuelve a activar los sensores
+    private boolean measuring;
+
+    // Perfil de rendimiento (muestreo, lotes, ventana, envío). Ajustes reemplaza
+    // la referencia; el hilo de sensores la lee sin locks en cada evento y aplica
+    // el perfil nuevo al verlo. appliedProfile solo se usa en el hilo de sensores
+    private volatile PerformanceProfile performanceProfile = PerformanceProfile.STANDARD;
+    private PerformanceProfile appliedProfile;
+
+    // Traza de diagnóstico de los detectores (reemplaza Log.d por evento). Se
+    // vuelca desde Ajustes (builds de depuración) o con:
+    // adb shell am broadcast -a com.example.sensorprojectv1.DUMP_TRACE --ei seconds 30
+    public static final String ACTION_DUMP_TRACE = "com.example.sensorprojectv1.DUMP_TRACE";
+    public static final String EXTRA_TRACE_SECONDS = "seconds";
+    public static final String EXTRA_TRACE_LEVEL = "level";
+    private static final int TRACE_CAPACITY = 4096; // ~80 s con el nivel DEBUG
+    private static final int DEFAULT_TRACE_DUMP_SECONDS = 30;
+    private final DetectionTrace trace = new DetectionTrace(TRACE_CAPACITY, DetectionTrace.LEVEL_DEBUG);
+    private BroadcastReceiver traceDumpReceiver;
+
     // ,STEP DETECTION
     // Referencias: Pan & Lin (2011), Zhao (2010) - Umbrales validados
     // Detección sobre eje vertical dinámico para uso activo del teléfono
+    // Toda la lógica vive en StepDetector (Java puro); aquí solo se alimenta
+    private final StepDetector stepDetector = new StepDetector();
+    // Fuente de pasos activa: software, TYPE_STEP_DETECTOR o comparación de ambas.
+    // Cualquiera alimenta el mismo estado de caminata y la misma lógica de alertas
+    private StepSource stepSource;
+    private static final int REQUEST_ACTIVITY_RECOGNITION = 1001;
+
+    // Reloj de detección: SensorEvent.timestamp (ns, monotónico) del último evento
+    private long lastEventTimestampNs = 0;
 
-    private static final int SAMPLE_SIZE = 25;
-    private static final long WARM_UP_TIME_MS = 2000; // 2 segundos de warm-up
-    private long detectionStartTime = 0; // Timestamp de inicio de detección
-
-    // Umbrales de aceleración (m/s²) - Ajustados para uso activo del teléfono
-    // Valores reducidos para detectar pasos cuando el usuario usa el dispositivo
-    private static final float STEP_THRESHOLD_MIN = 0.6f; // Umbral mínimo (uso activo del teléfono)
-    private static final float STEP_THRESHOLD_MAX = 3.5f; // Umbral máximo (caminata rápida con teléfono)
-    private static final float DYNAMIC_FACTOR = 1.5f; // Factor para umbral dinámico adaptativo
-
-    // Restricciones temporales (ms) - Basado en cadencia humana
-    // Caminata humana: 0.5-2.0 pasos/segundo → 500-2000ms entre pasos
-    private static final long MIN_STEP_INTERVAL = 300;// ~30 pasos/min (muy lento)
-    private static final long MAX_STEP_INTERVAL = 2000; // ~200 pasos/min (muy rápido)
-
-    // Filtros para señal - Ajustados para mejor respuesta
-    private static final float ALPHA_LOW_PASS = 0.5f; // Filtro paso bajo más suave
-    private static final float ALPHA_HIGH_PASS = 0.95f; // Filtro paso alto más conservador
-
-    // Filtro de gravedad - Recomendación oficial de Android
-    private static final float ALPHA_GRAVITY = 0.8f; // Filtro low-pass para separar gravedad
-    private float[] gravity = new float[3]; // Vector de gravedad filtrado
-
-    private float[] accBuffer = new float[SAMPLE_SIZE];
-    private int bufferIndex = 0;
-    private int samplesCollected = 0;
-    private boolean bufferReady = false;
-
-    private float accFiltered = 0; // Señal filtrada (paso bajo)
-    private float accMean = 0.0f; // Media móvil para aceleración vertical
-
-    private boolean aboveThreshold = false;
-    private float lastPeakValue = 0;
-    private long lastStepTime = 0;
-
-    private int stepCount = 0;
-    private boolean isWalking = false;
-    private String walkingSpeed = "Ninguna";
-    private float currentVariance = 0.0f;
-
-    private float verticalAcc = 0.0f;
-    private float dynamicThreshold = 0.0f;
-    private float stdDev = 0.0f;
-
-    // Para validación de patrón (evitar falsos positivos)
-    private static final int STEPS_WINDOW = 4; // Ventana para validar patrón
-    private long[] recentStepTimes = new long[STEPS_WINDOW];
-    private int stepTimeIndex = 0;
-
-    private static final float PHONE_USE_GYRO_THRESHOLD = 0.2f;
-    private static final float PHONE_TILT_MIN = 20.0f;
-    private static final float PHONE_TILT_MAX = 85.0f;
-    private boolean isUsingPhone = false;
-
-    private boolean isWalkingAndUsingPhone = false;
-    private int totalAlerts = 0;
-
-    // Throttling para envío de datos
-    private static final long DATA_SEND_INTERVAL_MS = 1000; // Enviar cada segundo
+    // Última instantánea publicada en la UI; se reemplaza solo cuando cambia.
+    // volatile: HomeFragment la lee al crearse desde el hilo principal
+    private volatile DetectionStatus detectionStatus = DetectionStatus.INITIAL;
+
+    // Throttling para envío de datos (intervalo según el perfil de rendimiento)
     private long lastDataSendTime = 0;
+    // Diagnóstico periódico (cada 100 muestras de movimiento ≈ cada 2s a 50 Hz)
+    private static final long DIAGNOSTICS_INTERVAL_SAMPLES = 100;
+    private long lastDiagnosticsSample = 0;
+
+    // Las muestras se suben en lotes (/sensordata/batch) por tamaño, antigüedad
+    // o cambio de estado, no una petición por muestra. Solo hilo de sensores
+    private TelemetryUploader telemetryUploader;
+    // Envío por antigüedad agendado en el hilo de sensores: con el muestreo al
+    // mínimo o sin eventos (sensores detenidos) el lote no espera de más
+    private final Runnable telemetryAgeTask = this::pollTelemetryAge;
+
+    // Colas persistentes de subida: lotes y alertas se escriben en disco antes
+    // de enviarse y se confirman cuando el servidor responde, así sobreviven a
+    // cortes de red y a la muerte del proceso. Las alertas van en su propia
+    // cola para no esperar detrás de minutos de telemetría pendiente. Cada
+    // cola envía un registro a la vez, en orden; sin red se reintenta con
+    // espera creciente. En disco no se guarda el token, solo si el registro es
+    // de un usuario o anónimo. Solo hilo de sensores
+    private static final String UPLOAD_QUEUE_DIR = "upload_queue";
+    private static final String ALERT_QUEUE_DIR = "alert_queue";
+    private static final byte UPLOAD_TELEMETRY = 1;
+    private static final byte UPLOAD_ALERT = 2;
+    private static final long UPLOAD_RETRY_MIN_MS = 5_000;
+    private static final long UPLOAD_RETRY_MAX_MS = 5 * 60_000;
+    private final UploadLane telemetryLane = new UploadLane("telemetría", UPLOAD_QUEUE_DIR);
+    private final UploadLane alertLane = new UploadLane("alertas", ALERT_QUEUE_DIR);
+    // Lotes de telemetría en binario por columnas mientras el servidor lo acepte
+    private final SensorBatchCodec batchCodec = new SensorBatchCodec();
 
     private BatteryManager batteryManager;
     private PowerManager powerManager;
@@ -119,6 +188,7 @@ public class MainActivity extends AppCompatActivity
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        choreographer = Choreographer.getInstance();
 
         preferencesManager = new PreferencesManager(this);
 
@@ -144,6 +214,11 @@ public class MainActivity extends AppCompatActivity
         if (savedInstanceState == null) {
             loadFragment(new HomeFragment());
             navigationView.setCheckedItem(R.id.nav_inicio);
+        } else {
+            // El FragmentManager restauró la pantalla que estaba abierta
+            Fragment current = getSupportFragmentManager().findFragmentById(R.id.content_frame);
+            homeFragment = current instanceof HomeFragment ? (HomeFragment) current : null;
+            uiBridge.setTargetAttached(homeFragment != null);
         }
 
         sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
@@ -151,25 +226,330 @@ public class MainActivity extends AppCompatActivity
         powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
         vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
 
-        gyroscopeSensor = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
-        accelerometerSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        sensorSource = SensorSource.select(sensorManager);
+        Log.i("SENSOR_SOURCE", sensorSource.describe());
+        performanceProfile = preferencesManager.getPerformanceProfile();
+        appliedProfile = performanceProfile;
+        stepDetector.configure(appliedProfile.getStepWindowSize(), appliedProfile.warmUpTimeMs);
+        samplingController.setProfile(appliedProfile);
+        telemetryUploader = new TelemetryUploader(appliedProfile.uploadBatchSize,
+                appliedProfile.uploadMaxDelayMs, this::sendTelemetryBatch);
+        Log.i("PERFORMANCE", appliedProfile.describe());
+        stepSource = createStepSource();
+        pipeline = new DetectionPipeline(stepDetector, stepSource, sensorSource.isFused(), trace,
+                FUSION_OUTPUT_PERIOD_NS, this);
+        requestActivityRecognitionIfNeeded();
+
+        // Los eventos de sensores se entregan en el Looper de este hilo, no en el
+        // hilo principal: la detección a ~50 Hz por sensor no compite con el render
+        sensorThread = new HandlerThread("SensorProcessing", Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        sensorThread.start();
+        sensorHandler = new Handler(sensorThread.getLooper());
+        // Antes que cualquier evento: reenvía lo que quedó pendiente
+        runOnSensorThread(this::openUploadQueues);
+
+        samplingController.setScreenOn(isScreenOn());
+        runOnSensorThread(() -> {
+            measuring = true;
+            registerSensors();
+        });
+        registerScreenStateReceiver();
+        registerTraceDumpReceiver();
+    }
+
+    /**
+     * Permite volcar la traza por broadcast. Solo lo pueden enviar procesos con
+     * android.permission.DUMP (adb shell o el sistema).
+     */
+    private void registerTraceDumpReceiver() {
+        traceDumpReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                if (ACTION_RECORD_SENSORS.equals(intent.getAction())) {
+                    setSensorRecordingNow(intent.getBooleanExtra(EXTRA_RECORD_ENABLED, false));
+                    return;
+                }
+                if (intent.hasExtra(EXTRA_TRACE_LEVEL)) {
+                    trace.setLevel(intent.getIntExtra(EXTRA_TRACE_LEVEL, DetectionTrace.LEVEL_DEBUG));
+                }
+                dumpTraceNow(intent.getIntExtra(EXTRA_TRACE_SECONDS, DEFAULT_TRACE_DUMP_SECONDS));
+            }
+        };
+
+        IntentFilter filter = new IntentFilter(ACTION_DUMP_TRACE);
+        filter.addAction(ACTION_RECORD_SENSORS);
+        ContextCompat.registerReceiver(this, traceDumpReceiver, filter,
+                Manifest.permission.DUMP, sensorHandler, ContextCompat.RECEIVER_EXPORTED);
+    }
+
+    /**
+     * Inicia o detiene la grabación de muestras. Se ejecuta en el hilo de sensores.
+     */
+    private void setSensorRecordingNow(boolean enabled) {
+        if (!enabled) {
+            stopSensorRecordingNow();
+            return;
+        }
+        if (sensorRecorder != null) {
+            return;
+        }
+
+        File dir = new File(getExternalFilesDir(null), SENSOR_TRACE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e("SENSOR_RECORDING", "No se pudo crear " + dir);
+            return;
+        }
+        File file = new File(dir, "sensores-" + System.currentTimeMillis() + ".strc");
+        try {
+            sensorRecorder = SensorTraceRecorder.open(file, sensorSource.isFused(), appliedProfile,
+                    sensorBatchingActive);
+            sensorRecorder.recordGyroscopeEnabled(samplingController.getMode().gyroscopeEnabled,
+                    lastEventTimestampNs);
+            Log.i("SENSOR_RECORDING", "Grabando en " + file.getAbsolutePath());
+        } catch (IOException e) {
+            Log.e("SENSOR_RECORDING", "No se pudo iniciar la grabación", e);
+        }
+    }
+
+    private void stopSensorRecordingNow() {
+        if (sensorRecorder == null) {
+            return;
+        }
+        try {
+            sensorRecorder.close();
+            Log.i("SENSOR_RECORDING", "Grabación terminada: " + sensorRecorder.describe());
+        } catch (IOException e) {
+            Log.e("SENSOR_RECORDING", "Error al cerrar la grabación: " + sensorRecorder.describe(), e);
+        }
+        sensorRecorder = null;
+    }
+
+    /**
+     * Vuelca al log los últimos segundos de la traza. Llamado desde SettingsFragment.
+     */
+    public void dumpTrace(int seconds) {
+        runOnSensorThread(() -> dumpTraceNow(seconds));
+    }
+
+    public boolean isDebuggable() {
+        return (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    private void dumpTraceNow(int seconds) {
+        Log.i("TRACE_DUMP", String.format("=== TRAZA: últimos %d s | Registros totales: %d | Nivel: %d ===",
+                seconds, trace.getWrittenCount(), trace.getLevel()));
+        int dumped = trace.dump(lastEventTimestampNs, seconds * 1_000_000_000L,
+                line -> Log.i("TRACE_DUMP", line.toString()));
+        Log.i("TRACE_DUMP", String.format("=== FIN TRAZA: %d registros ===", dumped));
+    }
+
+    /**
+     * Escucha encendido/apagado de pantalla en el hilo de sensores para ajustar
+     * la frecuencia de muestreo.
+     */
+    private void registerScreenStateReceiver() {
+        screenStateReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                boolean screenOn = Intent.ACTION_SCREEN_ON.equals(intent.getAction());
+                if (samplingController.setScreenOn(screenOn)) {
+                    applySamplingMode();
+                }
+            }
+        };
+
+        IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        ContextCompat.registerReceiver(this, screenStateReceiver, filter, null, sensorHandler,
+                ContextCompat.RECEIVER_NOT_EXPORTED);
+    }
+
+    /**
+     * Aplica el modo elegido por el controlador de frecuencia. Se ejecuta en el
+     * hilo de sensores.
+     */
+    private void applySamplingMode() {
+        if (!measuring) {
+            return;
+        }
+        SamplingRateController.Mode mode = samplingController.getMode();
+        pipeline.setGyroscopeEnabled(mode.gyroscopeEnabled);
+        if (sensorRecorder != null) {
+            sensorRecorder.recordGyroscopeEnabled(mode.gyroscopeEnabled, lastEventTimestampNs);
+        }
+        if (!mode.gyroscopeEnabled) {
+            // Sin giroscopio no quedan lecturas viejas que mantengan isUsingPhone
+            gyroX = 0;
+            gyroY = 0;
+            gyroZ = 0;
+        }
+        registerSensors();
+        Log.i("SAMPLING", samplingController.describeMetrics());
+    }
+
+    /**
+     * Registra (o vuelve a registrar) los sensores en el hilo de procesamiento.
+     * Si el modo por lotes está habilitado y todos los sensores tienen FIFO en
+     * hardware, se usa la sobrecarga con maxReportLatencyUs; si no, se recurre
+     * al registro normal evento por evento. No hace nada si las mediciones
+     * están detenidas.
+     */
+    private void registerSensors() {
+        if (!measuring) {
+            return;
+        }
+        sensorManager.unregisterListener(this);
+
+        SamplingRateController.Mode mode = samplingController.getMode();
+
+        boolean batchingRequested = preferencesManager.isSensorBatchingEnabled();
+        boolean batchingSupported = sensorSource.supportsBatching();
+        sensorBatchingActive = batchingRequested && batchingSupported;
+        pipeline.setBatching(sensorBatchingActive);
+        int maxReportLatencyUs = sensorBatchingActive ? appliedProfile.batchLatencyUs : 0;
+        int samplingPeriodUs = samplingController.getSamplingPeriodUs();
+
+        if (batchingRequested && !batchingSupported) {
+            Log.w("SENSORS", "Modo por lotes no disponible (FIFO = 0) - usando entrega por evento");
+        }
+
+        // Modo ACTIVE con el perfil estándar = 20ms entre muestras (~50Hz,
+        // equivalente a SENSOR_DELAY_GAME); la ventana del detector cubre 500ms
+        sensorSource.register(this, samplingPeriodUs, maxReportLatencyUs, sensorHandler,
+                mode.gyroscopeEnabled, stepSource.usesHardwareStepDetector());
+
+        Log.i("SENSORS", "Sensores registrados - " + sensorSource.getPath() + " - " + mode + " (" + (1_000_000 / samplingPeriodUs)
+                + "Hz, giroscopio " + (mode.gyroscopeEnabled ? "ON" : "OFF") + ") - entrega: "
+                + (sensorBatchingActive
+                        ? "LOTES (latencia " + (maxReportLatencyUs / 1000) + "ms)"
+                        : "EVENTO POR EVENTO"));
+    }
+
+    /**
+     * Llamado desde SettingsFragment cuando cambia el modo de recolección.
+     */
+    public void updateSensorSettings() {
+        if (sensorManager != null) {
+            runOnSensorThread(this::registerSensors);
+        }
+    }
+
+    /**
+     * Llamado desde SettingsFragment al elegir un perfil de rendimiento. Solo
+     * publica la referencia: el hilo de sensores lo aplica con el próximo evento.
+     */
+    public void setPerformanceProfile(PerformanceProfile profile) {
+        performanceProfile = profile;
+    }
+
+    public PerformanceProfile getPerformanceProfile() {
+        return performanceProfile;
+    }
+
+    /**
+     * Aplica un perfil de rendimiento nuevo. Se ejecuta en el hilo de sensores.
+     */
+    private void applyPerformanceProfile(PerformanceProfile profile) {
+        appliedProfile = profile;
+        stepDetector.configure(profile.getStepWindowSize(), profile.warmUpTimeMs);
+        samplingController.setProfile(profile);
+        telemetryUploader.configure(profile.uploadBatchSize, profile.uploadMaxDelayMs);
+        scheduleTelemetryAgeFlush(System.currentTimeMillis());
+        registerSensors();
+        Log.i("PERFORMANCE", "Perfil aplicado - " + profile.describe());
+    }
+
+    /**
+     * Llamado desde SettingsFragment cuando cambia la fuente de pasos.
+     */
+    public void updateStepSourceSettings() {
+        if (sensorManager != null) {
+            runOnSensorThread(() -> {
+                stepSource = createStepSource();
+                pipeline.setStepSource(stepSource);
+                resetStepDetection();
+                registerSensors();
+            });
+        }
+    }
+
+    /**
+     * Elige la fuente de pasos: el detector del sensor hub si existe, está
+     * habilitado y hay permiso; el detector por software como respaldo.
+     */
+    private StepSource createStepSource() {
+        SoftwareStepSource software = new SoftwareStepSource(stepDetector, sensorSource.isFused());
+        StepSource source = software;
+
+        boolean hardwareAvailable = sensorSource.hasHardwareStepDetector()
+                && hasActivityRecognitionPermission();
+        if (hardwareAvailable && preferencesManager.isHardwareStepDetectorEnabled()) {
+            HardwareStepSource hardware = new HardwareStepSource();
+            source = preferencesManager.isStepComparisonEnabled()
+                    ? new ComparisonStepSource(hardware, software)
+                    : hardware;
+        }
+
+        Log.i("STEP_SOURCE", "Fuente de pasos: " + source.describe()
+                + " | Detector en hardware: " + (sensorSource.hasHardwareStepDetector() ? "SI" : "NO"));
+        return source;
+    }
+
+    /**
+     * TYPE_STEP_DETECTOR requiere ACTIVITY_RECOGNITION desde Android 10.
+     */
+    private boolean hasActivityRecognitionPermission() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return true;
+        }
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.ACTIVITY_RECOGNITION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
 
-        if (gyroscopeSensor != null) {
-            sensorManager.registerListener(this, gyroscopeSensor, SensorManager.SENSOR_DELAY_GAME);
+    private void requestActivityRecognitionIfNeeded() {
+        if (sensorSource.hasHardwareStepDetector()
+                && preferencesManager.isHardwareStepDetectorEnabled()
+                && !hasActivityRecognitionPermission()) {
+            ActivityCompat.requestPermissions(this,
+                    new String[] { Manifest.permission.ACTIVITY_RECOGNITION },
+                    REQUEST_ACTIVITY_RECOGNITION);
         }
+    }
 
-        if (accelerometerSensor != null) {
-            // SENSOR_DELAY_GAME = ~50Hz (20ms entre muestras)
-            // 25 muestras = 500ms, tiempo adecuado para detectar un paso
-            sensorManager.registerListener(this, accelerometerSensor, SensorManager.SENSOR_DELAY_GAME);
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
+            @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == REQUEST_ACTIVITY_RECOGNITION && hasActivityRecognitionPermission()) {
+            updateStepSourceSettings();
         }
     }
 
+    public SamplingRateController getSamplingController() {
+        return samplingController;
+    }
+
+    public SensorFusionStage getFusionStage() {
+        return pipeline.getFusionStage();
+    }
+
+    /**
+     * Ruta de sensores activa en este dispositivo (fusionada o por software).
+     */
+    public SensorSource.Path getSensorPath() {
+        return sensorSource != null ? sensorSource.getPath() : null;
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
         // Actualizar header cuando vuelve de otra actividad (ej: LoginActivity)
         updateNavigationHeader();
+
+        // En modo por lotes, vaciar el FIFO para que la pantalla muestre datos actuales
+        if (sensorBatchingActive && sensorManager != null) {
+            sensorManager.flush(this);
+        }
     }
 
     public void updateNavigationHeader() {
@@ -182,9 +562,11 @@ public class MainActivity extends AppCompatActivity
     }
 
     private void loadFragment(Fragment fragment) {
-        if (fragment instanceof HomeFragment) {
-            homeFragment = (HomeFragment) fragment;
-        }
+        // Con otra pantalla el texto de los sensores no tiene dónde mostrarse:
+        // sin pedir frames. La vista nueva de HomeFragment está vacía: se
+        // redibujan los valores en el próximo frame
+        homeFragment = fragment instanceof HomeFragment ? (HomeFragment) fragment : null;
+        uiBridge.setTargetAttached(homeFragment != null);
         FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
         transaction.replace(R.id.content_frame, fragment);
         transaction.commit();
@@ -229,10 +611,17 @@ public class MainActivity extends AppCompatActivity
         }
     }
 
-    private void sendSensorData() {
-        // Throttling: solo enviar cada 1 segundo
+    /**
+     * Toma una muestra de telemetría y la encola en {@link TelemetryUploader}.
+     *
+     * @param stateChanged cambió el estado de detección: la muestra se toma sin
+     *                     esperar al throttling y el lote se envía enseguida
+     */
+    private void sendSensorData(boolean stateChanged) {
         long now = System.currentTimeMillis();
-        if (now - lastDataSendTime < DATA_SEND_INTERVAL_MS) {
+
+        // Throttling: una muestra cada dataSendIntervalMs (1 segundo con el perfil estándar)
+        if (!stateChanged && now - lastDataSendTime < appliedProfile.dataSendIntervalMs) {
             return;
         }
 
@@ -263,55 +652,329 @@ public class MainActivity extends AppCompatActivity
         }
 
         try {
-            JSONObject json = new JSONObject();
-
-            // Datos de acelerómetro y giroscopio
-            json.put("acc_x", accX);
-            json.put("acc_y", accY);
-            json.put("acc_z", accZ);
-            json.put("gyro_x", gyroX);
-            json.put("gyro_y", gyroY);
-            json.put("gyro_z", gyroZ);
-
-            // Estado de detección
-            json.put("is_walking", isWalking);
-            json.put("is_using_phone", isUsingPhone);
-            json.put("is_walking_using_phone", isWalkingAndUsingPhone ? 1 : 0);
-            json.put("step_count", stepCount);
-
-            json.put("vertical_acceleration", verticalAcc); // Aceleración vertical proyectada
-            json.put("gravity_x", gravity[0]); // Vector de gravedad
-            json.put("gravity_y", gravity[1]);
-            json.put("gravity_z", gravity[2]);
-            json.put("dynamic_threshold", dynamicThreshold); // Umbral adaptativo
-            json.put("std_dev", stdDev); // Desviación estándar
+            uploadPayload.accX = accX;
+            uploadPayload.accY = accY;
+            uploadPayload.accZ = accZ;
+            uploadPayload.gyroX = gyroX;
+            uploadPayload.gyroY = gyroY;
+            uploadPayload.gyroZ = gyroZ;
+            uploadPayload.setDetection(pipeline);
 
             // Información del dispositivo
-            json.put("battery_level", getBatteryLevel());
-            json.put("battery_status", getBatteryStatus());
-            json.put("screen_brightness", getScreenBrightness());
-            json.put("screen_on", isScreenOn());
+            uploadPayload.batteryLevel = getBatteryLevel();
+            uploadPayload.batteryStatus = getBatteryStatus();
+            uploadPayload.screenBrightness = getScreenBrightness();
+            uploadPayload.screenOn = isScreenOn();
+            uploadPayload.recordedAt = System.currentTimeMillis();
+
+            telemetryUploader.add(uploadPayload.toJson(), sessionId, tokenToSend, now);
+            if (stateChanged) {
+                telemetryUploader.onStateTransition();
+            }
+            if (telemetryUploader.getPendingCount() == 1) {
+                // Primera muestra de un lote: agendar su envío por antigüedad
+                scheduleTelemetryAgeFlush(now);
+            }
 
-            // Timestamp
-            json.put("recorded_at", System.currentTimeMillis());
+        } catch (Exception e) {
+            Log.e("SENSOR_DATA", "Error al preparar datos: " + e.toString());
+        }
+    }
 
-            ApiService.sendSensorData(sessionId, json, tokenToSend, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    Log.d("SENSOR_DATA", "Datos enviados exitosamente");
-                }
+    private void pollTelemetryAge() {
+        long now = System.currentTimeMillis();
+        telemetryUploader.poll(now);
+        // Si el lote todavía no venció (relojes distintos) se vuelve a agendar
+        scheduleTelemetryAgeFlush(now);
+    }
 
-                @Override
-                public void onError(String error) {
-                    Log.e("SENSOR_DATA", "Error al enviar datos: " + error);
-                }
-            });
+    /**
+     * Agenda {@link TelemetryUploader#poll} para cuando venza el lote pendiente
+     * (reemplaza lo agendado antes). Se ejecuta en el hilo de sensores.
+     */
+    private void scheduleTelemetryAgeFlush(long nowMs) {
+        Handler handler = sensorHandler;
+        if (handler == null) {
+            return;
+        }
+        handler.removeCallbacks(telemetryAgeTask);
+        long delayMs = telemetryUploader.getMillisUntilAgeFlush(nowMs);
+        if (delayMs >= 0) {
+            handler.postDelayed(telemetryAgeTask, delayMs);
+        }
+    }
 
+    /**
+     * Sender de {@link TelemetryUploader}: el lote pasa por la cola persistente.
+     */
+    private void sendTelemetryBatch(long sessionId, JSONArray samples, String token) {
+        String description = "lote de " + samples.length() + " muestras";
+        try {
+            JSONObject record = new JSONObject();
+            record.put("id_sesion", sessionId);
+            putUploadAuth(record, preferencesManager.getUserId(), token != null);
+            record.put("datos", samples);
+            if (telemetryLane.enqueue(UPLOAD_TELEMETRY, record)) {
+                return;
+            }
         } catch (Exception e) {
-            Log.e("SENSOR_DATA", "Error al preparar datos: " + e.toString());
+            Log.e("SENSOR_DATA", "Error al encolar " + description + ": " + e.toString());
+        }
+        ApiService.sendSensorDataBatch(sessionId, samples, token,
+                uploadCallback(UPLOAD_TELEMETRY, description, null, -1));
+    }
+
+    private void openUploadQueues() {
+        telemetryLane.open();
+        alertLane.open();
+    }
+
+    private void closeUploadQueues() {
+        telemetryLane.close();
+        alertLane.close();
+    }
+
+    /**
+     * Guarda de quién es el registro, sin el token: si el usuario cierra
+     * sesión o el token cambia antes del envío, el disco no conserva uno viejo.
+     */
+    private static void putUploadAuth(JSONObject record, long userId, boolean authenticated) throws JSONException {
+        record.put("autenticado", authenticated);
+        if (authenticated) {
+            record.put("id_usuario_auth", userId);
+        }
+    }
+
+    /**
+     * Token con el que se envía un registro de la cola, leído al enviarlo.
+     *
+     * @return el token del usuario dueño del registro; null si el registro es
+     * anónimo o si su usuario ya no tiene sesión iniciada (ver {@link #isUploadAuthMissing})
+     */
+    private String resolveUploadToken(JSONObject record) {
+        if (!record.optBoolean("autenticado")) {
+            return null;
+        }
+        String token = preferencesManager.getUserToken();
+        if (!preferencesManager.isUserLoggedIn() || token == null || token.isEmpty()
+                || preferencesManager.getUserId() != record.optLong("id_usuario_auth")) {
+            return null;
+        }
+        return token;
+    }
+
+    private static boolean isUploadAuthMissing(JSONObject record, String token) {
+        return record.optBoolean("autenticado") && token == null;
+    }
+
+    /**
+     * Una cola persistente con su envío: un registro en vuelo a la vez y su
+     * propia espera de reintento, así un servidor que rechaza telemetría no
+     * frena las alertas. Solo hilo de sensores.
+     */
+    private final class UploadLane {
+
+        private final String name;
+        private final String dirName;
+        private DurableUploadQueue queue;
+        private boolean inFlight = false;
+        private boolean retryScheduled = false;
+        private long retryDelayMs = UPLOAD_RETRY_MIN_MS;
+        private final Runnable retryTask = () -> {
+            retryScheduled = false;
+            drain();
+        };
+
+        UploadLane(String name, String dirName) {
+            this.name = name;
+            this.dirName = dirName;
+        }
+
+        void open() {
+            try {
+                queue = DurableUploadQueue.open(new File(getFilesDir(), dirName));
+                Log.i("UPLOAD_QUEUE", "Cola de " + name + " abierta - " + queue.describe());
+                drain();
+            } catch (IOException e) {
+                // Sin cola se envía directo, como antes (sin reintentos)
+                Log.e("UPLOAD_QUEUE", "No se pudo abrir la cola de " + name + ": " + e.toString());
+            }
+        }
+
+        void close() {
+            if (queue == null) {
+                return;
+            }
+            Handler handler = sensorHandler;
+            if (handler != null) {
+                handler.removeCallbacks(retryTask);
+            }
+            try {
+                queue.close();
+            } catch (IOException e) {
+                Log.e("UPLOAD_QUEUE", "Error al cerrar la cola de " + name + ": " + e.toString());
+            }
+            // Lo que quedó en vuelo se reenvía al abrir la cola otra vez
+            queue = null;
+        }
+
+        String describe() {
+            return queue == null ? "Cola de " + name + " cerrada" : name + ": " + queue.describe();
+        }
+
+        /**
+         * Escribe el registro en la cola y dispara el envío.
+         *
+         * @return false si no hay cola o no se pudo escribir (el llamador envía directo)
+         */
+        boolean enqueue(byte type, JSONObject record) {
+            if (queue == null) {
+                return false;
+            }
+            try {
+                queue.append(type, record.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                Log.e("UPLOAD_QUEUE", "Error al escribir en la cola de " + name + ": " + e.toString());
+                return false;
+            }
+            drain();
+            return true;
+        }
+
+        /**
+         * Envía el primer registro pendiente, si no hay otro en vuelo ni un
+         * reintento programado. Sigue con el próximo al confirmarse.
+         */
+        void drain() {
+            if (queue == null || inFlight || retryScheduled) {
+                return;
+            }
+            DurableUploadQueue.Record record;
+            try {
+                record = queue.peek();
+            } catch (IOException e) {
+                // Los registros dañados ya los salta la cola: esto es un error de
+                // E/S, que puede ser pasajero (almacenamiento lleno, por ejemplo)
+                scheduleRetry("Error al leer la cola: " + e.toString());
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+
+            JSONObject json;
+            try {
+                json = new JSONObject(new String(record.payload, StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                // Ilegible: se descarta para no bloquear la cola
+                Log.e("UPLOAD_QUEUE", "Registro " + record.sequence + " descartado: " + e.toString());
+                onDone(record.sequence, null);
+                return;
+            }
+
+            String token = resolveUploadToken(json);
+            if (isUploadAuthMissing(json, token)) {
+                // El registro es de un usuario que cerró sesión: espera a que vuelva a entrar
+                scheduleRetry("Registro " + record.sequence + " sin sesión de su usuario");
+                return;
+            }
+
+            inFlight = true;
+            long sessionId = json.optLong("id_sesion");
+            if (record.type == UPLOAD_ALERT) {
+                ApiService.sendAlerta(sessionId, json.optLong("id_usuario"), json.optString("tipo_alerta"),
+                        json.optString("severidad"), json.optString("descripcion"),
+                        json.optJSONObject("contexto"), json.optLong("detected_at"), token,
+                        uploadCallback(UPLOAD_ALERT, "alerta", this, record.sequence));
+            } else {
+                JSONArray samples = json.optJSONArray("datos");
+                if (samples == null) {
+                    samples = new JSONArray();
+                }
+                ApiService.ApiCallback callback = uploadCallback(UPLOAD_TELEMETRY,
+                        "lote de " + samples.length() + " muestras", this, record.sequence);
+                if (ApiService.isColumnarBatchSupported()) {
+                    ApiService.sendSensorDataBatchColumnar(batchCodec.encode(sessionId, samples), token, callback);
+                } else {
+                    ApiService.sendSensorDataBatch(sessionId, samples, token, callback);
+                }
+            }
+        }
+
+        /**
+         * Resultado de un envío de la cola (hilo de sensores). Sin red, con el
+         * servidor caído (5xx, 408, 429), con el ejecutor de ApiService lleno o
+         * con el token rechazado (401, se vuelve a leer al reintentar) el
+         * registro se reintenta más tarde; si el servidor no acepta la
+         * compresión o el formato binario se reenvía sin ellos. Se confirma con
+         * 2xx o con un rechazo definitivo (el resto de los 4xx), que reenviar no
+         * cambiaría.
+         */
+        void onDone(long sequence, String error) {
+            inFlight = false;
+            if (queue == null) {
+                return;
+            }
+            if (ApiService.UNSUPPORTED_FORMAT_ERROR.equals(error)) {
+                // Se reenvía el mismo registro, ahora sin comprimir o en JSON
+                drain();
+                return;
+            }
+            if (ApiService.CONNECTION_ERROR.equals(error) || ApiService.SERVER_ERROR.equals(error)
+                    || ApiService.BUSY_ERROR.equals(error) || ApiService.UNAUTHORIZED_ERROR.equals(error)) {
+                scheduleRetry(error);
+                return;
+            }
+            retryDelayMs = UPLOAD_RETRY_MIN_MS;
+            try {
+                queue.commit(sequence);
+            } catch (IOException e) {
+                Log.e("UPLOAD_QUEUE", "Error al confirmar el registro " + sequence + ": " + e.toString());
+                return;
+            }
+            drain();
+        }
+
+        /**
+         * Vuelve a intentar la cola más tarde, con espera creciente.
+         */
+        private void scheduleRetry(String reason) {
+            Handler handler = sensorHandler;
+            if (handler == null || retryScheduled) {
+                return;
+            }
+            retryScheduled = true;
+            handler.postDelayed(retryTask, retryDelayMs);
+            Log.w("UPLOAD_QUEUE", "Cola de " + name + ": " + reason + " - reintento en " + retryDelayMs / 1000
+                    + "s (" + queue.getPendingCount() + " pendientes)");
+            retryDelayMs = Math.min(retryDelayMs * 2, UPLOAD_RETRY_MAX_MS);
         }
     }
 
+    /**
+     * Callback de un envío; con una cola avisa el resultado en el hilo de sensores.
+     */
+    private ApiService.ApiCallback uploadCallback(byte type, String description, UploadLane lane, long sequence) {
+        String tag = type == UPLOAD_ALERT ? "ALERT" : "SENSOR_DATA";
+        return new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                Log.i(tag, "Enviado exitosamente: " + description);
+                if (lane != null) {
+                    runOnSensorThread(() -> lane.onDone(sequence, null));
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(tag, "Error al enviar " + description + ": " + error);
+                if (lane != null) {
+                    runOnSensorThread(() -> lane.onDone(sequence, error));
+                }
+            }
+        };
+    }
+
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
     }
@@ -371,381 +1034,114 @@ public class MainActivity extends AppCompatActivity
     }
 
     /**
-     * Detección de pasos
-     * Referencias:
-     * - Pan & Lin (2011): "An improved human activity recognition system"
-     * - Zhao (2010): "A robust step counting algorithm"
-     *
-     * OPTIMIZADO para uso activo del teléfono:
-     * 1. Filtro de gravedad (low-pass) para separar componente gravitacional
-     * 2. Aceleración lineal = señal cruda - gravedad
-     * 3. Proyección sobre eje vertical dinámico (no asume orientación fija)
-     * 4. Detección de picos sobre señal vertical
-     * 5. Umbrales adaptados para movimiento con teléfono
+     * Procesa de una sola vez la ráfaga de muestras del acelerómetro entregada por
+     * el FIFO del sensor, y ejecuta la detección combinada una vez por ráfaga.
+     * Se encola en el Handler de sensores con el primer evento de la ráfaga, por
+     * lo que corre después de que el Looper entregó todos los eventos disponibles.
      */
-    private void detectWalking(float accX, float accY, float accZ) {
-        // SEPARAR GRAVEDAD correctamente (filtro low-pass recomendado por Android)
-        gravity[0] = ALPHA_GRAVITY * gravity[0] + (1 - ALPHA_GRAVITY) * accX;
-        gravity[1] = ALPHA_GRAVITY * gravity[1] + (1 - ALPHA_GRAVITY) * accY;
-        gravity[2] = ALPHA_GRAVITY * gravity[2] + (1 - ALPHA_GRAVITY) * accZ;
-
-        // ACELERACIÓN LINEAL (sin gravedad)
-        float linX = accX - gravity[0];
-        float linY = accY - gravity[1];
-        float linZ = accZ - gravity[2];
-
-        // PROYECCIÓN sobre eje VERTICAL DINÁMICO
-        // La gravedad define la vertical real, independiente de la orientación del
-        // teléfono
-        float gravityMagnitude = (float) Math.sqrt(
-                gravity[0] * gravity[0] +
-                        gravity[1] * gravity[1] +
-                        gravity[2] * gravity[2]);
-
-        // Evitar división por cero
-        if (gravityMagnitude < 0.1f) {
-            return; // Gravedad no inicializada aún
-        }
-
-        // Proyección de aceleración lineal sobre eje vertical
-        verticalAcc = (linX * gravity[0] +
-                linY * gravity[1] +
-                linZ * gravity[2]) / gravityMagnitude;
-
-        // FILTRO PASO BAJO (eliminar ruido de alta frecuencia)
-        accFiltered = ALPHA_LOW_PASS * accFiltered + (1 - ALPHA_LOW_PASS) * verticalAcc;
-
-        // BUFFER CIRCULAR
-        accBuffer[bufferIndex] = accFiltered;
-        bufferIndex = (bufferIndex + 1) % SAMPLE_SIZE;
-
-        // Esperar antes de detectar
-        long now = System.currentTimeMillis();
-
-        // Inicializar timestamp en la primera muestra
-        if (detectionStartTime == 0) {
-            detectionStartTime = now;
-            accMean = verticalAcc; // inicializar con verticalAcc
-            Log.i("STEP_WARMUP", "Iniciando warm-up de " + WARM_UP_TIME_MS + "ms");
-        }
-
-        long elapsedTime = now - detectionStartTime;
-
-        if (elapsedTime < WARM_UP_TIME_MS) {
-            samplesCollected++;
-            // Durante warm-up, inicializar media con valores reales de verticalAcc
-            accMean = accMean * 0.9f + verticalAcc * 0.1f; // Convergencia suave
-
-            // Log periódico durante warm-up (cada 500ms)
-            if (samplesCollected % 25 == 0) {
-                Log.d("STEP_WARMUP", String.format("Warm-up: %dms/%dms | Samples: %d | Vertical: %.2f | Mean: %.2f",
-                        elapsedTime, WARM_UP_TIME_MS, samplesCollected, verticalAcc, accMean));
-            }
+    private void processAccelerometerBurst() {
+        burstDrainScheduled = false;
+        if (accBatch.isEmpty()) {
             return;
         }
 
-        samplesCollected++;
-
-        // Marcar buffer como listo
-        if (!bufferReady) {
-            bufferReady = true;
-            Log.i("STEP_DETECTION", "Buffer listo - iniciando detección de pasos");
-        }
-
-        // FILTRO PASO ALTO (eliminar componente de drift)
-        // Media móvil exponencial que se adapta lentamente
-        accMean = ALPHA_HIGH_PASS * accMean + (1 - ALPHA_HIGH_PASS) * accFiltered;
+        uiBridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, accX, accY, accZ);
+        uiBridge.post(UiUpdateBridge.FIELD_GYROSCOPE, gyroX, gyroY, gyroZ);
 
-        // Señal centrada (elimina offset)
-        float centeredAcc = accFiltered - accMean;
-
-        // CÁLCULO DE UMBRAL DINÁMICO con stdDev
-        // Calcular media REAL del buffer (no usar accMean que es una EMA)
-        float bufferMean = calculateMean(accBuffer);
-        stdDev = calculateStdDev(accBuffer, bufferMean);
-        dynamicThreshold = Math.max(
-                STEP_THRESHOLD_MIN,
-                Math.min(STEP_THRESHOLD_MAX, stdDev * DYNAMIC_FACTOR));
-
-        // DETECCIÓN DE PICO = PASO
-        // Algoritmo de cruce de umbral con histéresis
-        if (centeredAcc > dynamicThreshold && !aboveThreshold) {
-            // Cruce ascendente detectado
-            aboveThreshold = true;
-            lastPeakValue = centeredAcc;
-
-        } else if (aboveThreshold && centeredAcc > lastPeakValue) {
-            // Actualizar pico máximo
-            lastPeakValue = centeredAcc;
-
-        } else if (aboveThreshold && centeredAcc < dynamicThreshold * 0.5f) {
-            // Cruce descendente = FIN DE PICO - REGISTRAR PASO
-            aboveThreshold = false;
-
-            // Si es el primer paso (lastStepTime == 0), aceptarlo sin validar intervalo
-            if (lastStepTime == 0) {
-                recentStepTimes[stepTimeIndex] = now;
-                stepTimeIndex = (stepTimeIndex + 1) % STEPS_WINDOW;
-
-                stepCount++;
-                lastStepTime = now;
-                isWalking = true;
-                walkingSpeed = "Normal"; // Asumir velocidad normal para primer paso
-
-                Log.d("STEP_DETECTED", String.format(
-                        "✓ PASO #%d (PRIMERO) | Peak: %.2f | Threshold: %.2f",
-                        stepCount, lastPeakValue, dynamicThreshold));
-            } else {
-                // Pasos subsecuentes - validar intervalo temporal
-                long stepInterval = now - lastStepTime;
-
-                // Validar intervalo temporal (evitar pasos imposibles)
-                if (stepInterval > MIN_STEP_INTERVAL && stepInterval < MAX_STEP_INTERVAL) {
-
-                    recentStepTimes[stepTimeIndex] = now;
-                    stepTimeIndex = (stepTimeIndex + 1) % STEPS_WINDOW;
-
-                    // Validar patrón de pasos
-                    if (isValidStepPattern()) {
-                        stepCount++;
-                        lastStepTime = now;
-                        isWalking = true;
-
-                        updateWalkingSpeed(stepInterval);
+        // La detección combinada corre una vez por ráfaga, con la última muestra combinada
+        pipeline.onMotionBurst(accBatch);
+        accBatch.clear();
+    }
 
-                        Log.d("STEP_DETECTED", String.format(
-                                "✓ PASO #%d | Intervalo: %dms | Peak: %.2f | Threshold: %.2f | Velocidad: %s",
-                                stepCount, stepInterval, lastPeakValue, dynamicThreshold, walkingSpeed));
-                    }
-                } else {
-                    Log.d("STEP_REJECTED", String.format(
-                            "✗ Paso inválido | Intervalo: %dms (válido: %d-%d)",
-                            stepInterval, MIN_STEP_INTERVAL, MAX_STEP_INTERVAL));
-                }
-            }
+    @Override
+    public void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking) {
+        if (stoppedWalking) {
+            Log.i("STEP_DETECTION", "Usuario detenido - reiniciando estado de caminata");
+        }
 
-            lastPeakValue = 0;
+        boolean stepActivity = stepDetected || stepSource.isStepInProgress();
+        if (samplingController.onSample(timestampNs, stepActivity)) {
+            applySamplingMode();
         }
 
-        // VERIFICAR SI DEJÓ DE CAMINAR
-        // Si no hay pasos en 2.5s, asumir que está detenido
-        if (lastStepTime > 0 && (now - lastStepTime > 2500)) {
-            if (isWalking) {
-                Log.i("STEP_DETECTION", "Usuario detenido - reiniciando estado de caminata");
+        // LOG PERIÓDICO: cuenta las muestras del pipeline, no las del detector de
+        // picos, que no avanza con el sensor hub; en lotes el contador salta
+        long motionSamples = pipeline.getMotionSampleCount();
+        if (motionSamples - lastDiagnosticsSample >= DIAGNOSTICS_INTERVAL_SAMPLES
+                && trace.getLevel() >= DetectionTrace.LEVEL_DEBUG) {
+            lastDiagnosticsSample = motionSamples;
+            Log.d("STEP_SOURCE", stepSource.describe());
+            Log.d("FUSION", pipeline.getFusionStage().describeMetrics());
+            Log.d("UI_BRIDGE", uiBridge.describeMetrics());
+            Log.d("TELEMETRY", telemetryUploader.describeMetrics());
+            Log.d("UPLOAD_QUEUE", telemetryLane.describe());
+            Log.d("UPLOAD_QUEUE", alertLane.describe());
+            if (batchCodec.getBatches() > 0) {
+                Log.d("BATCH_CODEC", batchCodec.describeMetrics());
+                Log.d("COMPRESSION", ApiService.describeCompression());
             }
-            isWalking = false;
-            walkingSpeed = "Ninguna";
-
-            // Si la pausa es MUY larga (>5s), reiniciar lastStepTime
-            // Esto permite que el siguiente paso sea aceptado como "primer paso"
-            if (now - lastStepTime > 5000) {
-                Log.i("STEP_DETECTION", "Pausa larga detectada - reiniciando contador de tiempo");
-                lastStepTime = 0;
+            Log.d("API_EXECUTOR", ApiService.describeExecutor());
+            if (sensorRecorder != null) {
+                Log.d("SENSOR_RECORDING", sensorRecorder.describe());
             }
         }
-
-        currentVariance = calculateVariance(accBuffer);
-
-        // LOG PERIÓDICO (cada 100 muestras ≈ cada 2s con SENSOR_DELAY_GAME)
-        if (samplesCollected % 100 == 0) {
-            Log.d("STEP_STATUS", String.format(
-                    "Vertical: %.2f | Filt: %.2f | Mean: %.2f | Centered: %.2f | " +
-                            "Threshold: %.2f | StdDev: %.2f | Steps: %d | Walking: %s (%s)",
-                    verticalAcc, accFiltered, accMean, centeredAcc,
-                    dynamicThreshold, stdDev, stepCount,
-                    isWalking ? "SI" : "NO", walkingSpeed));
-        }
     }
 
-    private float calculateMean(float[] buffer) {
-        float sum = 0;
-        for (float value : buffer) {
-            sum += value;
-        }
-        return sum / buffer.length;
-    }
-
-    /**
-     * Calcula desviación estándar del buffer con la media CORRECTA
-     */
-    private float calculateStdDev(float[] buffer, float mean) {
-        float sumSquaredDiff = 0;
-        for (float value : buffer) {
-            float diff = value - mean;
-            sumSquaredDiff += diff * diff;
-        }
-        return (float) Math.sqrt(sumSquaredDiff / buffer.length);
+    @Override
+    public void onDetection(long timestampNs) {
+        DetectionStatus.State previousState = detectionStatus.getState();
+        publishDetectionStatus();
+        sendSensorData(detectionStatus.getState() != previousState);
     }
 
-    /**
-     * Valida que los pasos recientes formen un patrón consistente
-     * Evita falsos positivos por movimientos únicos del teléfono
-     */
-    private boolean isValidStepPattern() {
-        // Contar cuántos pasos hay en los últimos 3 segundos
-        long now = System.currentTimeMillis();
-        int recentSteps = 0;
-
-        for (long stepTime : recentStepTimes) {
-            if (stepTime > 0 && (now - stepTime) < 3000) {
-                recentSteps++;
-            }
-        }
-
-        // Permitir primeros 2 pasos para establecer patrón
-        // Después, necesitamos al menos 2 pasos en 3 segundos para confirmar caminata
-        if (stepCount < 2) {
-            return true; // Permitir los primeros 2 pasos sin validación
-        }
-
-        // A partir del tercer paso, validar patrón temporal
-        return recentSteps >= 2;
+    @Override
+    public void onAlert(long timestampNs) {
+        StepDetector activeDetector = pipeline.getActiveStepDetector();
+        Log.w("ALERT_TRIGGERED", String.format(
+                "NUEVA ALERTA #%d - Caminata: %s | Varianza: %s",
+                pipeline.getTotalAlerts(), pipeline.getWalkingSpeed(),
+                activeDetector != null ? String.format("%.3f", activeDetector.getVariance()) : "-"));
+        triggerAlert();
+        sendAlertToServer();
     }
 
     /**
-     * Determina velocidad de caminata basada en cadencia (pasos/minuto)
-     * Literatura: Lento <100, Normal 100-120, Rápido >120 pasos/min
+     * Publica el estado en la UI solo si cambió algún campo de la instantánea.
      */
-    private void updateWalkingSpeed(long stepInterval) {
-        // Convertir intervalo a pasos/minuto
-        float cadence = 60000.0f / stepInterval; // pasos/min
-
-        if (cadence < 80) {
-            walkingSpeed = "Lenta"; // <80 pasos/min
-        } else if (cadence < 120) {
-            walkingSpeed = "Normal"; // 80-120 pasos/min
-        } else {
-            walkingSpeed = "Rapida"; // >120 pasos/min
+    private void publishDetectionStatus() {
+        DetectionStatus next = detectionStatus.with(pipeline.isWalkingAndUsingPhone(),
+                pipeline.isWalking(), pipeline.isUsingPhone(), pipeline.getWalkingSpeed(),
+                pipeline.getStepCount(), pipeline.getTotalAlerts());
+        if (next == detectionStatus) {
+            return;
         }
+        detectionStatus = next;
+        runOnUiThread(() -> {
+            if (homeFragment != null) {
+                homeFragment.updateDetectionStatus(next);
+            }
+        });
     }
 
-    private float calculateVariance(float[] samples) {
-        float sum = 0;
-        for (float sample : samples) {
-            sum += sample;
-        }
-        float mean = sum / samples.length;
-
-        float varianceSum = 0;
-        for (float sample : samples) {
-            varianceSum += Math.pow(sample - mean, 2);
-        }
-
-        return varianceSum / samples.length;
+    public DetectionStatus getDetectionStatus() {
+        return detectionStatus;
     }
 
-    private void detectPhoneUsage(float gyroX, float gyroY, float gyroZ,
-            float accX, float accY, float accZ) {
-        // Magnitud del giroscopio
-        float gyroMagnitude = (float) Math.sqrt(gyroX * gyroX + gyroY * gyroY + gyroZ * gyroZ);
-
-        // Calcular orientación del teléfono
-        float pitch = (float) Math.toDegrees(Math.atan2(accX, Math.sqrt(accY * accY + accZ * accZ)));
-        float roll = (float) Math.toDegrees(Math.atan2(accY, accZ));
-
-        // Verificar si está en posición de uso
-        boolean isPhoneOriented = (Math.abs(pitch) > PHONE_TILT_MIN && Math.abs(pitch) < PHONE_TILT_MAX) ||
-                (Math.abs(roll) > PHONE_TILT_MIN && Math.abs(roll) < PHONE_TILT_MAX);
-
-        // Determinar si está usando el teléfono
-        boolean gyroActive = gyroMagnitude > PHONE_USE_GYRO_THRESHOLD;
-        isUsingPhone = gyroActive || isPhoneOriented;
-
-        String detectionReason = "";
-        if (gyroActive && isPhoneOriented) {
-            detectionReason = "GYRO+ORIENTACION";
-        } else if (gyroActive) {
-            detectionReason = "GYRO";
-        } else if (isPhoneOriented) {
-            detectionReason = "ORIENTACION";
-        } else {
-            detectionReason = "NINGUNO";
-        }
-
-        Log.d("PHONE_USAGE", String.format(
-                "GyroMag: %.3f | Pitch: %.2f° | Roll: %.2f° | Orientado: %s | Activo: %s | Usando: %s | Razon: %s",
-                gyroMagnitude, pitch, roll,
-                isPhoneOriented ? "SI" : "NO",
-                gyroActive ? "SI" : "NO",
-                isUsingPhone ? "SI" : "NO",
-                detectionReason));
+    private void onUiFrame(long frameTimeNanos) {
+        uiBridge.onFrame(frameTimeNanos);
     }
 
-    private void detectWalkingAndPhoneUse() {
-        boolean previousState = isWalkingAndUsingPhone;
-
-        // Validación robusta: requiere caminata confirmada + uso del teléfono
-        // Evita alertas por un solo paso o movimientos aislados
-        long now = System.currentTimeMillis();
-        int stepsInLast2Seconds = 0;
-
-        // Contar pasos recientes (últimos 2 segundos)
-        for (long stepTime : recentStepTimes) {
-            if (stepTime > 0 && (now - stepTime) < 2000) {
-                stepsInLast2Seconds++;
-            }
+    /**
+     * Renderer de {@link UiUpdateBridge}; corre en el hilo principal.
+     */
+    private void renderSensorText(int field, String text) {
+        if (homeFragment == null) {
+            return;
         }
-
-        boolean walkingConfirmed = isWalking && stepsInLast2Seconds >= 2;
-
-        boolean phoneConfirmed = isUsingPhone;
-
-        isWalkingAndUsingPhone = walkingConfirmed && phoneConfirmed;
-
-        String status = "";
-        String statusColor = "#4CAF50";
-
-        if (isWalkingAndUsingPhone) {
-            status = String.format("ALERTA: Caminando (%s) y usando el telefono", walkingSpeed);
-            statusColor = "#F44336";
-        } else if (isWalking) {
-            status = String.format("Caminando - Velocidad: %s", walkingSpeed);
-            statusColor = "#FF9800";
-        } else if (isUsingPhone) {
-            status = "Usando telefono (estatico)";
-            statusColor = "#2196F3";
+        if (field == UiUpdateBridge.FIELD_ACCELEROMETER) {
+            homeFragment.updateAccData(text);
         } else {
-            status = "Estado seguro - Sin actividad";
-            statusColor = "#4CAF50";
-        }
-
-        status += String.format("\n\n--- DETECCION ---" +
-                "\nPasos totales: %d" +
-                "\nCaminando: %s" +
-                "\nTipo caminata: %s" +
-                "\nVarianza: %.3f" +
-                "\nUsando telefono: %s" +
-                "\nAlertas totales: %d",
-                stepCount,
-                isWalking ? "SI" : "NO",
-                walkingSpeed,
-                currentVariance,
-                isUsingPhone ? "SI" : "NO",
-                totalAlerts);
-
-        Log.i("DETECTION_STATUS", String.format(
-                "=== ESTADO GENERAL === | Caminando: %s (%s) | Telefono: %s | ALERTA: %s | Varianza: %.3f",
-                isWalking ? "SI" : "NO",
-                walkingSpeed,
-                isUsingPhone ? "SI" : "NO",
-                isWalkingAndUsingPhone ? "ACTIVA" : "NO",
-                currentVariance));
-
-        String finalStatus = status;
-        runOnUiThread(() -> {
-            if (homeFragment != null) {
-                homeFragment.updateSensorStatus(finalStatus);
-            }
-        });
-
-        // Si cambió el estado a alerta, activar sonido/vibración
-        if (!previousState && isWalkingAndUsingPhone) {
-            totalAlerts++;
-            Log.w("ALERT_TRIGGERED", String.format(
-                    "NUEVA ALERTA #%d - Caminata: %s | Varianza: %.3f",
-                    totalAlerts, walkingSpeed, currentVariance));
-            triggerAlert();
-            sendAlertToServer();
+            homeFragment.updateGyroData(text);
         }
     }
 
@@ -878,7 +1274,14 @@ public class MainActivity extends AppCompatActivity
         Log.d("SENSORS", "Deteniendo mediciones de sensores");
 
         if (sensorManager != null) {
-            sensorManager.unregisterListener(this);
+            // En el hilo de sensores, detrás de cualquier registro ya encolado
+            runOnSensorThread(this::stopMeasuringNow);
+        }
+
+        // Sin mediciones, encender o apagar la pantalla no cambia nada
+        if (screenStateReceiver != null) {
+            unregisterReceiver(screenStateReceiver);
+            screenStateReceiver = null;
         }
 
         // Finalizar sesión actual si existe
@@ -893,39 +1296,115 @@ public class MainActivity extends AppCompatActivity
         Log.i("SENSORS", "Mediciones detenidas exitosamente");
     }
 
+    /**
+     * Desregistra los sensores y deja las mediciones detenidas. Se ejecuta en
+     * el hilo de sensores.
+     */
+    private void stopMeasuringNow() {
+        measuring = false;
+        sensorManager.unregisterListener(this);
+    }
+
     @Override
     public void onSensorChanged(SensorEvent event) {
+        lastEventTimestampNs = event.timestamp;
+
+        // Una lectura volatile por evento; el cambio de perfil es raro
+        PerformanceProfile profile = performanceProfile;
+        if (profile != appliedProfile) {
+            applyPerformanceProfile(profile);
+        }
+
+        if (event.sensor.getType() == Sensor.TYPE_STEP_DETECTOR) {
+            if (sensorRecorder != null) {
+                sensorRecorder.recordHardwareStep(event.timestamp);
+            }
+            pipeline.onHardwareStep(event.timestamp);
+            return;
+        }
+
+        if (sensorBatchingActive) {
+            collectBatchedEvent(event);
+            return;
+        }
+
         if (event.sensor.getType() == Sensor.TYPE_GYROSCOPE) {
             gyroX = event.values[0];
             gyroY = event.values[1];
             gyroZ = event.values[2];
 
-            String gyroData = String.format("Giroscopio:\nX: %.3f\nY: %.3f\nZ: %.3f", gyroX, gyroY, gyroZ);
-            runOnUiThread(() -> {
-                if (homeFragment != null) {
-                    homeFragment.updateGyroData(gyroData);
-                }
-            });
+            uiBridge.post(UiUpdateBridge.FIELD_GYROSCOPE, gyroX, gyroY, gyroZ);
+            if (sensorRecorder != null) {
+                sensorRecorder.recordGyroscope(gyroX, gyroY, gyroZ, event.timestamp);
+            }
+
+            // Solo actualiza la etapa de fusión: no dispara la detección combinada
+            pipeline.onGyroscope(gyroX, gyroY, gyroZ, event.timestamp);
+            return;
         }
 
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            accX = event.values[0];
-            accY = event.values[1];
-            accZ = event.values[2];
+        if (sensorSource.onMotionEvent(event)) {
+            accX = sensorSource.getAccX();
+            accY = sensorSource.getAccY();
+            accZ = sensorSource.getAccZ();
 
-            String accData = String.format("Acelerometro:\nX: %.3f\nY: %.3f\nZ: %.3f", accX, accY, accZ);
-            runOnUiThread(() -> {
-                if (homeFragment != null) {
-                    homeFragment.updateAccData(accData);
-                }
-            });
+            uiBridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, accX, accY, accZ);
+            if (sensorRecorder != null) {
+                sensorRecorder.recordMotion(accX, accY, accZ, sensorSource.getGravityX(),
+                        sensorSource.getGravityY(), sensorSource.getGravityZ(), event.timestamp);
+            }
+
+            // Pasos y, según el periodo de salida, una muestra combinada → detección combinada
+            pipeline.onMotionSample(accX, accY, accZ, sensorSource.getGravityX(),
+                    sensorSource.getGravityY(), sensorSource.getGravityZ(), event.timestamp);
+        }
+    }
+
+    /**
+     * Modo por lotes: solo acumula la muestra; la detección se ejecuta una vez
+     * por ráfaga en {@link #processAccelerometerBurst()}.
+     */
+    private void collectBatchedEvent(SensorEvent event) {
+        if (event.sensor.getType() == Sensor.TYPE_GYROSCOPE) {
+            gyroX = event.values[0];
+            gyroY = event.values[1];
+            gyroZ = event.values[2];
+            if (sensorRecorder != null) {
+                sensorRecorder.recordGyroscope(gyroX, gyroY, gyroZ, event.timestamp);
+            }
+            pipeline.onGyroscope(gyroX, gyroY, gyroZ, event.timestamp);
+            return;
+        }
+
+        if (!sensorSource.onMotionEvent(event)) {
+            return;
+        }
+
+        accX = sensorSource.getAccX();
+        accY = sensorSource.getAccY();
+        accZ = sensorSource.getAccZ();
+        if (sensorRecorder != null) {
+            sensorRecorder.recordMotion(accX, accY, accZ, sensorSource.getGravityX(),
+                    sensorSource.getGravityY(), sensorSource.getGravityZ(), event.timestamp);
+        }
 
-            detectWalking(accX, accY, accZ);
+        if (!addToBatch(event.timestamp)) {
+            // Lote lleno a mitad de ráfaga: procesar lo acumulado y continuar
+            processAccelerometerBurst();
+            addToBatch(event.timestamp);
         }
+        pipeline.onBatchedMotionSample(accX, accY, accZ, sensorSource.getGravityX(),
+                sensorSource.getGravityY(), sensorSource.getGravityZ(), event.timestamp);
 
-        detectPhoneUsage(gyroX, gyroY, gyroZ, accX, accY, accZ);
-        detectWalkingAndPhoneUse();
-        sendSensorData();
+        if (!burstDrainScheduled) {
+            burstDrainScheduled = true;
+            sensorHandler.post(burstDrainTask);
+        }
+    }
+
+    private boolean addToBatch(long timestampNs) {
+        return accBatch.add(accX, accY, accZ, sensorSource.getGravityX(), sensorSource.getGravityY(),
+                sensorSource.getGravityZ(), timestampNs);
     }
 
     private void sendAlertToServer() {
@@ -956,7 +1435,9 @@ public class MainActivity extends AppCompatActivity
             }
 
             // Determinar severidad según velocidad de caminata
-            String severidad = calculateSeverity(walkingSpeed);
+            String walkingSpeed = pipeline.getWalkingSpeed();
+            float cadenceConfidence = pipeline.getCadenceConfidence();
+            String severidad = calculateSeverity(walkingSpeed, cadenceConfidence);
 
             // Determinar tipo de alerta
             String tipoAlerta = "walking_using_phone";
@@ -969,11 +1450,17 @@ public class MainActivity extends AppCompatActivity
             // Crear contexto JSON con información adicional
             JSONObject contexto = new JSONObject();
             contexto.put("walking_speed", walkingSpeed);
-            contexto.put("variance", currentVariance);
-            contexto.put("step_count", stepCount);
+            contexto.put("cadence_spm", pipeline.getCadence());
+            contexto.put("cadence_confidence", cadenceConfidence);
+            // Sin varianza con el sensor hub: la del detector de picos sería vieja
+            StepDetector activeDetector = pipeline.getActiveStepDetector();
+            if (activeDetector != null) {
+                contexto.put("variance", activeDetector.getVariance());
+            }
+            contexto.put("step_count", pipeline.getStepCount());
             contexto.put("battery_level", getBatteryLevel());
             contexto.put("screen_brightness", getScreenBrightness());
-            contexto.put("alert_number", totalAlerts);
+            contexto.put("alert_number", pipeline.getTotalAlerts());
 
             long detectedAt = System.currentTimeMillis();
 
@@ -983,43 +1470,49 @@ public class MainActivity extends AppCompatActivity
                     (isLoggedIn && isParticipating) ? "REGISTRADO" : "ANÓNIMO",
                     userId));
 
-            ApiService.sendAlerta(sessionId, userId, tipoAlerta, severidad,
-                    descripcion, contexto, detectedAt, token, new ApiService.ApiCallback() {
-                        @Override
-                        public void onSuccess(JSONObject response) {
-                            Log.i("ALERT", "Alerta enviada exitosamente al servidor");
-                        }
-
-                        @Override
-                        public void onError(String error) {
-                            Log.e("ALERT", "Error al enviar alerta: " + error);
-                        }
-                    });
+            // Se guarda en la cola antes de enviarla: sin red se envía al volver
+            JSONObject alerta = new JSONObject();
+            alerta.put("id_sesion", sessionId);
+            alerta.put("id_usuario", userId);
+            alerta.put("tipo_alerta", tipoAlerta);
+            alerta.put("severidad", severidad);
+            alerta.put("descripcion", descripcion);
+            alerta.put("contexto", contexto);
+            alerta.put("detected_at", detectedAt);
+            putUploadAuth(alerta, userId, token != null);
+            if (!alertLane.enqueue(UPLOAD_ALERT, alerta)) {
+                ApiService.sendAlerta(sessionId, userId, tipoAlerta, severidad,
+                        descripcion, contexto, detectedAt, token, uploadCallback(UPLOAD_ALERT, "alerta", null, -1));
+            }
 
         } catch (Exception e) {
             Log.e("ALERT", "Error al preparar alerta: " + e.toString());
         }
     }
 
-    private String calculateSeverity(String walkingSpeed) {
+    /**
+     * Sin una cadencia confiable la velocidad sale de un solo intervalo entre
+     * pasos: no alcanza para marcar la alerta como "alta".
+     */
+    private String calculateSeverity(String walkingSpeed, float cadenceConfidence) {
         switch (walkingSpeed) {
             case "Lenta":
                 return "baja";
             case "Normal":
                 return "media";
             case "Rapida":
-                return "alta";
+                return cadenceConfidence >= CadenceEstimator.MIN_CONFIDENCE ? "alta" : "media";
             default:
                 return "baja";
         }
     }
 
     public int getStepCount() {
-        return stepCount;
+        return pipeline.getStepCount();
     }
 
     public int getTotalAlerts() {
-        return totalAlerts;
+        return pipeline.getTotalAlerts();
     }
 
     private void initializeSession() {
@@ -1209,8 +1702,9 @@ public class MainActivity extends AppCompatActivity
                         preferencesManager.setSessionId(sessionId);
                         preferencesManager.setSessionStart(System.currentTimeMillis());
 
-                        // Reiniciar estado de detección de pasos para nueva sesión
-                        resetStepDetection();
+                        // Reiniciar estado de detección de pasos para nueva sesión.
+                        // El estado pertenece al hilo de sensores, no al hilo del callback
+                        runOnSensorThread(() -> resetStepDetection());
 
                         Log.i("SESSION", String.format(
                                 "Sesión iniciada exitosamente: %d (Usuario: %s)",
@@ -1228,42 +1722,20 @@ public class MainActivity extends AppCompatActivity
         });
     }
 
+    /**
+     * Ejecuta una tarea en el hilo de procesamiento de sensores, dueño del estado
+     * de detección. Si el hilo ya terminó, la tarea se descarta.
+     */
+    private void runOnSensorThread(Runnable task) {
+        Handler handler = sensorHandler;
+        if (handler != null) {
+            handler.post(task);
+        }
+    }
+
     private void resetStepDetection() {
-        accBuffer = new float[SAMPLE_SIZE];
-        bufferIndex = 0;
-        samplesCollected = 0;
-        bufferReady = false;
-
-        // Reiniciar warm-up
-        detectionStartTime = 0;
-
-        // Reiniciar filtros
-        gravity = new float[3]; // Reiniciar vector de gravedad
-        accFiltered = 0;
-        accMean = 0.0f; // Reiniciar a 0 (se inicializa con verticalAcc)
-
-        // Reiniciar detección de picos
-        aboveThreshold = false;
-        lastPeakValue = 0;
-        lastStepTime = 0;
-
-        // Reiniciar contadores
-        stepCount = 0;
-        isWalking = false;
-        walkingSpeed = "Ninguna";
-        currentVariance = 0.0f;
-
-        // Reiniciar métricas avanzadas
-        verticalAcc = 0.0f;
-        dynamicThreshold = 0.0f;
-        stdDev = 0.0f;
-
-        // Reiniciar ventana de validación
-        recentStepTimes = new long[STEPS_WINDOW];
-        stepTimeIndex = 0;
-
-        // Reiniciar alertas
-        totalAlerts = 0;
+        // Pasos, estado de caminata y alertas
+        pipeline.resetStepDetection();
 
         // Reiniciar throttling de envío de datos
         lastDataSendTime = 0;
@@ -1343,7 +1815,33 @@ public class MainActivity extends AppCompatActivity
         // El flag isFinalizingSession previene llamadas duplicadas
         finalizeSession();
 
-        sensorManager.unregisterListener(this);
+        runOnSensorThread(this::stopMeasuringNow);
+
+        if (screenStateReceiver != null) {
+            unregisterReceiver(screenStateReceiver);
+            screenStateReceiver = null;
+        }
+
+        if (traceDumpReceiver != null) {
+            unregisterReceiver(traceDumpReceiver);
+            traceDumpReceiver = null;
+        }
+
+        choreographer.removeFrameCallback(uiFrameCallback);
+
+        // Cerrar la grabación, guardar las muestras pendientes en la cola de
+        // subida y cerrarla en el hilo de sensores, antes de terminarlo
+        runOnSensorThread(this::stopSensorRecordingNow);
+        runOnSensorThread(telemetryUploader::flush);
+        runOnSensorThread(this::closeUploadQueues);
+
+        // Terminar el hilo de sensores después de procesar los eventos pendientes
+        if (sensorThread != null) {
+            sensorThread.quitSafely();
+            sensorThread = null;
+            sensorHandler = null;
+        }
+
         if (alertSound != null) {
             alertSound.release();
             alertSound = null;
@@ -0,0 +1,96 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Perfil de rendimiento: las perillas que fijan el costo de CPU, batería y red
+ * (Java puro).
+ *
+ * Cada perfil es inmutable, así que cambiar de perfil es reemplazar una sola
+ * referencia: MainActivity la guarda en un campo volatile que el hilo de
+ * sensores lee sin locks en cada evento, y aplica el perfil nuevo (registro de
+ * sensores, ventana del detector, envío) en cuanto lo ve. Se elige en Ajustes y
+ * se guarda con {@link PreferencesManager}, sin recompilar la app.
+ *
+ * {@link #STANDARD} reproduce los valores fijos anteriores (50 Hz, ventana de
+ * 25 muestras, una muestra de telemetría por segundo, lotes de 2 s, warm-up
+ * de 2 s); las muestras se suben en lotes de hasta 60 o cada minuto.
+ */
+public enum PerformanceProfile {
+    // Menos muestras y envíos: detección más gruesa, alertas algo más tardías
+    BATTERY_SAVER("battery_saver", 40_000, 100_000, 5_000_000, 5000, 3000, 60, 300_000),
+    // Equilibrio por defecto
+    STANDARD("standard", 20_000, 40_000, 2_000_000, 1000, 2000, 60, 60_000),
+    // Máxima fidelidad para estudios: 100 Hz y envíos frecuentes
+    RESEARCH("research", 10_000, 20_000, 1_000_000, 250, 2000, 240, 60_000);
+
+    // Ventana del umbral dinámico de StepDetector, en tiempo (~1 paso)
+    public static final long STEP_WINDOW_MS = 500;
+    private static final int MIN_STEP_WINDOW_SIZE = 8;
+
+    // Clave guardada en las preferencias (no cambia si se renombra la constante)
+    public final String key;
+    // Periodo de muestreo caminando (ACTIVE, SCREEN_OFF_WALKING) y quieto
+    public final int activeSamplingPeriodUs;
+    public final int idleSamplingPeriodUs;
+    // maxReportLatencyUs cuando el modo por lotes está activo
+    public final int batchLatencyUs;
+    // Intervalo mínimo entre muestras de telemetría
+    public final long dataSendIntervalMs;
+    public final long warmUpTimeMs;
+    // Lotes de TelemetryUploader: muestras por envío y espera máxima de una muestra
+    public final int uploadBatchSize;
+    public final long uploadMaxDelayMs;
+
+    PerformanceProfile(String key, int activeSamplingPeriodUs, int idleSamplingPeriodUs,
+            int batchLatencyUs, long dataSendIntervalMs, long warmUpTimeMs,
+            int uploadBatchSize, long uploadMaxDelayMs) {
+        this.key = key;
+        this.activeSamplingPeriodUs = activeSamplingPeriodUs;
+        this.idleSamplingPeriodUs = idleSamplingPeriodUs;
+        this.batchLatencyUs = batchLatencyUs;
+        this.dataSendIntervalMs = dataSendIntervalMs;
+        this.warmUpTimeMs = warmUpTimeMs;
+        this.uploadBatchSize = uploadBatchSize;
+        this.uploadMaxDelayMs = uploadMaxDelayMs;
+    }
+
+    /**
+     * Periodo de muestreo del acelerómetro para un modo del controlador de frecuencia.
+     */
+    public int getSamplingPeriodUs(SamplingRateController.Mode mode) {
+        switch (mode) {
+            case ACTIVE:
+            case SCREEN_OFF_WALKING:
+                return activeSamplingPeriodUs;
+            default:
+                return idleSamplingPeriodUs;
+        }
+    }
+
+    /**
+     * Muestras de la ventana de StepDetector: {@link #STEP_WINDOW_MS} a la
+     * frecuencia de caminata (25 con el perfil estándar).
+     */
+    public int getStepWindowSize() {
+        return Math.max(MIN_STEP_WINDOW_SIZE, (int) (STEP_WINDOW_MS * 1000 / activeSamplingPeriodUs));
+    }
+
+    /**
+     * Perfil guardado con esa clave; {@link #STANDARD} si no existe.
+     */
+    public static PerformanceProfile fromKey(String key) {
+        for (PerformanceProfile profile : values()) {
+            if (profile.key.equals(key)) {
+                return profile;
+            }
+        }
+        return STANDARD;
+    }
+
+    public String describe() {
+        return String.format("Perfil: %s | Caminando: %dHz | Quieto: %dHz | Ventana: %d | Lotes: %dms"
+                + " | Envío: %dms | Warm-up: %dms | Subida: %d muestras o %ds",
+                this, 1_000_000 / activeSamplingPeriodUs, 1_000_000 / idleSamplingPeriodUs,
+                getStepWindowSize(), batchLatencyUs / 1000, dataSendIntervalMs, warmUpTimeMs,
+                uploadBatchSize, uploadMaxDelayMs / 1000);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Detección de uso del teléfono sin funciones trigonométricas (Java puro).
+ *
+ * Equivalencias usadas (ángulos en [0°, 90°), todas sin sqrt/atan2):
+ * - |pitch| en (min, max), con pitch = atan2(x, √(y² + z²)):
+ *   tan²(min)·(y² + z²) < x² < tan²(max)·(y² + z²)
+ * - |roll| en (min, max), con roll = atan2(y, z) y max < 90°:
+ *   z > 0 y tan²(min)·z² < y² < tan²(max)·z²
+ * - |gyro| > umbral: gx² + gy² + gz² > umbral²
+ * Los tan² se precalculan en el constructor.
+ *
+ * El estado se estabiliza con histéresis (para salir de "orientado" o "giro
+ * activo" hay que cruzar una banda más amplia que para entrar) y con un tiempo
+ * mínimo de permanencia: el candidato debe mantenerse distinto del estado
+ * actual durante {@link #DEFAULT_MIN_DWELL_NS} antes de cambiarlo.
+ * {@link #onSample} devuelve true solo cuando el estado cambia.
+ *
+ * No es thread-safe: se usa desde el hilo de sensores.
+ */
+public class PhoneUsageDetector {
+
+    public static final float DEFAULT_GYRO_THRESHOLD = 0.2f; // rad/s para entrar
+    public static final float DEFAULT_GYRO_RELEASE = 0.15f; // rad/s para salir
+    public static final float DEFAULT_TILT_MIN_DEG = 20.0f;
+    public static final float DEFAULT_TILT_MAX_DEG = 85.0f;
+    public static final float DEFAULT_TILT_HYSTERESIS_DEG = 5.0f;
+    public static final long DEFAULT_MIN_DWELL_NS = 300_000_000L; // 300 ms
+
+    // El límite superior de la banda de salida no puede llegar a 90° (tan → ∞)
+    private static final float MAX_TILT_DEG = 89.0f;
+
+    private final float gyroEnterSq;
+    private final float gyroExitSq;
+    private final float tanSqEnterMin, tanSqEnterMax;
+    private final float tanSqExitMin, tanSqExitMax;
+    private final long minDwellNs;
+
+    private boolean usingPhone = false;
+    private boolean oriented = false;
+    private boolean gyroActive = false;
+    private boolean candidate = false;
+    private boolean pending = false;
+    private long pendingSince = 0;
+    private float gyroMagnitudeSq = 0f;
+    private int stateChanges = 0;
+
+    public PhoneUsageDetector() {
+        this(DEFAULT_GYRO_THRESHOLD, DEFAULT_GYRO_RELEASE, DEFAULT_TILT_MIN_DEG,
+                DEFAULT_TILT_MAX_DEG, DEFAULT_TILT_HYSTERESIS_DEG, DEFAULT_MIN_DWELL_NS);
+    }
+
+    public PhoneUsageDetector(float gyroThreshold, float gyroRelease, float tiltMinDeg,
+            float tiltMaxDeg, float tiltHysteresisDeg, long minDwellNs) {
+        if (tiltMinDeg < 0 || tiltMaxDeg >= 90 || tiltMinDeg >= tiltMaxDeg) {
+            throw new IllegalArgumentException(
+                    "Banda de inclinación inválida: " + tiltMinDeg + "° - " + tiltMaxDeg + "°");
+        }
+        gyroEnterSq = gyroThreshold * gyroThreshold;
+        gyroExitSq = gyroRelease * gyroRelease;
+        tanSqEnterMin = tanSq(tiltMinDeg);
+        tanSqEnterMax = tanSq(tiltMaxDeg);
+        tanSqExitMin = tanSq(Math.max(0f, tiltMinDeg - tiltHysteresisDeg));
+        tanSqExitMax = tanSq(Math.min(MAX_TILT_DEG, tiltMaxDeg + tiltHysteresisDeg));
+        this.minDwellNs = minDwellNs;
+    }
+
+    private static float tanSq(float degrees) {
+        double tan = Math.tan(Math.toRadians(degrees));
+        return (float) (tan * tan);
+    }
+
+    /**
+     * Evalúa una muestra.
+     *
+     * @param tiltX..tiltZ vector usado para la orientación (gravedad o aceleración)
+     * @param now          timestamp de la muestra en nanosegundos
+     * @return true si {@link #isUsingPhone()} cambió con esta muestra
+     */
+    public boolean onSample(float gyroX, float gyroY, float gyroZ,
+            float tiltX, float tiltY, float tiltZ, long now) {
+        gyroMagnitudeSq = gyroX * gyroX + gyroY * gyroY + gyroZ * gyroZ;
+        gyroActive = gyroMagnitudeSq > (gyroActive ? gyroExitSq : gyroEnterSq);
+
+        float minSq = oriented ? tanSqExitMin : tanSqEnterMin;
+        float maxSq = oriented ? tanSqExitMax : tanSqEnterMax;
+        float xSq = tiltX * tiltX;
+        float ySq = tiltY * tiltY;
+        float zSq = tiltZ * tiltZ;
+
+        // Pitch: inclinación del eje X respecto del plano YZ
+        float yzSq = ySq + zSq;
+        boolean pitchInBand = xSq > minSq * yzSq && xSq < maxSq * yzSq;
+        // Roll: giro alrededor de X, solo con la pantalla hacia arriba (z > 0)
+        boolean rollInBand = tiltZ > 0 && ySq > minSq * zSq && ySq < maxSq * zSq;
+        oriented = pitchInBand || rollInBand;
+
+        candidate = gyroActive || oriented;
+        if (candidate == usingPhone) {
+            pending = false;
+            return false;
+        }
+        if (!pending) {
+            pending = true;
+            pendingSince = now;
+        }
+        if (now - pendingSince < minDwellNs) {
+            return false;
+        }
+
+        usingPhone = candidate;
+        pending = false;
+        stateChanges++;
+        return true;
+    }
+
+    public boolean isUsingPhone() {
+        return usingPhone;
+    }
+
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    public boolean isGyroActive() {
+        return gyroActive;
+    }
+
+    /**
+     * Estado crudo de la última muestra, antes del tiempo mínimo de permanencia.
+     */
+    public boolean isCandidate() {
+        return candidate;
+    }
+
+    public float getGyroMagnitudeSq() {
+        return gyroMagnitudeSq;
+    }
+
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    public void reset() {
+        usingPhone = false;
+        oriented = false;
+        gyroActive = false;
+        candidate = false;
+        pending = false;
+        pendingSince = 0;
+        gyroMagnitudeSq = 0f;
+        stateChanges = 0;
+    }
+}
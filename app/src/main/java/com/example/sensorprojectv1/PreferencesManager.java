@@ -18,6 +18,10 @@ public class PreferencesManager {
     private static final String KEY_DEVICE_UUID = "device_uuid";
     private static final String KEY_SESSION_ID = "session_id";
     private static final String KEY_SESSION_START = "session_start";
+    private static final String KEY_SENSOR_BATCHING = "sensor_batching";
+    private static final String KEY_HARDWARE_STEP_DETECTOR = "hardware_step_detector";
+    private static final String KEY_STEP_COMPARISON = "step_comparison";
+    private static final String KEY_PERFORMANCE_PROFILE = "performance_profile";
 
     private SharedPreferences preferences;
 
@@ -41,6 +45,39 @@ public class PreferencesManager {
         return preferences.getBoolean(KEY_VIBRATION_ALERT, true);
     }
 
+    public void setSensorBatchingEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_SENSOR_BATCHING, enabled).apply();
+    }
+
+    public boolean isSensorBatchingEnabled() {
+        return preferences.getBoolean(KEY_SENSOR_BATCHING, false);
+    }
+
+    public void setHardwareStepDetectorEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_HARDWARE_STEP_DETECTOR, enabled).apply();
+    }
+
+    public boolean isHardwareStepDetectorEnabled() {
+        return preferences.getBoolean(KEY_HARDWARE_STEP_DETECTOR, true);
+    }
+
+    public void setStepComparisonEnabled(boolean enabled) {
+        preferences.edit().putBoolean(KEY_STEP_COMPARISON, enabled).apply();
+    }
+
+    public boolean isStepComparisonEnabled() {
+        return preferences.getBoolean(KEY_STEP_COMPARISON, false);
+    }
+
+    public void setPerformanceProfile(PerformanceProfile profile) {
+        preferences.edit().putString(KEY_PERFORMANCE_PROFILE, profile.key).apply();
+    }
+
+    public PerformanceProfile getPerformanceProfile() {
+        return PerformanceProfile.fromKey(preferences.getString(KEY_PERFORMANCE_PROFILE,
+                PerformanceProfile.STANDARD.key));
+    }
+
     public void setParticipateEnabled(boolean enabled) {
         preferences.edit().putBoolean(KEY_PARTICIPATE, enabled).apply();
     }
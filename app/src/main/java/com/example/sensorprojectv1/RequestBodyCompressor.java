@@ -0,0 +1,211 @@
+package com.example.sensorprojectv1;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresión opcional de los cuerpos de las peticiones (Java puro).
+ *
+ * Cada endpoint se activa explícitamente con {@link #setEnabled}: el servidor
+ * tiene que aceptar Content-Encoding: deflate en esa ruta. Los cuerpos menores
+ * que {@link #getMinBytes()} se envían tal cual (la cabecera zlib y el costo
+ * de CPU no se recuperan). El cuerpo se escribe a la conexión a través de un
+ * DeflaterOutputStream, sin copia intermedia, y los Deflater se reutilizan
+ * desde un pool pequeño en lugar de crear uno (con sus ~256 KB nativos) por
+ * petición.
+ *
+ * Por endpoint se cuentan los bytes originales y los que salieron a la red,
+ * para confirmar el ahorro en conexiones medidas ({@link #describeMetrics()}).
+ *
+ * Thread-safe: ApiService lo usa desde los hilos de red.
+ */
+public class RequestBodyCompressor {
+
+    // Formato zlib (RFC 1950), el que HTTP llama "deflate"
+    public static final String CONTENT_ENCODING = "deflate";
+    public static final int DEFAULT_MIN_BYTES = 1024;
+    static final int MAX_POOLED_DEFLATERS = 4;
+    private static final int BUFFER_BYTES = 8 * 1024;
+
+    /**
+     * Totales de un endpoint.
+     */
+    public static class Stats {
+        public long requests;
+        public long compressedRequests;
+        // Solo de las peticiones comprimidas: antes y después de comprimir
+        public long originalBytes;
+        public long wireBytes;
+        public long skippedBytes;
+
+        /**
+         * Bytes en la red sobre bytes originales de las peticiones comprimidas.
+         */
+        public double getRatio() {
+            return originalBytes > 0 ? (double) wireBytes / originalBytes : 1;
+        }
+    }
+
+    private final int minBytes;
+    private final int level;
+    private final Set<String> enabled = new HashSet<>();
+    private final Map<String, Stats> stats = new HashMap<>();
+    private final ArrayDeque<Deflater> pool = new ArrayDeque<>();
+    private long deflatersCreated = 0;
+
+    public RequestBodyCompressor() {
+        this(DEFAULT_MIN_BYTES, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public RequestBodyCompressor(int minBytes, int level) {
+        this.minBytes = minBytes;
+        this.level = level;
+    }
+
+    public synchronized void setEnabled(String endpoint, boolean compress) {
+        if (compress) {
+            enabled.add(endpoint);
+        } else {
+            enabled.remove(endpoint);
+        }
+    }
+
+    public synchronized boolean isEnabled(String endpoint) {
+        return enabled.contains(endpoint);
+    }
+
+    /**
+     * Si el cuerpo de ese endpoint se comprime; el llamador agrega entonces
+     * Content-Encoding: {@link #CONTENT_ENCODING} antes de abrir el stream.
+     */
+    public synchronized boolean shouldCompress(String endpoint, int bodyBytes) {
+        return bodyBytes >= minBytes && enabled.contains(endpoint);
+    }
+
+    /**
+     * Escribe el cuerpo en out, comprimido o no, y registra los tamaños. No
+     * cierra out.
+     */
+    public void write(OutputStream out, String endpoint, byte[] body, boolean compress) throws IOException {
+        if (!compress) {
+            out.write(body);
+            record(endpoint, body.length, body.length, false);
+            return;
+        }
+        CountingOutputStream counter = new CountingOutputStream(out);
+        Deflater deflater = acquire();
+        try {
+            DeflaterOutputStream deflating = new DeflaterOutputStream(counter, deflater, BUFFER_BYTES);
+            deflating.write(body);
+            deflating.finish();
+            deflating.flush();
+        } finally {
+            release(deflater);
+        }
+        record(endpoint, body.length, counter.count, true);
+    }
+
+    private synchronized Deflater acquire() {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level);
+            deflatersCreated++;
+        }
+        return deflater;
+    }
+
+    private synchronized void release(Deflater deflater) {
+        if (pool.size() < MAX_POOLED_DEFLATERS) {
+            deflater.reset();
+            pool.push(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    private synchronized void record(String endpoint, long original, long wire, boolean compressed) {
+        Stats s = stats.get(endpoint);
+        if (s == null) {
+            s = new Stats();
+            stats.put(endpoint, s);
+        }
+        s.requests++;
+        if (compressed) {
+            s.compressedRequests++;
+            s.originalBytes += original;
+            s.wireBytes += wire;
+        } else {
+            s.skippedBytes += original;
+        }
+    }
+
+    /**
+     * Copia de los totales de un endpoint (vacía si no hubo peticiones).
+     */
+    public synchronized Stats getStats(String endpoint) {
+        Stats copy = new Stats();
+        Stats s = stats.get(endpoint);
+        if (s != null) {
+            copy.requests = s.requests;
+            copy.compressedRequests = s.compressedRequests;
+            copy.originalBytes = s.originalBytes;
+            copy.wireBytes = s.wireBytes;
+            copy.skippedBytes = s.skippedBytes;
+        }
+        return copy;
+    }
+
+    public synchronized long getDeflatersCreated() {
+        return deflatersCreated;
+    }
+
+    public int getMinBytes() {
+        return minBytes;
+    }
+
+    /**
+     * Resumen para el log: por endpoint, peticiones comprimidas y bytes antes/después.
+     */
+    public synchronized String describeMetrics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Deflaters: ").append(deflatersCreated);
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            sb.append(String.format(" | %s: %d/%d comprimidas, %d -> %d bytes (%.0f%%), %d sin comprimir",
+                    entry.getKey(), s.compressedRequests, s.requests, s.originalBytes, s.wireBytes,
+                    100 * s.getRatio(), s.skippedBytes));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cuenta los bytes comprimidos que llegan a la conexión.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
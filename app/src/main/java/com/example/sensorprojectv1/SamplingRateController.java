@@ -0,0 +1,170 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Decide la frecuencia de muestreo de los sensores según el estado de detección
+ * y el de la pantalla (Java puro, sin dependencias de Android).
+ *
+ * - Con el usuario quieto, isUsingPhone no influye en ninguna alerta: el
+ *   giroscopio se apaga y el acelerómetro baja a una frecuencia gruesa.
+ * - Con la pantalla apagada el giroscopio tampoco importa; el acelerómetro se
+ *   mantiene grueso mientras no aparezcan pasos candidatos. Al apagarla
+ *   desde ACTIVE solo se sigue a frecuencia normal si esa actividad fueron
+ *   pasos; si era apenas el arranque tras encender la pantalla, se baja.
+ * - Un pico candidato a paso vuelve a subir la frecuencia de inmediato; la
+ *   bajada solo ocurre tras {@link #IDLE_DELAY_NS} sin actividad (histéresis).
+ *
+ * El controlador solo decide: quien lo usa consulta {@link #getMode()} cuando
+ * {@link #onSample} devuelve true y vuelve a registrar los sensores. Los
+ * periodos de cada modo son los del perfil estándar; el perfil de rendimiento
+ * activo ({@link #setProfile}) fija los reales en {@link #getSamplingPeriodUs()}.
+ * No es thread-safe: se usa desde el hilo de sensores.
+ */
+public class SamplingRateController {
+
+    public enum Mode {
+        // Periodos del perfil estándar (ver PerformanceProfile)
+        // Pantalla encendida y en movimiento: detección completa
+        ACTIVE(20_000, true),
+        // Pantalla encendida, sin pasos: solo vigilar el inicio de una caminata
+        STATIONARY(40_000, false),
+        // Pantalla apagada, caminando: pasos a frecuencia normal, sin giroscopio
+        SCREEN_OFF_WALKING(20_000, false),
+        // Pantalla apagada y sin pasos: mínimo consumo
+        SCREEN_OFF_IDLE(40_000, false);
+
+        public final int samplingPeriodUs;
+        public final boolean gyroscopeEnabled;
+
+        Mode(int samplingPeriodUs, boolean gyroscopeEnabled) {
+            this.samplingPeriodUs = samplingPeriodUs;
+            this.gyroscopeEnabled = gyroscopeEnabled;
+        }
+
+        /**
+         * Frecuencia nominal de muestreo en Hz (perfil estándar).
+         */
+        public int getSamplingRateHz() {
+            return 1_000_000 / samplingPeriodUs;
+        }
+    }
+
+    // Tiempo sin pasos candidatos antes de bajar la frecuencia
+    public static final long IDLE_DELAY_NS = 10_000_000_000L; // 10 segundos
+
+    private Mode mode = Mode.ACTIVE;
+    private PerformanceProfile profile = PerformanceProfile.STANDARD;
+    private boolean screenOn = true;
+    private boolean hasActivity = false;
+    private long lastActivityTime = 0;
+    // Hubo pasos candidatos desde que se encendió la pantalla (la primera
+    // muestra marca actividad pero no es un paso)
+    private boolean stepSeen = false;
+
+    private final int[] transitionsInto = new int[Mode.values().length];
+    private int totalTransitions = 0;
+
+    /**
+     * Actualiza el controlador con el estado de detección de la última muestra.
+     *
+     * @param now            timestamp de la muestra en nanosegundos
+     * @param stepActivity   true si hay un pico candidato en curso o se detectó un paso
+     * @return true si el modo cambió y hay que volver a registrar los sensores
+     */
+    public boolean onSample(long now, boolean stepActivity) {
+        if (stepActivity || !hasActivity) {
+            // La primera muestra cuenta como actividad para no bajar antes de IDLE_DELAY_NS
+            hasActivity = true;
+            lastActivityTime = now;
+        }
+        if (stepActivity) {
+            stepSeen = true;
+        }
+
+        boolean idle = now - lastActivityTime > IDLE_DELAY_NS;
+        Mode target;
+        if (screenOn) {
+            target = idle ? Mode.STATIONARY : Mode.ACTIVE;
+        } else {
+            target = idle || !stepSeen ? Mode.SCREEN_OFF_IDLE : Mode.SCREEN_OFF_WALKING;
+        }
+        return switchTo(target);
+    }
+
+    /**
+     * Notifica un cambio de pantalla (ACTION_SCREEN_ON / ACTION_SCREEN_OFF).
+     *
+     * @return true si el modo cambió y hay que volver a registrar los sensores
+     */
+    public boolean setScreenOn(boolean on) {
+        screenOn = on;
+        Mode target;
+        if (on) {
+            // Al encender la pantalla se asume uso inminente: detección completa
+            target = Mode.ACTIVE;
+            hasActivity = false;
+            stepSeen = false;
+        } else if (mode == Mode.ACTIVE || mode == Mode.SCREEN_OFF_WALKING) {
+            target = stepSeen ? Mode.SCREEN_OFF_WALKING : Mode.SCREEN_OFF_IDLE;
+        } else {
+            target = Mode.SCREEN_OFF_IDLE;
+        }
+        return switchTo(target);
+    }
+
+    private boolean switchTo(Mode target) {
+        if (target == mode) {
+            return false;
+        }
+        mode = target;
+        transitionsInto[target.ordinal()]++;
+        totalTransitions++;
+        return true;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setProfile(PerformanceProfile profile) {
+        this.profile = profile;
+    }
+
+    public PerformanceProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Periodo de muestreo del modo actual según el perfil de rendimiento.
+     */
+    public int getSamplingPeriodUs() {
+        return profile.getSamplingPeriodUs(mode);
+    }
+
+    public boolean isScreenOn() {
+        return screenOn;
+    }
+
+    public int getTransitionCount(Mode into) {
+        return transitionsInto[into.ordinal()];
+    }
+
+    public int getTotalTransitions() {
+        return totalTransitions;
+    }
+
+    /**
+     * Resumen de métricas para el log: modo, perfil, frecuencia y transiciones por modo.
+     */
+    public String describeMetrics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Modo: ").append(mode)
+                .append(" | Perfil: ").append(profile)
+                .append(" | Acc: ").append(1_000_000 / getSamplingPeriodUs()).append("Hz")
+                .append(" | Gyro: ").append(mode.gyroscopeEnabled ? "ON" : "OFF")
+                .append(" | Transiciones: ").append(totalTransitions);
+        for (Mode m : Mode.values()) {
+            sb.append(" | ").append(m).append(": ").append(transitionsInto[m.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
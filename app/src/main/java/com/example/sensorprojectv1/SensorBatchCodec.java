@@ -0,0 +1,440 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario por columnas para los lotes de telemetría (sin dependencias
+ * de Android salvo org.json).
+ *
+ * El JSON de un lote repite en cada muestra las ~20 claves de
+ * {@link SensorPayload#toJson()} y escribe cada float como texto decimal. Aquí
+ * el lote se guarda campo por campo, con el esquema fijo de la versión:
+ * - floats cuantizados a enteros (milésimas para los sensores) y guardados
+ *   como diferencia con la muestra anterior, en varint zigzag;
+ * - enteros (pasos, brillo) y recorded_at también como diferencia en varint:
+ *   con una muestra por segundo cada timestamp ocupa 2 bytes;
+ * - booleanos como bits;
+ * - battery_status con un diccionario por lote y un índice por muestra.
+ *
+ * Se envía con {@link #CONTENT_TYPE}; si el servidor no lo acepta (415),
+ * ApiService vuelve al JSON. {@link #decode} reconstruye el mismo JSONArray que
+ * enviaría el camino JSON (con id_sesion en cada muestra y los floats
+ * redondeados a la escala de su columna), para un servidor de prueba local o
+ * para el propio servidor.
+ *
+ * Cabecera: "SBC" + versión (1 byte), id de sesión y cantidad de muestras
+ * (varint). No es thread-safe: cada hilo usa su instancia.
+ */
+public class SensorBatchCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.sensorproject.batch+columnar";
+    public static final byte VERSION = 1;
+    private static final byte[] MAGIC = { 'S', 'B', 'C' };
+
+    // La comparación con JSON (bytes y tiempo) se mide 1 de cada N lotes
+    public static final int JSON_COMPARE_EVERY = 10;
+
+    private enum Kind { FLOAT, INT, BOOL, FLAG, ENUM, TIME }
+
+    private static class Column {
+        final String key;
+        final Kind kind;
+        final double scale;
+
+        Column(String key, Kind kind, double scale) {
+            this.key = key;
+            this.kind = kind;
+            this.scale = scale;
+        }
+    }
+
+    private static Column floatColumn(String key, double scale) {
+        return new Column(key, Kind.FLOAT, scale);
+    }
+
+    private static Column column(String key, Kind kind) {
+        return new Column(key, kind, 1);
+    }
+
+    // Esquema de la versión 1: mismas claves y orden que SensorPayload.toJson()
+    private static final Column[] SCHEMA = {
+            floatColumn("acc_x", 1000),
+            floatColumn("acc_y", 1000),
+            floatColumn("acc_z", 1000),
+            floatColumn("gyro_x", 1000),
+            floatColumn("gyro_y", 1000),
+            floatColumn("gyro_z", 1000),
+            column("is_walking", Kind.BOOL),
+            column("is_using_phone", Kind.BOOL),
+            column("is_walking_using_phone", Kind.FLAG),
+            column("step_count", Kind.INT),
+            floatColumn("vertical_acceleration", 1000),
+            floatColumn("gravity_x", 1000),
+            floatColumn("gravity_y", 1000),
+            floatColumn("gravity_z", 1000),
+            floatColumn("dynamic_threshold", 1000),
+            floatColumn("std_dev", 1000),
+            floatColumn("battery_level", 10),
+            column("battery_status", Kind.ENUM),
+            column("screen_brightness", Kind.INT),
+            column("screen_on", Kind.BOOL),
+            column("recorded_at", Kind.TIME),
+    };
+
+    /**
+     * Lote decodificado.
+     */
+    public static class Batch {
+        public final long sessionId;
+        public final JSONArray samples;
+
+        Batch(long sessionId, JSONArray samples) {
+            this.sessionId = sessionId;
+            this.samples = samples;
+        }
+    }
+
+    private final int jsonCompareEvery;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryOrder = new ArrayList<>();
+
+    // Métricas
+    private long batches = 0;
+    private long samples = 0;
+    private long binaryBytes = 0;
+    private long encodeNs = 0;
+    private long comparedBatches = 0;
+    private long comparedBinaryBytes = 0;
+    private long comparedJsonBytes = 0;
+    private long comparedBinaryNs = 0;
+    private long comparedJsonNs = 0;
+
+    public SensorBatchCodec() {
+        this(JSON_COMPARE_EVERY);
+    }
+
+    /**
+     * @param jsonCompareEvery cada cuántos lotes se mide el JSON equivalente
+     *                         (0: nunca, para los benchmarks)
+     */
+    public SensorBatchCodec(int jsonCompareEvery) {
+        this.jsonCompareEvery = jsonCompareEvery;
+    }
+
+    /**
+     * Codifica las muestras (JSONObject de {@link SensorPayload#toJson()}).
+     * Las claves que falten se codifican como 0, false o sin valor.
+     */
+    public byte[] encode(long sessionId, JSONArray batch) {
+        long started = System.nanoTime();
+        int count = batch.length();
+        out.reset();
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+        writeVarint(sessionId);
+        writeVarint(count);
+
+        for (Column column : SCHEMA) {
+            switch (column.kind) {
+                case BOOL:
+                case FLAG:
+                    writeBits(batch, column);
+                    break;
+                case ENUM:
+                    writeEnum(batch, column.key);
+                    break;
+                default:
+                    writeDeltas(batch, column);
+            }
+        }
+        byte[] encoded = out.toByteArray();
+        long elapsed = System.nanoTime() - started;
+
+        batches++;
+        samples += count;
+        binaryBytes += encoded.length;
+        encodeNs += elapsed;
+        if (jsonCompareEvery > 0 && (batches - 1) % jsonCompareEvery == 0) {
+            compareWithJson(sessionId, batch, encoded.length, elapsed);
+        }
+        return encoded;
+    }
+
+    private void writeDeltas(JSONArray batch, Column column) {
+        long previous = 0;
+        for (int i = 0; i < batch.length(); i++) {
+            JSONObject sample = batch.optJSONObject(i);
+            long value;
+            if (sample == null) {
+                value = 0;
+            } else if (column.kind == Kind.FLOAT) {
+                value = Math.round(sample.optDouble(column.key, 0) * column.scale);
+            } else {
+                value = sample.optLong(column.key, 0);
+            }
+            writeVarint(zigzag(value - previous));
+            previous = value;
+        }
+    }
+
+    private void writeBits(JSONArray batch, Column column) {
+        int bits = 0;
+        int used = 0;
+        for (int i = 0; i < batch.length(); i++) {
+            JSONObject sample = batch.optJSONObject(i);
+            boolean value = sample != null && (column.kind == Kind.FLAG
+                    ? sample.optInt(column.key, 0) != 0
+                    : sample.optBoolean(column.key, false));
+            if (value) {
+                bits |= 1 << used;
+            }
+            if (++used == 8) {
+                out.write(bits);
+                bits = 0;
+                used = 0;
+            }
+        }
+        if (used > 0) {
+            out.write(bits);
+        }
+    }
+
+    /**
+     * Diccionario del lote (varint + textos UTF-8) y un índice por muestra;
+     * el índice 0 es "sin valor".
+     */
+    private void writeEnum(JSONArray batch, String key) {
+        dictionary.clear();
+        dictionaryOrder.clear();
+        int count = batch.length();
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            JSONObject sample = batch.optJSONObject(i);
+            String value = sample != null && sample.has(key) ? sample.optString(key, null) : null;
+            if (value == null) {
+                continue;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = dictionaryOrder.size() + 1;
+                dictionary.put(value, index);
+                dictionaryOrder.add(value);
+            }
+            indexes[i] = index;
+        }
+        writeVarint(dictionaryOrder.size());
+        for (String value : dictionaryOrder) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        for (int index : indexes) {
+            writeVarint(index);
+        }
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reconstruye las muestras con las claves y tipos del camino JSON.
+     *
+     * @throws IllegalArgumentException si no es un lote válido de esta versión
+     */
+    public static Batch decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            for (byte expected : MAGIC) {
+                if (in.get() != expected) {
+                    throw new IllegalArgumentException("No es un lote por columnas");
+                }
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Versión no soportada: " + version);
+            }
+            long sessionId = readVarint(in);
+            long count = readVarint(in);
+            // Cada muestra ocupa al menos un byte por columna de enteros
+            if (count < 0 || count > data.length) {
+                throw new IllegalArgumentException("Cantidad de muestras inválida: " + count);
+            }
+
+            JSONObject[] objects = new JSONObject[(int) count];
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = new JSONObject();
+                objects[i].put("id_sesion", sessionId);
+            }
+            for (Column column : SCHEMA) {
+                switch (column.kind) {
+                    case BOOL:
+                    case FLAG:
+                        readBits(in, column, objects);
+                        break;
+                    case ENUM:
+                        readEnum(in, column.key, objects);
+                        break;
+                    default:
+                        readDeltas(in, column, objects);
+                }
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Sobran " + in.remaining() + " bytes");
+            }
+
+            JSONArray samples = new JSONArray();
+            for (JSONObject object : objects) {
+                samples.put(object);
+            }
+            return new Batch(sessionId, samples);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Lote incompleto", e);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void readDeltas(ByteBuffer in, Column column, JSONObject[] objects) throws JSONException {
+        long value = 0;
+        for (JSONObject object : objects) {
+            value += unzigzag(readVarint(in));
+            if (column.kind == Kind.FLOAT) {
+                object.put(column.key, value / column.scale);
+            } else if (column.kind == Kind.TIME) {
+                object.put(column.key, value);
+            } else {
+                object.put(column.key, (int) value);
+            }
+        }
+    }
+
+    private static void readBits(ByteBuffer in, Column column, JSONObject[] objects) throws JSONException {
+        int bits = 0;
+        for (int i = 0; i < objects.length; i++) {
+            if (i % 8 == 0) {
+                bits = in.get() & 0xFF;
+            }
+            boolean value = (bits & (1 << (i % 8))) != 0;
+            if (column.kind == Kind.FLAG) {
+                objects[i].put(column.key, value ? 1 : 0);
+            } else {
+                objects[i].put(column.key, value);
+            }
+        }
+    }
+
+    private static void readEnum(ByteBuffer in, String key, JSONObject[] objects) throws JSONException {
+        long size = readVarint(in);
+        if (size < 0 || size > in.remaining()) {
+            throw new IllegalArgumentException("Diccionario inválido: " + size);
+        }
+        String[] values = new String[(int) size];
+        for (int i = 0; i < values.length; i++) {
+            long length = readVarint(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException("Texto inválido en el diccionario");
+            }
+            byte[] bytes = new byte[(int) length];
+            in.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        for (JSONObject object : objects) {
+            long index = readVarint(in);
+            if (index < 0 || index > values.length) {
+                throw new IllegalArgumentException("Índice fuera del diccionario: " + index);
+            }
+            if (index > 0) {
+                object.put(key, values[(int) index - 1]);
+            }
+        }
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    /**
+     * Mide lo que habría costado el mismo lote por el camino JSON (el arreglo
+     * con id_sesion en cada muestra, serializado a UTF-8).
+     */
+    private void compareWithJson(long sessionId, JSONArray batch, int encodedBytes, long encodedNs) {
+        long started = System.nanoTime();
+        int jsonBytes = batch.toString().getBytes(StandardCharsets.UTF_8).length
+                + batch.length() * (",\"id_sesion\":".length() + Long.toString(sessionId).length());
+        long jsonNs = System.nanoTime() - started;
+
+        comparedBatches++;
+        comparedBinaryBytes += encodedBytes;
+        comparedJsonBytes += jsonBytes;
+        comparedBinaryNs += encodedNs;
+        comparedJsonNs += jsonNs;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getBinaryBytes() {
+        return binaryBytes;
+    }
+
+    /**
+     * Bytes del binario sobre bytes del JSON en los lotes comparados (0 sin datos).
+     */
+    public double getSizeRatio() {
+        return comparedJsonBytes > 0 ? (double) comparedBinaryBytes / comparedJsonBytes : 0;
+    }
+
+    /**
+     * Resumen para el log: tamaño y tiempo de codificación frente al JSON.
+     */
+    public String describeMetrics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Lotes: ").append(batches)
+                .append(" | Muestras: ").append(samples)
+                .append(" | Bytes: ").append(binaryBytes);
+        if (samples > 0) {
+            sb.append(String.format(" | %.1f B/muestra | %.1f µs/lote",
+                    (double) binaryBytes / samples, encodeNs / 1000.0 / batches));
+        }
+        if (comparedBatches > 0) {
+            sb.append(String.format(" | vs JSON: %.0f%% de los bytes, %.1f µs vs %.1f µs por lote (%d lotes)",
+                    100 * getSizeRatio(), comparedBinaryNs / 1000.0 / comparedBatches,
+                    comparedJsonNs / 1000.0 / comparedBatches, comparedBatches));
+        }
+        return sb.toString();
+    }
+}
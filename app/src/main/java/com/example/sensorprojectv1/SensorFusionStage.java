@@ -0,0 +1,206 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Etapa de fusión acelerómetro/giroscopio alineada por timestamp (Java puro).
+ *
+ * El acelerómetro es el reloj de referencia: cada muestra suya puede generar
+ * una muestra combinada, como máximo una por periodo de salida. El giroscopio
+ * se alinea al timestamp de esa muestra interpolando linealmente entre las dos
+ * lecturas que la rodean (o con la última lectura si todavía no llegó una
+ * posterior). Los eventos del giroscopio solo actualizan el estado: no
+ * disparan trabajo aguas abajo.
+ *
+ * Así los detectores posteriores corren una vez por muestra combinada, con
+ * valores de ambos sensores del mismo instante, en lugar de una vez por evento
+ * de cualquiera de los dos.
+ *
+ * No reserva memoria por muestra: la muestra combinada se reutiliza y el
+ * listener no debe conservarla. No es thread-safe: se usa desde el hilo de sensores.
+ */
+public class SensorFusionStage {
+
+    /**
+     * Muestra combinada reutilizable. Los valores de gravedad solo son válidos
+     * si la fuente de sensores es fusionada.
+     */
+    public static class FusedSample {
+        public float accX, accY, accZ;
+        public float gravityX, gravityY, gravityZ;
+        public float gyroX, gyroY, gyroZ;
+        public long timestampNs;
+    }
+
+    public interface Listener {
+        void onFusedSample(FusedSample sample);
+    }
+
+    private final Listener listener;
+    private final FusedSample sample = new FusedSample();
+    private long outputPeriodNs;
+    // Tolerancia al jitter de los timestamps para no saltear salidas
+    private long minOutputSpacingNs;
+
+    private boolean hasOutput = false;
+    private long lastOutputTime = 0;
+
+    private boolean gyroscopeEnabled = true;
+    private int gyroSamples = 0; // Lecturas válidas en prev/latest (0, 1 o 2)
+    private float prevGyroX, prevGyroY, prevGyroZ;
+    private long prevGyroTime;
+    private float lastGyroX, lastGyroY, lastGyroZ;
+    private long lastGyroTime;
+
+    private long accelerometerEventsIn = 0;
+    private long gyroscopeEventsIn = 0;
+    private long samplesOut = 0;
+    private long interpolatedSamples = 0;
+
+    /**
+     * @param outputPeriodNs separación mínima entre muestras combinadas; 0 = una
+     *                       por cada muestra del acelerómetro
+     */
+    public SensorFusionStage(long outputPeriodNs, Listener listener) {
+        this.listener = listener;
+        setOutputPeriodNs(outputPeriodNs);
+    }
+
+    public void setOutputPeriodNs(long outputPeriodNs) {
+        if (outputPeriodNs < 0) {
+            throw new IllegalArgumentException("El periodo de salida no puede ser negativo: " + outputPeriodNs);
+        }
+        this.outputPeriodNs = outputPeriodNs;
+        this.minOutputSpacingNs = outputPeriodNs - outputPeriodNs / 8;
+    }
+
+    /**
+     * Con el giroscopio apagado se usa velocidad angular cero en vez de la última lectura.
+     */
+    public void setGyroscopeEnabled(boolean enabled) {
+        gyroscopeEnabled = enabled;
+        if (!enabled) {
+            gyroSamples = 0;
+        }
+    }
+
+    public void onGyroscope(float x, float y, float z, long timestampNs) {
+        gyroscopeEventsIn++;
+        if (!gyroscopeEnabled) {
+            return;
+        }
+        prevGyroX = lastGyroX;
+        prevGyroY = lastGyroY;
+        prevGyroZ = lastGyroZ;
+        prevGyroTime = lastGyroTime;
+        lastGyroX = x;
+        lastGyroY = y;
+        lastGyroZ = z;
+        lastGyroTime = timestampNs;
+        if (gyroSamples < 2) {
+            gyroSamples++;
+        }
+    }
+
+    /**
+     * Muestra del acelerómetro (aceleración equivalente y gravedad de la fuente).
+     *
+     * @return true si se emitió una muestra combinada
+     */
+    public boolean onAccelerometer(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        accelerometerEventsIn++;
+        if (hasOutput && timestampNs - lastOutputTime < minOutputSpacingNs) {
+            return false;
+        }
+
+        sample.accX = accX;
+        sample.accY = accY;
+        sample.accZ = accZ;
+        sample.gravityX = gravityX;
+        sample.gravityY = gravityY;
+        sample.gravityZ = gravityZ;
+        sample.timestampNs = timestampNs;
+        alignGyroscope(timestampNs);
+
+        hasOutput = true;
+        lastOutputTime = timestampNs;
+        samplesOut++;
+        listener.onFusedSample(sample);
+        return true;
+    }
+
+    private void alignGyroscope(long t) {
+        if (gyroSamples == 0) {
+            sample.gyroX = 0;
+            sample.gyroY = 0;
+            sample.gyroZ = 0;
+        } else if (gyroSamples == 2 && prevGyroTime <= t && t < lastGyroTime) {
+            // La muestra del acelerómetro cae entre dos lecturas: interpolar
+            float f = (float) (t - prevGyroTime) / (lastGyroTime - prevGyroTime);
+            sample.gyroX = prevGyroX + (lastGyroX - prevGyroX) * f;
+            sample.gyroY = prevGyroY + (lastGyroY - prevGyroY) * f;
+            sample.gyroZ = prevGyroZ + (lastGyroZ - prevGyroZ) * f;
+            interpolatedSamples++;
+        } else if (gyroSamples == 2 && t < prevGyroTime) {
+            sample.gyroX = prevGyroX;
+            sample.gyroY = prevGyroY;
+            sample.gyroZ = prevGyroZ;
+        } else {
+            // El giroscopio todavía no entregó una lectura posterior: mantener la última
+            sample.gyroX = lastGyroX;
+            sample.gyroY = lastGyroY;
+            sample.gyroZ = lastGyroZ;
+        }
+    }
+
+    /**
+     * Última muestra combinada emitida (o ceros si todavía no hubo ninguna).
+     */
+    public FusedSample getLatestSample() {
+        return sample;
+    }
+
+    public boolean hasOutput() {
+        return hasOutput;
+    }
+
+    public long getOutputPeriodNs() {
+        return outputPeriodNs;
+    }
+
+    public long getAccelerometerEventsIn() {
+        return accelerometerEventsIn;
+    }
+
+    public long getGyroscopeEventsIn() {
+        return gyroscopeEventsIn;
+    }
+
+    public long getSamplesOut() {
+        return samplesOut;
+    }
+
+    public long getInterpolatedSamples() {
+        return interpolatedSamples;
+    }
+
+    public void reset() {
+        hasOutput = false;
+        lastOutputTime = 0;
+        gyroSamples = 0;
+        accelerometerEventsIn = 0;
+        gyroscopeEventsIn = 0;
+        samplesOut = 0;
+        interpolatedSamples = 0;
+    }
+
+    /**
+     * Resumen de contadores para el log.
+     */
+    public String describeMetrics() {
+        return "Acc in: " + accelerometerEventsIn
+                + " | Gyro in: " + gyroscopeEventsIn
+                + " | Combinadas out: " + samplesOut
+                + " | Interpoladas: " + interpolatedSamples
+                + " | Periodo: " + (outputPeriodNs / 1_000_000L) + "ms";
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Datos de una muestra de telemetría para el servidor (sin dependencias de Android
+ * salvo org.json).
+ *
+ * MainActivity reutiliza una sola instancia: copia aquí la última muestra de
+ * los sensores, el estado de la detección y la información del dispositivo, y
+ * {@link #toJson()} arma el JSONObject con las claves que espera el servidor.
+ * Separarlo de la actividad permite medir el armado del payload en la JVM.
+ */
+public class SensorPayload {
+
+    public float accX, accY, accZ;
+    public float gyroX, gyroY, gyroZ;
+
+    public boolean walking;
+    public boolean usingPhone;
+    public boolean walkingAndUsingPhone;
+    public int stepCount;
+
+    // hasGravity: verticalAcc y gravity* son válidos; hasStepSignals:
+    // dynamicThreshold y stdDev también. Sin ellos las claves no se envían
+    public boolean hasGravity;
+    public boolean hasStepSignals;
+    public float verticalAcc;
+    public float gravityX, gravityY, gravityZ;
+    public float dynamicThreshold;
+    public float stdDev;
+
+    public float batteryLevel;
+    public String batteryStatus;
+    public int screenBrightness;
+    public boolean screenOn;
+
+    public long recordedAt;
+
+    /**
+     * Copia el estado de la detección y las señales internas del detector de
+     * pasos activo. Con los pasos del sensor hub el detector de picos no
+     * corre: la vertical y la gravedad salen de la etapa de fusión (si la
+     * gravedad es del sensor fusionado) y umbral y desvío no se envían.
+     */
+    public void setDetection(DetectionPipeline pipeline) {
+        walking = pipeline.isWalking();
+        usingPhone = pipeline.isUsingPhone();
+        walkingAndUsingPhone = pipeline.isWalkingAndUsingPhone();
+        stepCount = pipeline.getStepCount();
+
+        StepDetector stepDetector = pipeline.getActiveStepDetector();
+        if (stepDetector != null) {
+            hasGravity = true;
+            hasStepSignals = true;
+            verticalAcc = stepDetector.getVerticalAcc();
+            gravityX = stepDetector.getGravityX();
+            gravityY = stepDetector.getGravityY();
+            gravityZ = stepDetector.getGravityZ();
+            dynamicThreshold = stepDetector.getDynamicThreshold();
+            stdDev = stepDetector.getStdDev();
+            return;
+        }
+
+        hasStepSignals = false;
+        SensorFusionStage fusion = pipeline.getFusionStage();
+        hasGravity = pipeline.hasFusedGravity() && fusion.hasOutput();
+        if (hasGravity) {
+            SensorFusionStage.FusedSample sample = fusion.getLatestSample();
+            gravityX = sample.gravityX;
+            gravityY = sample.gravityY;
+            gravityZ = sample.gravityZ;
+            verticalAcc = verticalAcceleration(sample);
+        }
+    }
+
+    /**
+     * Aceleración lineal proyectada sobre la gravedad, como la calcula StepDetector.
+     */
+    private static float verticalAcceleration(SensorFusionStage.FusedSample sample) {
+        float gravityMagnitude = (float) Math.sqrt(sample.gravityX * sample.gravityX
+                + sample.gravityY * sample.gravityY + sample.gravityZ * sample.gravityZ);
+        if (gravityMagnitude < 0.1f) {
+            return 0f;
+        }
+        return ((sample.accX - sample.gravityX) * sample.gravityX
+                + (sample.accY - sample.gravityY) * sample.gravityY
+                + (sample.accZ - sample.gravityZ) * sample.gravityZ) / gravityMagnitude;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+
+        // Datos de acelerómetro y giroscopio
+        json.put("acc_x", accX);
+        json.put("acc_y", accY);
+        json.put("acc_z", accZ);
+        json.put("gyro_x", gyroX);
+        json.put("gyro_y", gyroY);
+        json.put("gyro_z", gyroZ);
+
+        // Estado de detección
+        json.put("is_walking", walking);
+        json.put("is_using_phone", usingPhone);
+        json.put("is_walking_using_phone", walkingAndUsingPhone ? 1 : 0);
+        json.put("step_count", stepCount);
+
+        if (hasGravity) {
+            json.put("vertical_acceleration", verticalAcc); // Aceleración vertical proyectada
+            json.put("gravity_x", gravityX); // Vector de gravedad
+            json.put("gravity_y", gravityY);
+            json.put("gravity_z", gravityZ);
+        }
+        if (hasStepSignals) {
+            json.put("dynamic_threshold", dynamicThreshold); // Umbral adaptativo
+            json.put("std_dev", stdDev); // Desviación estándar
+        }
+
+        // Información del dispositivo
+        json.put("battery_level", batteryLevel);
+        json.put("battery_status", batteryStatus);
+        json.put("screen_brightness", screenBrightness);
+        json.put("screen_on", screenOn);
+
+        // Timestamp
+        json.put("recorded_at", recordedAt);
+        return json;
+    }
+}
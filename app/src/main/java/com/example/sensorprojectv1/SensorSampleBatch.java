@@ -0,0 +1,89 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Lote preasignado de muestras de un sensor de 3 ejes en arreglos paralelos,
+ * listo para pasarse completo a {@link StepDetector#addSamples}.
+ *
+ * Se usa en el modo de recolección por lotes: el FIFO del sensor entrega una
+ * ráfaga de eventos seguidos y aquí se acumulan sin procesarlos, para luego
+ * ejecutar la detección una sola vez por ráfaga.
+ *
+ * No es thread-safe: se llena y se vacía en el hilo de sensores.
+ */
+public class SensorSampleBatch {
+
+    public final float[] x;
+    public final float[] y;
+    public final float[] z;
+    // Gravedad por muestra cuando la entrega un sensor fusionado (si no, sin usar)
+    public final float[] gravityX;
+    public final float[] gravityY;
+    public final float[] gravityZ;
+    public final long[] timestamps;
+
+    private int size = 0;
+
+    public SensorSampleBatch(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        z = new float[capacity];
+        gravityX = new float[capacity];
+        gravityY = new float[capacity];
+        gravityZ = new float[capacity];
+        timestamps = new long[capacity];
+    }
+
+    /**
+     * Agrega una muestra al lote.
+     *
+     * @return false si el lote está lleno y la muestra no se agregó
+     */
+    public boolean add(float valueX, float valueY, float valueZ, long timestampNs) {
+        if (size == timestamps.length) {
+            return false;
+        }
+        x[size] = valueX;
+        y[size] = valueY;
+        z[size] = valueZ;
+        timestamps[size] = timestampNs;
+        size++;
+        return true;
+    }
+
+    /**
+     * Agrega una muestra junto con la gravedad entregada por un sensor fusionado.
+     *
+     * @return false si el lote está lleno y la muestra no se agregó
+     */
+    public boolean add(float valueX, float valueY, float valueZ,
+            float gravX, float gravY, float gravZ, long timestampNs) {
+        if (!add(valueX, valueY, valueZ, timestampNs)) {
+            return false;
+        }
+        int index = size - 1;
+        gravityX[index] = gravX;
+        gravityY[index] = gravY;
+        gravityZ[index] = gravZ;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    public long getLastTimestamp() {
+        return size > 0 ? timestamps[size - 1] : 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
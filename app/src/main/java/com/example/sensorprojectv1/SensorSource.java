@@ -0,0 +1,273 @@
+package com.example.sensorprojectv1;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+
+/**
+ * Origen de las muestras de movimiento usadas por la detección.
+ *
+ * Prefiere los sensores fusionados de la plataforma, que separan la gravedad en
+ * el propio sensor hub, y así se omite el filtro low-pass de gravedad por
+ * software de {@link StepDetector}:
+ * 1. FUSED_GRAVITY: TYPE_GRAVITY + TYPE_LINEAR_ACCELERATION (sin acelerómetro crudo)
+ * 2. FUSED_ROTATION_VECTOR: TYPE_ROTATION_VECTOR (gravedad = tercera fila de la
+ *    matriz de rotación × g) + TYPE_ACCELEROMETER
+ * 3. SOFTWARE: solo TYPE_ACCELEROMETER, con el filtro de gravedad por software
+ *    (ruta original, se usa como respaldo)
+ *
+ * Las rutas fusionadas solo se usan si los sensores vienen del sensor hub. En
+ * muchos dispositivos TYPE_GRAVITY, TYPE_LINEAR_ACCELERATION y
+ * TYPE_ROTATION_VECTOR son sensores virtuales de la fusión del framework
+ * (fabricante "AOSP"), que leen el giroscopio por su cuenta: lo mantendrían
+ * encendido aunque el modo de muestreo lo apague. En ese caso se usa SOFTWARE.
+ *
+ * Cualquiera sea la ruta, cada muestra se entrega como aceleración equivalente
+ * a la del acelerómetro (lineal + gravedad) más el vector de gravedad, para que
+ * la UI, el historial y el envío de datos no dependan de la ruta activa.
+ *
+ * No es thread-safe: los eventos se procesan en el hilo de sensores.
+ */
+public class SensorSource {
+
+    public enum Path {
+        FUSED_GRAVITY("Fusionado (gravedad + aceleración lineal)"),
+        FUSED_ROTATION_VECTOR("Fusionado (vector de rotación + acelerómetro)"),
+        SOFTWARE("Software (acelerómetro + filtro de gravedad)");
+
+        public final String label;
+
+        Path(String label) {
+            this.label = label;
+        }
+    }
+
+    // Fabricante de los sensores virtuales de la fusión del framework (sensorservice)
+    private static final String FRAMEWORK_FUSION_VENDOR = "AOSP";
+
+    private final SensorManager sensorManager;
+    private final Path path;
+    // Por qué se eligió la ruta, para el log
+    private final String reason;
+    // Sensor cuyos eventos generan una muestra (LINEAR_ACCELERATION o ACCELEROMETER)
+    private final Sensor motionSensor;
+    // Sensor que aporta la gravedad (GRAVITY o ROTATION_VECTOR); null en SOFTWARE
+    private final Sensor gravitySensor;
+    private final Sensor gyroscopeSensor;
+    // Detector de pasos del sensor hub (TYPE_STEP_DETECTOR), si existe
+    private final Sensor stepDetectorSensor;
+
+    private final float[] rotationMatrix = new float[9];
+    private float gravityX, gravityY, gravityZ;
+    private boolean hasGravity = false;
+    private float accX, accY, accZ;
+
+    private SensorSource(SensorManager sensorManager, Path path, String reason, Sensor motionSensor,
+            Sensor gravitySensor, Sensor gyroscopeSensor) {
+        this.sensorManager = sensorManager;
+        this.path = path;
+        this.reason = reason;
+        this.motionSensor = motionSensor;
+        this.gravitySensor = gravitySensor;
+        this.gyroscopeSensor = gyroscopeSensor;
+        this.stepDetectorSensor = sensorManager.getDefaultSensor(Sensor.TYPE_STEP_DETECTOR);
+    }
+
+    /**
+     * Elige la mejor ruta disponible en este dispositivo.
+     */
+    public static SensorSource select(SensorManager sensorManager) {
+        Sensor gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+        Sensor gravity = sensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
+        Sensor linear = sensorManager.getDefaultSensor(Sensor.TYPE_LINEAR_ACCELERATION);
+        String reason;
+        if (gravity == null || linear == null) {
+            reason = "sin TYPE_GRAVITY/TYPE_LINEAR_ACCELERATION";
+        } else if (isFrameworkFusion(gravity) || isFrameworkFusion(linear)) {
+            reason = "TYPE_GRAVITY/TYPE_LINEAR_ACCELERATION de la fusión del framework (usan el giroscopio)";
+        } else {
+            return new SensorSource(sensorManager, Path.FUSED_GRAVITY, "gravedad del sensor hub",
+                    linear, gravity, gyroscope);
+        }
+
+        Sensor accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        Sensor rotation = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        if (rotation == null || accelerometer == null) {
+            reason += "; sin TYPE_ROTATION_VECTOR";
+        } else if (isFrameworkFusion(rotation)) {
+            reason += "; TYPE_ROTATION_VECTOR de la fusión del framework (usa el giroscopio)";
+        } else {
+            return new SensorSource(sensorManager, Path.FUSED_ROTATION_VECTOR, reason,
+                    accelerometer, rotation, gyroscope);
+        }
+
+        return new SensorSource(sensorManager, Path.SOFTWARE, reason, accelerometer, null, gyroscope);
+    }
+
+    /**
+     * true si el sensor es virtual, calculado por la fusión del framework con
+     * acelerómetro + giroscopio (+ magnetómetro), y no por el sensor hub.
+     */
+    static boolean isFrameworkFusion(Sensor sensor) {
+        return isFrameworkFusion(sensor.getVendor(), sensor.getName());
+    }
+
+    static boolean isFrameworkFusion(String vendor, String name) {
+        return FRAMEWORK_FUSION_VENDOR.equalsIgnoreCase(vendor)
+                || (name != null && name.startsWith(FRAMEWORK_FUSION_VENDOR + " "));
+    }
+
+    /**
+     * Registra los sensores de la ruta activa. El llamador debe haber quitado
+     * antes cualquier registro previo del listener.
+     */
+    public void register(SensorEventListener listener, int samplingPeriodUs, int maxReportLatencyUs,
+            Handler handler, boolean gyroscopeEnabled, boolean stepDetectorEnabled) {
+        if (stepDetectorSensor != null && stepDetectorEnabled) {
+            // Sensor de disparo especial: el periodo se ignora, cada paso es un evento
+            sensorManager.registerListener(listener, stepDetectorSensor,
+                    SensorManager.SENSOR_DELAY_NORMAL, maxReportLatencyUs, handler);
+        }
+        if (gyroscopeSensor != null && gyroscopeEnabled) {
+            sensorManager.registerListener(listener, gyroscopeSensor, samplingPeriodUs,
+                    maxReportLatencyUs, handler);
+        }
+        if (gravitySensor != null) {
+            sensorManager.registerListener(listener, gravitySensor, samplingPeriodUs,
+                    maxReportLatencyUs, handler);
+        }
+        if (motionSensor != null) {
+            sensorManager.registerListener(listener, motionSensor, samplingPeriodUs,
+                    maxReportLatencyUs, handler);
+        }
+    }
+
+    /**
+     * true si todos los sensores de la ruta tienen FIFO en hardware.
+     */
+    public boolean supportsBatching() {
+        return hasFifo(motionSensor)
+                && (gravitySensor == null || hasFifo(gravitySensor))
+                && (gyroscopeSensor == null || hasFifo(gyroscopeSensor));
+    }
+
+    private static boolean hasFifo(Sensor sensor) {
+        return sensor != null && sensor.getFifoMaxEventCount() > 0;
+    }
+
+    /**
+     * Procesa un evento de los sensores de movimiento (no del giroscopio).
+     *
+     * @return true si el evento completó una muestra, disponible en
+     *         {@link #getAccX()}..{@link #getGravityZ()}
+     */
+    public boolean onMotionEvent(SensorEvent event) {
+        Sensor sensor = event.sensor;
+        float[] values = event.values;
+
+        if (sensor == gravitySensor) {
+            if (path == Path.FUSED_GRAVITY) {
+                gravityX = values[0];
+                gravityY = values[1];
+                gravityZ = values[2];
+            } else {
+                // La tercera fila de R es el eje vertical del mundo en coordenadas del teléfono
+                SensorManager.getRotationMatrixFromVector(rotationMatrix, values);
+                gravityX = rotationMatrix[6] * SensorManager.GRAVITY_EARTH;
+                gravityY = rotationMatrix[7] * SensorManager.GRAVITY_EARTH;
+                gravityZ = rotationMatrix[8] * SensorManager.GRAVITY_EARTH;
+            }
+            hasGravity = true;
+            return false;
+        }
+
+        if (sensor != motionSensor) {
+            return false;
+        }
+
+        if (path == Path.FUSED_GRAVITY) {
+            if (!hasGravity) {
+                return false; // Sin gravedad todavía no se puede reconstruir la muestra
+            }
+            accX = values[0] + gravityX;
+            accY = values[1] + gravityY;
+            accZ = values[2] + gravityZ;
+        } else {
+            if (path == Path.FUSED_ROTATION_VECTOR && !hasGravity) {
+                return false;
+            }
+            accX = values[0];
+            accY = values[1];
+            accZ = values[2];
+        }
+        return true;
+    }
+
+    /**
+     * true si la gravedad viene de un sensor fusionado y no debe estimarse por software.
+     */
+    public boolean isFused() {
+        return path != Path.SOFTWARE;
+    }
+
+    public boolean hasHardwareStepDetector() {
+        return stepDetectorSensor != null;
+    }
+
+    public boolean hasMotionSensor() {
+        return motionSensor != null;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public float getAccX() {
+        return accX;
+    }
+
+    public float getAccY() {
+        return accY;
+    }
+
+    public float getAccZ() {
+        return accZ;
+    }
+
+    public float getGravityX() {
+        return gravityX;
+    }
+
+    public float getGravityY() {
+        return gravityY;
+    }
+
+    public float getGravityZ() {
+        return gravityZ;
+    }
+
+    /**
+     * Descripción de la ruta activa y de los sensores usados, para el log.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ruta: ").append(path).append(" - ").append(path.label)
+                .append(" (").append(reason).append(")");
+        appendSensor(sb, "Movimiento", motionSensor);
+        appendSensor(sb, "Gravedad", gravitySensor);
+        appendSensor(sb, "Giroscopio", gyroscopeSensor);
+        appendSensor(sb, "Detector de pasos", stepDetectorSensor);
+        return sb.toString();
+    }
+
+    private static void appendSensor(StringBuilder sb, String role, Sensor sensor) {
+        sb.append(" | ").append(role).append(": ");
+        if (sensor == null) {
+            sb.append("NO");
+        } else {
+            sb.append(sensor.getName()).append(" (").append(sensor.getVendor()).append(")");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.sensorprojectv1;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Grabación binaria de las muestras que recibe la detección (Java puro).
+ *
+ * Guarda lo que entrega {@link SensorSource} (aceleración equivalente +
+ * gravedad), el giroscopio y los pasos del sensor hub, con su timestamp, para
+ * reproducirlos después con {@link SensorTraceReplayer}.
+ *
+ * Formato (little-endian):
+ * - Cabecera de {@link #HEADER_BYTES} bytes: magic "STRC", versión (short),
+ *   flags (short, bit 0 = gravedad fusionada, bit 1 = modo por lotes), hora
+ *   de inicio (long, ms) y clave del perfil de rendimiento (ASCII, completada
+ *   con ceros hasta {@link #PROFILE_KEY_BYTES}). Perfil y lotes son los del
+ *   inicio de la grabación: con ellos se reproduce con la misma ventana,
+ *   warm-up y entrega
+ * - Registros: tipo (byte) + timestamp (long, ns) + datos
+ *   - MOTION: accX, accY, accZ, gravityX, gravityY, gravityZ (float)
+ *   - GYROSCOPE: x, y, z (float)
+ *   - HARDWARE_STEP: sin datos
+ *   - GYROSCOPE_STATE: 1 = giroscopio encendido, 0 = apagado (byte)
+ *
+ * Costo acotado en el hilo de sensores: cada registro se copia a un
+ * ByteBuffer directo preasignado y solo se escribe al FileChannel cuando se
+ * llena (por defecto 64 KB, ~20 s a 100 eventos/s). Al alcanzar el tamaño
+ * máximo del archivo deja de grabar. Un error de E/S detiene la grabación y
+ * queda disponible en {@link #getError()}; nunca se propaga a la detección.
+ *
+ * No es thread-safe: se graba desde el hilo de sensores.
+ */
+public class SensorTraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x43525453; // "STRC" en little-endian
+    static final short VERSION = 2;
+    static final int PROFILE_KEY_BYTES = 16;
+    static final int HEADER_BYTES = 16 + PROFILE_KEY_BYTES;
+    static final short FLAG_FUSED_GRAVITY = 1;
+    static final short FLAG_BATCHING = 2;
+
+    static final byte TYPE_MOTION = 1;
+    static final byte TYPE_GYROSCOPE = 2;
+    static final byte TYPE_HARDWARE_STEP = 3;
+    static final byte TYPE_GYROSCOPE_STATE = 4;
+
+    static final int MOTION_BYTES = 1 + 8 + 6 * 4;
+    static final int GYROSCOPE_BYTES = 1 + 8 + 3 * 4;
+    static final int HARDWARE_STEP_BYTES = 1 + 8;
+    static final int GYROSCOPE_STATE_BYTES = 1 + 8 + 1;
+
+    public static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024; // ~5 h a 100 eventos/s
+
+    private final File file;
+    private final FileOutputStream output;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long maxBytes;
+
+    private long bytesWritten;
+    private long records = 0;
+    private boolean full = false;
+    private boolean closed = false;
+    private IOException error;
+
+    private SensorTraceRecorder(File file, FileOutputStream output, int bufferBytes, long maxBytes) {
+        this.file = file;
+        this.output = output;
+        this.channel = output.getChannel();
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.maxBytes = maxBytes;
+    }
+
+    public static SensorTraceRecorder open(File file, boolean fusedGravity, PerformanceProfile profile,
+            boolean batching) throws IOException {
+        return open(file, fusedGravity, profile, batching, System.currentTimeMillis(),
+                DEFAULT_BUFFER_BYTES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Crea (o trunca) el archivo y escribe la cabecera.
+     */
+    public static SensorTraceRecorder open(File file, boolean fusedGravity, PerformanceProfile profile,
+            boolean batching, long startTimeMs, int bufferBytes, long maxBytes) throws IOException {
+        if (bufferBytes < MOTION_BYTES || maxBytes < HEADER_BYTES) {
+            throw new IllegalArgumentException("Buffer o tamaño máximo demasiado chicos: "
+                    + bufferBytes + " / " + maxBytes);
+        }
+        SensorTraceRecorder recorder = new SensorTraceRecorder(file, new FileOutputStream(file),
+                bufferBytes, maxBytes);
+        short flags = (short) ((fusedGravity ? FLAG_FUSED_GRAVITY : 0) | (batching ? FLAG_BATCHING : 0));
+        recorder.buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort(flags)
+                .putLong(startTimeMs);
+        byte[] key = profile.key.getBytes(StandardCharsets.US_ASCII);
+        recorder.buffer.put(key, 0, Math.min(key.length, PROFILE_KEY_BYTES));
+        for (int i = key.length; i < PROFILE_KEY_BYTES; i++) {
+            recorder.buffer.put((byte) 0);
+        }
+        recorder.bytesWritten = HEADER_BYTES;
+        return recorder;
+    }
+
+    public void recordMotion(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        if (!reserve(MOTION_BYTES)) {
+            return;
+        }
+        buffer.put(TYPE_MOTION).putLong(timestampNs)
+                .putFloat(accX).putFloat(accY).putFloat(accZ)
+                .putFloat(gravityX).putFloat(gravityY).putFloat(gravityZ);
+    }
+
+    public void recordGyroscope(float x, float y, float z, long timestampNs) {
+        if (!reserve(GYROSCOPE_BYTES)) {
+            return;
+        }
+        buffer.put(TYPE_GYROSCOPE).putLong(timestampNs).putFloat(x).putFloat(y).putFloat(z);
+    }
+
+    public void recordHardwareStep(long timestampNs) {
+        if (!reserve(HARDWARE_STEP_BYTES)) {
+            return;
+        }
+        buffer.put(TYPE_HARDWARE_STEP).putLong(timestampNs);
+    }
+
+    /**
+     * El muestreo adaptativo enciende y apaga el giroscopio; la reproducción
+     * necesita saberlo para alinear igual que en vivo.
+     */
+    public void recordGyroscopeEnabled(boolean enabled, long timestampNs) {
+        if (!reserve(GYROSCOPE_STATE_BYTES)) {
+            return;
+        }
+        buffer.put(TYPE_GYROSCOPE_STATE).putLong(timestampNs).put(enabled ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Deja lugar para un registro, escribiendo el buffer si hace falta.
+     *
+     * @return false si la grabación terminó (cerrada, llena o con error)
+     */
+    private boolean reserve(int bytes) {
+        if (closed || full || error != null) {
+            return false;
+        }
+        if (bytesWritten + bytes > maxBytes) {
+            full = true;
+            return false;
+        }
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (error != null) {
+                return false;
+            }
+        }
+        bytesWritten += bytes;
+        records++;
+        return true;
+    }
+
+    /**
+     * Escribe al archivo lo acumulado en el buffer.
+     */
+    public void flush() {
+        if (closed || error != null) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        output.close();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Bytes del archivo incluyendo la cabecera y lo que todavía está en el buffer.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * true si se alcanzó el tamaño máximo y se dejó de grabar.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public IOException getError() {
+        return error;
+    }
+
+    public String describe() {
+        return file.getName() + " | Registros: " + records
+                + " | Bytes: " + bytesWritten
+                + (full ? " | LLENO" : "")
+                + (error != null ? " | Error: " + error.getMessage() : "");
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.sensorprojectv1;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reproduce una grabación de {@link SensorTraceRecorder} a toda velocidad
+ * (Java puro).
+ *
+ * Cada grabación pasa por un {@link DetectionPipeline} nuevo, el mismo código
+ * que procesa los eventos en vivo, configurado con el perfil de rendimiento y
+ * el modo por lotes de la cabecera, sin esperar entre muestras: sirve para
+ * reproducir reportes de campo, como prueba de regresión y para medir el costo
+ * de la detección. El resultado resume pasos, alertas y transiciones de estado.
+ *
+ * Se lee el archivo por bloques con un FileChannel; un registro incompleto al
+ * final (la app se cerró a mitad de escritura) se descarta y se informa.
+ */
+public class SensorTraceReplayer {
+
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+    // Como el lote de MainActivity; una ráfaga del FIFO se corta además al
+    // cubrir la latencia de lotes del perfil
+    private static final int BURST_CAPACITY = 256;
+
+    /**
+     * Recibe cada cambio de estado de la detección durante la reproducción.
+     */
+    public interface TransitionListener {
+        void onTransition(long timestampNs, DetectionStatus.State from, DetectionStatus.State to);
+    }
+
+    public static class Report {
+        public boolean fusedGravity;
+        public boolean batching;
+        public PerformanceProfile profile;
+        public long startTimeMs;
+        public long motionSamples;
+        public long gyroscopeSamples;
+        public long hardwareSteps;
+        public int steps;
+        public int alerts;
+        public int stateTransitions;
+        public int phoneUsageChanges;
+        public long firstTimestampNs;
+        public long lastTimestampNs;
+        public long elapsedNs;
+        public boolean truncated;
+
+        /**
+         * Duración cubierta por la grabación.
+         */
+        public long getDurationNs() {
+            return lastTimestampNs - firstTimestampNs;
+        }
+
+        /**
+         * Cuántas veces más rápido que el tiempo real corrió la reproducción.
+         */
+        public double getSpeedFactor() {
+            return elapsedNs > 0 ? (double) getDurationNs() / elapsedNs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Perfil: %s%s | Duración: %.1fs | Movimiento: %d | Giroscopio: %d"
+                    + " | Pasos HW: %d | Pasos: %d | Alertas: %d | Transiciones: %d"
+                    + " | Cambios uso teléfono: %d | Procesado en %.1fms (x%.0f)%s",
+                    profile.key, batching ? " (lotes)" : "", getDurationNs() / 1e9, motionSamples, gyroscopeSamples, hardwareSteps,
+                    steps, alerts, stateTransitions, phoneUsageChanges,
+                    elapsedNs / 1e6, getSpeedFactor(), truncated ? " | TRUNCADO" : "");
+        }
+    }
+
+    private final boolean useHardwareSteps;
+    private TransitionListener transitionListener;
+
+    /**
+     * @param useHardwareSteps true para contar los pasos grabados del sensor hub
+     *                         en lugar de detectarlos por software
+     */
+    public SensorTraceReplayer(boolean useHardwareSteps) {
+        this.useHardwareSteps = useHardwareSteps;
+    }
+
+    public void setTransitionListener(TransitionListener transitionListener) {
+        this.transitionListener = transitionListener;
+    }
+
+    public Report replay(File file) throws IOException {
+        try (FileInputStream input = new FileInputStream(file)) {
+            return replay(input.getChannel());
+        }
+    }
+
+    public Report replay(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        Report report = new Report();
+        readHeader(channel, buffer, report);
+
+        StepDetector stepDetector = new StepDetector();
+        stepDetector.configure(report.profile.getStepWindowSize(), report.profile.warmUpTimeMs);
+        StepSource stepSource = useHardwareSteps
+                ? new HardwareStepSource()
+                : new SoftwareStepSource(stepDetector, report.fusedGravity);
+        ReplayListener listener = new ReplayListener(report);
+        DetectionPipeline pipeline = new DetectionPipeline(stepDetector, stepSource, report.fusedGravity,
+                new DetectionTrace(1, DetectionTrace.LEVEL_OFF),
+                DetectionPipeline.DEFAULT_FUSION_PERIOD_NS, listener);
+        listener.pipeline = pipeline;
+        pipeline.setBatching(report.batching);
+        SensorSampleBatch burst = report.batching ? new SensorSampleBatch(BURST_CAPACITY) : null;
+        long burstLatencyNs = report.profile.batchLatencyUs * 1000L;
+
+        long started = System.nanoTime();
+        boolean first = true;
+        boolean eof = false;
+        long records = 0;
+        while (true) {
+            if (!eof && buffer.remaining() < SensorTraceRecorder.MOTION_BYTES) {
+                buffer.compact();
+                eof = fill(channel, buffer);
+                buffer.flip();
+            }
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+
+            byte type = buffer.get(buffer.position());
+            int size = recordSize(type);
+            if (size < 0) {
+                throw new IOException("Tipo de registro desconocido " + type
+                        + " después de " + records + " registros");
+            }
+            if (buffer.remaining() < size) {
+                report.truncated = true;
+                break;
+            }
+
+            buffer.get(); // tipo
+            long t = buffer.getLong();
+            records++;
+            if (first) {
+                report.firstTimestampNs = t;
+                first = false;
+            }
+            report.lastTimestampNs = t;
+
+            switch (type) {
+                case SensorTraceRecorder.TYPE_MOTION:
+                    report.motionSamples++;
+                    if (burst == null) {
+                        pipeline.onMotionSample(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+                                buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), t);
+                    } else {
+                        addToBurst(pipeline, burst, burstLatencyNs, buffer, t);
+                    }
+                    break;
+                case SensorTraceRecorder.TYPE_GYROSCOPE:
+                    report.gyroscopeSamples++;
+                    pipeline.onGyroscope(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), t);
+                    break;
+                case SensorTraceRecorder.TYPE_HARDWARE_STEP:
+                    report.hardwareSteps++;
+                    pipeline.onHardwareStep(t);
+                    break;
+                default:
+                    pipeline.setGyroscopeEnabled(buffer.get() != 0);
+                    break;
+            }
+        }
+        if (burst != null) {
+            pipeline.onMotionBurst(burst);
+        }
+        report.elapsedNs = System.nanoTime() - started;
+
+        report.steps = pipeline.getStepCount();
+        report.alerts = pipeline.getTotalAlerts();
+        report.phoneUsageChanges = pipeline.getPhoneUsageDetector().getStateChanges();
+        return report;
+    }
+
+    /**
+     * Modo por lotes: las muestras se entregan como en vivo, en ráfagas que
+     * cubren la latencia de lotes del perfil (la grabación no guarda dónde
+     * cortó cada ráfaga del FIFO).
+     */
+    private static void addToBurst(DetectionPipeline pipeline, SensorSampleBatch burst, long burstLatencyNs,
+            ByteBuffer buffer, long t) {
+        float accX = buffer.getFloat();
+        float accY = buffer.getFloat();
+        float accZ = buffer.getFloat();
+        float gravityX = buffer.getFloat();
+        float gravityY = buffer.getFloat();
+        float gravityZ = buffer.getFloat();
+        if (!burst.isEmpty() && (burst.isFull() || t - burst.timestamps[0] >= burstLatencyNs)) {
+            pipeline.onMotionBurst(burst);
+            burst.clear();
+        }
+        burst.add(accX, accY, accZ, gravityX, gravityY, gravityZ, t);
+        pipeline.onBatchedMotionSample(accX, accY, accZ, gravityX, gravityY, gravityZ, t);
+    }
+
+    private static void readHeader(FileChannel channel, ByteBuffer buffer, Report report)
+            throws IOException {
+        buffer.limit(SensorTraceRecorder.HEADER_BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Archivo demasiado corto para ser una grabación de sensores");
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != SensorTraceRecorder.MAGIC) {
+            throw new IOException("No es una grabación de sensores");
+        }
+        short version = buffer.getShort();
+        if (version != SensorTraceRecorder.VERSION) {
+            throw new IOException("Versión de grabación no soportada: " + version);
+        }
+        short flags = buffer.getShort();
+        report.fusedGravity = (flags & SensorTraceRecorder.FLAG_FUSED_GRAVITY) != 0;
+        report.batching = (flags & SensorTraceRecorder.FLAG_BATCHING) != 0;
+        report.startTimeMs = buffer.getLong();
+        byte[] key = new byte[SensorTraceRecorder.PROFILE_KEY_BYTES];
+        buffer.get(key);
+        int length = 0;
+        while (length < key.length && key[length] != 0) {
+            length++;
+        }
+        report.profile = PerformanceProfile.fromKey(new String(key, 0, length, StandardCharsets.US_ASCII));
+        buffer.clear();
+        buffer.flip(); // Vacío: el primer ciclo de lectura lo llena
+    }
+
+    /**
+     * @return true si se llegó al final del archivo
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int recordSize(byte type) {
+        switch (type) {
+            case SensorTraceRecorder.TYPE_MOTION:
+                return SensorTraceRecorder.MOTION_BYTES;
+            case SensorTraceRecorder.TYPE_GYROSCOPE:
+                return SensorTraceRecorder.GYROSCOPE_BYTES;
+            case SensorTraceRecorder.TYPE_HARDWARE_STEP:
+                return SensorTraceRecorder.HARDWARE_STEP_BYTES;
+            case SensorTraceRecorder.TYPE_GYROSCOPE_STATE:
+                return SensorTraceRecorder.GYROSCOPE_STATE_BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    private class ReplayListener implements DetectionPipeline.Listener {
+        private final Report report;
+        private DetectionPipeline pipeline;
+        private DetectionStatus.State state = DetectionStatus.State.SAFE;
+
+        ReplayListener(Report report) {
+            this.report = report;
+        }
+
+        @Override
+        public void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking) {
+        }
+
+        @Override
+        public void onDetection(long timestampNs) {
+            DetectionStatus.State next = DetectionStatus.State.of(pipeline.isWalkingAndUsingPhone(),
+                    pipeline.isWalking(), pipeline.isUsingPhone());
+            if (next != state) {
+                report.stateTransitions++;
+                if (transitionListener != null) {
+                    transitionListener.onTransition(timestampNs, state, next);
+                }
+                state = next;
+            }
+        }
+
+        @Override
+        public void onAlert(long timestampNs) {
+        }
+    }
+}
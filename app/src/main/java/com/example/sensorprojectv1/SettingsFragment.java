@@ -4,7 +4,10 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.RadioGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -13,7 +16,10 @@ import androidx.fragment.app.Fragment;
 
 public class SettingsFragment extends Fragment {
 
-    private SwitchCompat switchSoundAlert, switchVibrationAlert, switchParticipate;
+    private SwitchCompat switchSoundAlert, switchVibrationAlert, switchParticipate, switchSensorBatching;
+    private SwitchCompat switchHardwareSteps, switchStepComparison;
+    private RadioGroup radioPerformanceProfile;
+    private Button btnDumpTrace;
     private TextView tvParticipateDescription;
     private PreferencesManager preferencesManager;
 
@@ -29,6 +35,11 @@ public class SettingsFragment extends Fragment {
         switchSoundAlert = view.findViewById(R.id.switchSoundAlert);
         switchVibrationAlert = view.findViewById(R.id.switchVibrationAlert);
         switchParticipate = view.findViewById(R.id.switchParticipate);
+        switchSensorBatching = view.findViewById(R.id.switchSensorBatching);
+        switchHardwareSteps = view.findViewById(R.id.switchHardwareSteps);
+        switchStepComparison = view.findViewById(R.id.switchStepComparison);
+        radioPerformanceProfile = view.findViewById(R.id.radioPerformanceProfile);
+        btnDumpTrace = view.findViewById(R.id.btnDumpTrace);
         tvParticipateDescription = view.findViewById(R.id.tvParticipateDescription);
 
         loadSettings();
@@ -48,6 +59,45 @@ public class SettingsFragment extends Fragment {
             }
         });
 
+        switchSensorBatching.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            preferencesManager.setSensorBatchingEnabled(isChecked);
+            if (getActivity() instanceof MainActivity) {
+                ((MainActivity) getActivity()).updateSensorSettings();
+            }
+        });
+
+        switchHardwareSteps.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            preferencesManager.setHardwareStepDetectorEnabled(isChecked);
+            switchStepComparison.setEnabled(isChecked);
+            if (getActivity() instanceof MainActivity) {
+                ((MainActivity) getActivity()).updateStepSourceSettings();
+            }
+        });
+
+        switchStepComparison.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            preferencesManager.setStepComparisonEnabled(isChecked);
+            if (getActivity() instanceof MainActivity) {
+                ((MainActivity) getActivity()).updateStepSourceSettings();
+            }
+        });
+
+        radioPerformanceProfile.setOnCheckedChangeListener((group, checkedId) -> {
+            PerformanceProfile profile = profileForButton(checkedId);
+            preferencesManager.setPerformanceProfile(profile);
+            if (getActivity() instanceof MainActivity) {
+                ((MainActivity) getActivity()).setPerformanceProfile(profile);
+            }
+        });
+
+        // Volcado de la traza de detección: solo en builds de depuración
+        if (getActivity() instanceof MainActivity && ((MainActivity) getActivity()).isDebuggable()) {
+            btnDumpTrace.setVisibility(View.VISIBLE);
+            btnDumpTrace.setOnClickListener(v -> {
+                ((MainActivity) getActivity()).dumpTrace(30);
+                Toast.makeText(requireContext(), R.string.settings_dump_trace_done, Toast.LENGTH_SHORT).show();
+            });
+        }
+
         switchParticipate.setOnCheckedChangeListener((buttonView, isChecked) -> {
             boolean wasParticipating = preferencesManager.isParticipateEnabled();
             preferencesManager.setParticipateEnabled(isChecked);
@@ -72,9 +122,34 @@ public class SettingsFragment extends Fragment {
         switchSoundAlert.setChecked(preferencesManager.isSoundAlertEnabled());
         switchVibrationAlert.setChecked(preferencesManager.isVibrationAlertEnabled());
         switchParticipate.setChecked(preferencesManager.isParticipateEnabled());
+        switchSensorBatching.setChecked(preferencesManager.isSensorBatchingEnabled());
+        switchHardwareSteps.setChecked(preferencesManager.isHardwareStepDetectorEnabled());
+        switchStepComparison.setChecked(preferencesManager.isStepComparisonEnabled());
+        switchStepComparison.setEnabled(preferencesManager.isHardwareStepDetectorEnabled());
+        radioPerformanceProfile.check(buttonForProfile(preferencesManager.getPerformanceProfile()));
         updateParticipateDescription(preferencesManager.isParticipateEnabled());
     }
 
+    private static PerformanceProfile profileForButton(int buttonId) {
+        if (buttonId == R.id.radioProfileBatterySaver) {
+            return PerformanceProfile.BATTERY_SAVER;
+        } else if (buttonId == R.id.radioProfileResearch) {
+            return PerformanceProfile.RESEARCH;
+        }
+        return PerformanceProfile.STANDARD;
+    }
+
+    private static int buttonForProfile(PerformanceProfile profile) {
+        switch (profile) {
+            case BATTERY_SAVER:
+                return R.id.radioProfileBatterySaver;
+            case RESEARCH:
+                return R.id.radioProfileResearch;
+            default:
+                return R.id.radioProfileStandard;
+        }
+    }
+
     private void updateParticipateDescription(boolean isParticipating) {
         if (isParticipating) {
             tvParticipateDescription.setText(R.string.settings_participate_desc);
@@ -0,0 +1,93 @@
+package com.example.sensorprojectv1;
+
+import java.util.Arrays;
+
+/**
+ * Media, varianza y desviación estándar de una ventana deslizante de tamaño fijo,
+ * actualizadas en tiempo constante por muestra.
+ *
+ * La ventana arranca llena de ceros (igual que el buffer circular original), de
+ * modo que los resultados coinciden con recorrer el buffer completo. Se usa la
+ * actualización de Welford para ventanas deslizantes, numéricamente estable, y
+ * cada {@link #RESYNC_INTERVAL} muestras se recalcula el acumulado exacto para
+ * que el error de redondeo no crezca en sesiones de horas.
+ */
+public class SlidingWindowStats {
+
+    private static final int RESYNC_INTERVAL = 4096;
+
+    private final float[] window;
+    private final int size;
+    private int index = 0;
+    private int updatesSinceResync = 0;
+
+    private double mean = 0.0;
+    private double m2 = 0.0; // Suma de cuadrados de las diferencias respecto a la media
+
+    public SlidingWindowStats(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("El tamaño de ventana debe ser positivo: " + size);
+        }
+        this.size = size;
+        this.window = new float[size];
+    }
+
+    /**
+     * Agrega una muestra y descarta la más antigua de la ventana.
+     */
+    public void add(float value) {
+        float oldest = window[index];
+        window[index] = value;
+        index = (index + 1) % size;
+
+        double delta = (double) value - oldest;
+        double oldMean = mean;
+        mean += delta / size;
+        m2 += delta * ((double) value - mean + oldest - oldMean);
+
+        if (++updatesSinceResync >= RESYNC_INTERVAL) {
+            resync();
+        }
+    }
+
+    public float getMean() {
+        return (float) mean;
+    }
+
+    public float getVariance() {
+        // m2 puede quedar levemente negativo por redondeo cuando la ventana es constante
+        return m2 > 0 ? (float) (m2 / size) : 0f;
+    }
+
+    public float getStdDev() {
+        return (float) Math.sqrt(getVariance());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void reset() {
+        Arrays.fill(window, 0f);
+        index = 0;
+        updatesSinceResync = 0;
+        mean = 0.0;
+        m2 = 0.0;
+    }
+
+    private void resync() {
+        double sum = 0.0;
+        for (float value : window) {
+            sum += value;
+        }
+        mean = sum / size;
+
+        double sumSquaredDiff = 0.0;
+        for (float value : window) {
+            double diff = value - mean;
+            sumSquaredDiff += diff * diff;
+        }
+        m2 = sumSquaredDiff;
+        updatesSinceResync = 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Fuente de pasos por software: el detector de picos de {@link StepDetector}
+ * sobre la aceleración vertical.
+ */
+public class SoftwareStepSource implements StepSource {
+
+    private final StepDetector detector;
+    private final boolean fusedGravity;
+
+    /**
+     * @param fusedGravity true si la gravedad de cada muestra viene de un sensor
+     *                     fusionado; si no, la estima el filtro por software
+     */
+    public SoftwareStepSource(StepDetector detector, boolean fusedGravity) {
+        this.detector = detector;
+        this.fusedGravity = fusedGravity;
+    }
+
+    @Override
+    public boolean onMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs) {
+        if (fusedGravity) {
+            return detector.addSample(accX, accY, accZ, gravityX, gravityY, gravityZ, timestampNs);
+        }
+        return detector.addSample(accX, accY, accZ, timestampNs);
+    }
+
+    @Override
+    public int onMotionSamples(SensorSampleBatch batch) {
+        if (fusedGravity) {
+            return detector.addSamples(batch.x, batch.y, batch.z, batch.gravityX, batch.gravityY,
+                    batch.gravityZ, batch.timestamps, 0, batch.size());
+        }
+        return detector.addSamples(batch.x, batch.y, batch.z, batch.timestamps, 0, batch.size());
+    }
+
+    @Override
+    public boolean onHardwareStep(long timestampNs) {
+        return false;
+    }
+
+    @Override
+    public boolean usesHardwareStepDetector() {
+        return false;
+    }
+
+    @Override
+    public boolean isStepInProgress() {
+        return detector.isPeakInProgress();
+    }
+
+    @Override
+    public WalkingStateTracker getWalkingState() {
+        return detector.getWalkingState();
+    }
+
+    @Override
+    public StepDetector getStepDetector() {
+        return detector;
+    }
+
+    @Override
+    public String describe() {
+        return "SOFTWARE (" + (fusedGravity ? "gravedad fusionada" : "filtro de gravedad")
+                + ") | Pasos: " + detector.getStepCount()
+                + " | Rechazados: " + detector.getRejectedSteps();
+    }
+
+    @Override
+    public void reset() {
+        detector.reset();
+    }
+}
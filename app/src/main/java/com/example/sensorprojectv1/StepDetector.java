@@ -0,0 +1,403 @@
+package com.example.sensorprojectv1;
+
+import java.util.Arrays;
+
+/**
+ * Motor de detección de pasos en Java puro (sin dependencias de Android).
+ * Referencias:
+ * - Pan & Lin (2011): "An improved human activity recognition system"
+ * - Zhao (2010): "A robust step counting algorithm"
+ *
+ * Recibe muestras del acelerómetro una a una ({@link #addSample}) o en lotes
+ * de arreglos paralelos ({@link #addSamples}). No reserva memoria por muestra:
+ * todo el estado vive en campos y arreglos preasignados, por lo que puede
+ * ejecutarse fuera del dispositivo a millones de muestras por segundo.
+ *
+ * El reloj de detección son los timestamps monotónicos en nanosegundos de
+ * SensorEvent.timestamp (momento de muestreo, no de entrega), de modo que la
+ * cadencia es correcta aunque los eventos lleguen en ráfagas y las trazas
+ * grabadas pueden reproducirse más rápido que en tiempo real.
+ *
+ * No es thread-safe: cada instancia debe usarse desde un único hilo.
+ */
+public class StepDetector {
+
+    public static final String SPEED_NONE = "Ninguna";
+    public static final String SPEED_SLOW = "Lenta";
+    public static final String SPEED_NORMAL = "Normal";
+    public static final String SPEED_FAST = "Rapida";
+
+    public static final int SAMPLE_SIZE = 25; // Ventana por defecto (~500ms a 50 Hz)
+    public static final long WARM_UP_TIME_MS = 2000; // 2 segundos de warm-up
+
+    // Umbrales de aceleración (m/s²) - Ajustados para uso activo del teléfono
+    // Valores reducidos para detectar pasos cuando el usuario usa el dispositivo
+    public static final float STEP_THRESHOLD_MIN = 0.6f; // Umbral mínimo (uso activo del teléfono)
+    public static final float STEP_THRESHOLD_MAX = 3.5f; // Umbral máximo (caminata rápida con teléfono)
+    public static final float DYNAMIC_FACTOR = 1.5f; // Factor para umbral dinámico adaptativo
+
+    // Restricciones temporales (ms) - Basado en cadencia humana
+    // Caminata humana: 0.5-2.0 pasos/segundo → 500-2000ms entre pasos
+    public static final long MIN_STEP_INTERVAL = 300;// ~30 pasos/min (muy lento)
+    public static final long MAX_STEP_INTERVAL = 2000; // ~200 pasos/min (muy rápido)
+
+    // Equivalente en nanosegundos (reloj de SensorEvent.timestamp)
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    // Filtros para señal - Ajustados para mejor respuesta
+    private static final float ALPHA_LOW_PASS = 0.5f; // Filtro paso bajo más suave
+    private static final float ALPHA_HIGH_PASS = 0.95f; // Filtro paso alto más conservador
+
+    // Filtro de gravedad - Recomendación oficial de Android
+    private static final float ALPHA_GRAVITY = 0.8f; // Filtro low-pass para separar gravedad
+
+    private final float[] gravity = new float[3]; // Vector de gravedad filtrado
+    // Ventana deslizante de la señal filtrada: media/varianza en O(1) por muestra
+    private SlidingWindowStats accWindow;
+    private long warmUpTimeNs = WARM_UP_TIME_MS * NANOS_PER_MS;
+    private int samplesCollected = 0;
+    private boolean bufferReady = false;
+    private boolean detectionStarted = false;
+    private long detectionStartTime = 0; // Timestamp (ns) de inicio de detección
+
+    private float accFiltered = 0; // Señal filtrada (paso bajo)
+    private float accMean = 0.0f; // Media móvil para aceleración vertical
+
+    private boolean aboveThreshold = false;
+    private float lastPeakValue = 0;
+
+    // Validación de pasos, velocidad y detención (compartido con otras fuentes de pasos)
+    private final WalkingStateTracker walkingState = new WalkingStateTracker();
+    private float currentVariance = 0.0f;
+
+    private float verticalAcc = 0.0f;
+    private float centeredAcc = 0.0f;
+    private float dynamicThreshold = 0.0f;
+    private float stdDev = 0.0f;
+    private float lastStepPeak = 0.0f;
+
+    public StepDetector() {
+        this(SAMPLE_SIZE);
+    }
+
+    /**
+     * @param windowSize muestras de la ventana para el umbral dinámico; el costo
+     *                   por muestra no depende de este valor
+     */
+    public StepDetector(int windowSize) {
+        accWindow = new SlidingWindowStats(windowSize);
+    }
+
+    /**
+     * Cambia la ventana del umbral dinámico y el warm-up (perfil de rendimiento).
+     * Si cambian, la ventana empieza vacía y se repite el warm-up; el conteo de
+     * pasos y el estado de caminata se conservan.
+     */
+    public void configure(int windowSize, long warmUpTimeMs) {
+        warmUpTimeNs = warmUpTimeMs * NANOS_PER_MS;
+        if (windowSize == accWindow.getSize()) {
+            return;
+        }
+        accWindow = new SlidingWindowStats(windowSize);
+        samplesCollected = 0;
+        bufferReady = false;
+        detectionStarted = false;
+        detectionStartTime = 0;
+        aboveThreshold = false;
+        lastPeakValue = 0;
+    }
+
+    /**
+     * Procesa una muestra del acelerómetro.
+     *
+     * OPTIMIZADO para uso activo del teléfono:
+     * 1. Filtro de gravedad (low-pass) para separar componente gravitacional
+     * 2. Aceleración lineal = señal cruda - gravedad
+     * 3. Proyección sobre eje vertical dinámico (no asume orientación fija)
+     * 4. Detección de picos sobre señal vertical
+     * 5. Umbrales adaptados para movimiento con teléfono
+     *
+     * @param now timestamp de la muestra en nanosegundos (SensorEvent.timestamp)
+     * @return true si la muestra completó un paso válido
+     */
+    public boolean addSample(float accX, float accY, float accZ, long now) {
+        // SEPARAR GRAVEDAD correctamente (filtro low-pass recomendado por Android)
+        gravity[0] = ALPHA_GRAVITY * gravity[0] + (1 - ALPHA_GRAVITY) * accX;
+        gravity[1] = ALPHA_GRAVITY * gravity[1] + (1 - ALPHA_GRAVITY) * accY;
+        gravity[2] = ALPHA_GRAVITY * gravity[2] + (1 - ALPHA_GRAVITY) * accZ;
+
+        return processSample(accX, accY, accZ, now);
+    }
+
+    /**
+     * Procesa una muestra cuya gravedad ya viene separada por un sensor fusionado
+     * (TYPE_GRAVITY o derivada de TYPE_ROTATION_VECTOR): se omite el filtro de
+     * gravedad por software.
+     *
+     * @param now timestamp de la muestra en nanosegundos (SensorEvent.timestamp)
+     * @return true si la muestra completó un paso válido
+     */
+    public boolean addSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long now) {
+        gravity[0] = gravityX;
+        gravity[1] = gravityY;
+        gravity[2] = gravityZ;
+
+        return processSample(accX, accY, accZ, now);
+    }
+
+    private boolean processSample(float accX, float accY, float accZ, long now) {
+        // ACELERACIÓN LINEAL (sin gravedad)
+        float linX = accX - gravity[0];
+        float linY = accY - gravity[1];
+        float linZ = accZ - gravity[2];
+
+        // PROYECCIÓN sobre eje VERTICAL DINÁMICO
+        // La gravedad define la vertical real, independiente de la orientación del
+        // teléfono
+        float gravityMagnitude = (float) Math.sqrt(
+                gravity[0] * gravity[0] +
+                        gravity[1] * gravity[1] +
+                        gravity[2] * gravity[2]);
+
+        // Evitar división por cero
+        if (gravityMagnitude < 0.1f) {
+            return false; // Gravedad no inicializada aún
+        }
+
+        // Proyección de aceleración lineal sobre eje vertical
+        verticalAcc = (linX * gravity[0] +
+                linY * gravity[1] +
+                linZ * gravity[2]) / gravityMagnitude;
+
+        // FILTRO PASO BAJO (eliminar ruido de alta frecuencia)
+        accFiltered = ALPHA_LOW_PASS * accFiltered + (1 - ALPHA_LOW_PASS) * verticalAcc;
+
+        // VENTANA DESLIZANTE (actualización incremental de media y varianza)
+        accWindow.add(accFiltered);
+
+        // Inicializar timestamp en la primera muestra
+        if (!detectionStarted) {
+            detectionStarted = true;
+            detectionStartTime = now;
+            accMean = verticalAcc; // inicializar con verticalAcc
+        }
+
+        long elapsedTime = now - detectionStartTime;
+
+        if (elapsedTime < warmUpTimeNs) {
+            samplesCollected++;
+            // Durante warm-up, inicializar media con valores reales de verticalAcc
+            accMean = accMean * 0.9f + verticalAcc * 0.1f; // Convergencia suave
+            return false;
+        }
+
+        samplesCollected++;
+
+        // Marcar buffer como listo
+        if (!bufferReady) {
+            bufferReady = true;
+        }
+
+        // FILTRO PASO ALTO (eliminar componente de drift)
+        // Media móvil exponencial que se adapta lentamente
+        accMean = ALPHA_HIGH_PASS * accMean + (1 - ALPHA_HIGH_PASS) * accFiltered;
+
+        // Señal centrada (elimina offset)
+        centeredAcc = accFiltered - accMean;
+
+        // CÁLCULO DE UMBRAL DINÁMICO con stdDev
+        // Media REAL de la ventana (no usar accMean que es una EMA)
+        currentVariance = accWindow.getVariance();
+        stdDev = (float) Math.sqrt(currentVariance);
+        dynamicThreshold = Math.max(
+                STEP_THRESHOLD_MIN,
+                Math.min(STEP_THRESHOLD_MAX, stdDev * DYNAMIC_FACTOR));
+
+        boolean stepDetected = false;
+
+        // DETECCIÓN DE PICO = PASO
+        // Algoritmo de cruce de umbral con histéresis
+        if (centeredAcc > dynamicThreshold && !aboveThreshold) {
+            // Cruce ascendente detectado
+            aboveThreshold = true;
+            lastPeakValue = centeredAcc;
+
+        } else if (aboveThreshold && centeredAcc > lastPeakValue) {
+            // Actualizar pico máximo
+            lastPeakValue = centeredAcc;
+
+        } else if (aboveThreshold && centeredAcc < dynamicThreshold * 0.5f) {
+            // Cruce descendente = FIN DE PICO - REGISTRAR PASO
+            aboveThreshold = false;
+
+            if (walkingState.onStep(now)) {
+                lastStepPeak = lastPeakValue;
+                stepDetected = true;
+            }
+
+            lastPeakValue = 0;
+        }
+
+        // VERIFICAR SI DEJÓ DE CAMINAR
+        walkingState.update(now);
+
+        return stepDetected;
+    }
+
+    /**
+     * Procesa un lote de muestras en arreglos paralelos.
+     *
+     * @return cantidad de pasos válidos detectados dentro del lote
+     */
+    public int addSamples(float[] accX, float[] accY, float[] accZ, long[] timestamps,
+            int offset, int count) {
+        int steps = 0;
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            if (addSample(accX[i], accY[i], accZ[i], timestamps[i])) {
+                steps++;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Procesa un lote de muestras con la gravedad de un sensor fusionado.
+     *
+     * @return cantidad de pasos válidos detectados dentro del lote
+     */
+    public int addSamples(float[] accX, float[] accY, float[] accZ,
+            float[] gravityX, float[] gravityY, float[] gravityZ, long[] timestamps,
+            int offset, int count) {
+        int steps = 0;
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            if (addSample(accX[i], accY[i], accZ[i], gravityX[i], gravityY[i], gravityZ[i],
+                    timestamps[i])) {
+                steps++;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Cuenta los pasos registrados en los últimos windowNs nanosegundos antes de now.
+     */
+    public int countRecentSteps(long now, long windowNs) {
+        return walkingState.countRecentSteps(now, windowNs);
+    }
+
+    public void reset() {
+        accWindow.reset();
+        samplesCollected = 0;
+        bufferReady = false;
+
+        // Reiniciar warm-up
+        detectionStarted = false;
+        detectionStartTime = 0;
+
+        // Reiniciar filtros
+        Arrays.fill(gravity, 0f);
+        accFiltered = 0;
+        accMean = 0.0f; // Reiniciar a 0 (se inicializa con verticalAcc)
+
+        // Reiniciar detección de picos
+        aboveThreshold = false;
+        lastPeakValue = 0;
+
+        // Reiniciar contadores y ventana de validación
+        walkingState.reset();
+        currentVariance = 0.0f;
+
+        // Reiniciar métricas avanzadas
+        verticalAcc = 0.0f;
+        centeredAcc = 0.0f;
+        dynamicThreshold = 0.0f;
+        stdDev = 0.0f;
+        lastStepPeak = 0.0f;
+    }
+
+    public int getStepCount() {
+        return walkingState.getStepCount();
+    }
+
+    public int getRejectedSteps() {
+        return walkingState.getRejectedSteps();
+    }
+
+    public boolean isWalking() {
+        return walkingState.isWalking();
+    }
+
+    public String getWalkingSpeed() {
+        return walkingState.getWalkingSpeed();
+    }
+
+    public WalkingStateTracker getWalkingState() {
+        return walkingState;
+    }
+
+    /**
+     * true mientras la señal está sobre el umbral: hay un pico candidato a paso en curso.
+     */
+    public boolean isPeakInProgress() {
+        return aboveThreshold;
+    }
+
+    public boolean isBufferReady() {
+        return bufferReady;
+    }
+
+    public int getWindowSize() {
+        return accWindow.getSize();
+    }
+
+    public int getSamplesCollected() {
+        return samplesCollected;
+    }
+
+    public float getVariance() {
+        return currentVariance;
+    }
+
+    public float getVerticalAcc() {
+        return verticalAcc;
+    }
+
+    public float getFilteredAcc() {
+        return accFiltered;
+    }
+
+    public float getCenteredAcc() {
+        return centeredAcc;
+    }
+
+    public float getDynamicThreshold() {
+        return dynamicThreshold;
+    }
+
+    public float getStdDev() {
+        return stdDev;
+    }
+
+    public float getGravityX() {
+        return gravity[0];
+    }
+
+    public float getGravityY() {
+        return gravity[1];
+    }
+
+    public float getGravityZ() {
+        return gravity[2];
+    }
+
+    public long getLastStepIntervalMs() {
+        return walkingState.getLastStepIntervalMs();
+    }
+
+    public float getLastStepPeak() {
+        return lastStepPeak;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Fuente de pasos intercambiable (Java puro).
+ *
+ * Todas las fuentes alimentan un {@link WalkingStateTracker}, de modo que el
+ * estado de caminata, la velocidad, el conteo y las alertas no dependen de
+ * quién detecta los pasos:
+ * - {@link SoftwareStepSource}: detector de picos propio sobre el acelerómetro
+ * - {@link HardwareStepSource}: TYPE_STEP_DETECTOR del sensor hub
+ * - {@link ComparisonStepSource}: una fuente principal y otra en paralelo para comparar
+ *
+ * Se usa desde el hilo de sensores.
+ */
+public interface StepSource {
+
+    /**
+     * Muestra de movimiento: aceleración equivalente a la del acelerómetro y la
+     * gravedad del sensor fusionado (ignorada si se estima por software).
+     *
+     * @return true si la muestra completó un paso aceptado
+     */
+    boolean onMotionSample(float accX, float accY, float accZ,
+            float gravityX, float gravityY, float gravityZ, long timestampNs);
+
+    /**
+     * Lote de muestras de movimiento entregado por el FIFO del sensor.
+     *
+     * @return cantidad de pasos aceptados dentro del lote
+     */
+    int onMotionSamples(SensorSampleBatch batch);
+
+    /**
+     * Evento de TYPE_STEP_DETECTOR.
+     *
+     * @return true si el paso fue aceptado
+     */
+    boolean onHardwareStep(long timestampNs);
+
+    /**
+     * true si la fuente necesita que se registre TYPE_STEP_DETECTOR.
+     */
+    boolean usesHardwareStepDetector();
+
+    /**
+     * true si hay un paso en curso todavía no confirmado (para el muestreo adaptativo).
+     */
+    boolean isStepInProgress();
+
+    WalkingStateTracker getWalkingState();
+
+    /**
+     * Detector de picos cuyos pasos cuentan, o null si los pasos vienen del
+     * sensor hub: sus señales (pico, umbral, vertical) no describen esos pasos.
+     */
+    StepDetector getStepDetector();
+
+    /**
+     * Resumen para el log.
+     */
+    String describe();
+
+    void reset();
+}
@@ -0,0 +1,178 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Acumula las muestras de telemetría y las envía en lotes (sin dependencias
+ * de Android salvo org.json).
+ *
+ * En lugar de un POST por muestra, las muestras se juntan en un JSONArray y
+ * se entregan al {@link Sender} (en la app, a {@link DurableUploadQueue} y de
+ * ahí a ApiService.sendSensorDataBatch) cuando ocurre lo primero de:
+ * - el lote llega a {@link #getMaxBatchSize()} muestras;
+ * - la muestra más vieja supera {@link #getMaxDelayMs()} de espera
+ *   ({@link #poll}; el llamador lo agenda con {@link #getMillisUntilAgeFlush});
+ * - cambia el estado de detección ({@link #onStateTransition}), para que el
+ *   servidor vea las transiciones sin esperar;
+ * - cambia la sesión o el token: cada lote pertenece a una sola sesión;
+ * - se pide explícitamente ({@link #flush}), al cerrar la app.
+ *
+ * Con una muestra por segundo y lotes de 60, son 60 veces menos peticiones
+ * (y despertares de la radio) por hora de sesión.
+ *
+ * No es thread-safe: se usa desde el hilo de sensores. Cada lote enviado es
+ * un JSONArray nuevo que pasa a ser del Sender.
+ */
+public class TelemetryUploader {
+
+    public enum FlushReason { SIZE, AGE, TRANSITION, SESSION, MANUAL }
+
+    /**
+     * Envía un lote completo (asíncrono; el lote ya no se modifica).
+     */
+    public interface Sender {
+        void send(long sessionId, JSONArray samples, String token);
+    }
+
+    private final Sender sender;
+    private int maxBatchSize;
+    private long maxDelayMs;
+
+    private JSONArray pending = new JSONArray();
+    private long pendingSessionId = -1;
+    private String pendingToken;
+    private long oldestSampleMs;
+
+    private long samplesQueued = 0;
+    private long batchesSent = 0;
+    private final long[] flushesByReason = new long[FlushReason.values().length];
+
+    public TelemetryUploader(int maxBatchSize, long maxDelayMs, Sender sender) {
+        this.sender = sender;
+        configure(maxBatchSize, maxDelayMs);
+    }
+
+    /**
+     * Cambia el tamaño y la espera máxima (perfil de rendimiento). Si el lote
+     * pendiente ya alcanza el nuevo tamaño se envía con la próxima muestra.
+     */
+    public void configure(int maxBatchSize, long maxDelayMs) {
+        if (maxBatchSize < 1 || maxDelayMs < 0) {
+            throw new IllegalArgumentException("Lote o espera inválidos: "
+                    + maxBatchSize + " / " + maxDelayMs + " ms");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Agrega una muestra; envía el lote si se llenó.
+     *
+     * @param nowMs reloj del llamador, el mismo que se pasa a {@link #poll}
+     */
+    public void add(JSONObject sample, long sessionId, String token, long nowMs) {
+        if (pending.length() > 0 && (sessionId != pendingSessionId || !sameToken(token))) {
+            flush(FlushReason.SESSION);
+        }
+        if (pending.length() == 0) {
+            pendingSessionId = sessionId;
+            pendingToken = token;
+            oldestSampleMs = nowMs;
+        }
+        pending.put(sample);
+        samplesQueued++;
+        if (pending.length() >= maxBatchSize) {
+            flush(FlushReason.SIZE);
+        }
+    }
+
+    /**
+     * Envía el lote si la muestra más vieja ya esperó {@link #getMaxDelayMs()}.
+     */
+    public void poll(long nowMs) {
+        if (pending.length() > 0 && nowMs - oldestSampleMs >= maxDelayMs) {
+            flush(FlushReason.AGE);
+        }
+    }
+
+    /**
+     * Cuánto falta para que el lote pendiente deba enviarse por antigüedad,
+     * para agendar {@link #poll} sin esperar a la próxima muestra.
+     *
+     * @return ms hasta el envío (0 si ya venció), o -1 si no hay lote pendiente
+     */
+    public long getMillisUntilAgeFlush(long nowMs) {
+        if (pending.length() == 0) {
+            return -1;
+        }
+        return Math.max(0, oldestSampleMs + maxDelayMs - nowMs);
+    }
+
+    /**
+     * Cambió el estado de detección (caminando, usando el teléfono, alerta).
+     */
+    public void onStateTransition() {
+        flush(FlushReason.TRANSITION);
+    }
+
+    public void flush() {
+        flush(FlushReason.MANUAL);
+    }
+
+    private void flush(FlushReason reason) {
+        if (pending.length() == 0) {
+            return;
+        }
+        JSONArray batch = pending;
+        pending = new JSONArray();
+        batchesSent++;
+        flushesByReason[reason.ordinal()]++;
+        sender.send(pendingSessionId, batch, pendingToken);
+    }
+
+    private boolean sameToken(String token) {
+        return token == null ? pendingToken == null : token.equals(pendingToken);
+    }
+
+    public int getPendingCount() {
+        return pending.length();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public long getSamplesQueued() {
+        return samplesQueued;
+    }
+
+    public long getBatchesSent() {
+        return batchesSent;
+    }
+
+    public long getFlushCount(FlushReason reason) {
+        return flushesByReason[reason.ordinal()];
+    }
+
+    /**
+     * Resumen para el log: muestras, lotes y motivo de cada envío.
+     */
+    public String describeMetrics() {
+        long sent = samplesQueued - pending.length();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Muestras: ").append(samplesQueued)
+                .append(" | Lotes: ").append(batchesSent)
+                .append(" | Pendientes: ").append(pending.length())
+                .append(" | Muestras/lote: ")
+                .append(batchesSent > 0 ? String.format("%.1f", (double) sent / batchesSent) : "-");
+        for (FlushReason reason : FlushReason.values()) {
+            sb.append(" | ").append(reason).append(": ").append(flushesByReason[reason.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Canal de actualización de la UI que agrupa los valores de los sensores.
+ *
+ * El hilo de sensores solo guarda el último valor de cada campo con
+ * {@link #post}; no formatea texto ni encola un Runnable por evento. La primera
+ * publicación después de un volcado pide un frame al {@link FrameScheduler}
+ * (Choreographer en la app) y en ese frame, en el hilo principal, se formatea
+ * una vez cada campo modificado. Un frame más cercano que el intervalo mínimo
+ * (por defecto 10 Hz) al volcado anterior pide un solo frame más, demorado lo
+ * que falta del intervalo. Si el texto resultante es igual al ya mostrado no
+ * se llama al {@link Renderer}. Sin destino para el texto
+ * ({@link #setTargetAttached}) los valores se siguen guardando pero no se
+ * piden frames.
+ *
+ * Los valores publicados que nunca llegan a mostrarse porque otro más nuevo
+ * los reemplazó se cuentan en {@link #getCoalescedUpdates()}.
+ */
+public class UiUpdateBridge {
+
+    public static final int FIELD_ACCELEROMETER = 0;
+    public static final int FIELD_GYROSCOPE = 1;
+    private static final int FIELD_COUNT = 2;
+
+    private static final String[] TITLES = { "Acelerometro", "Giroscopio" };
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    public static final long DEFAULT_MIN_INTERVAL_NS = 100_000_000L; // 10 Hz
+
+    /**
+     * Pide que {@link UiUpdateBridge#onFrame} se ejecute en el hilo principal,
+     * en el primer frame después de delayMs (0 = el próximo). Puede llamarse
+     * desde cualquier hilo.
+     */
+    public interface FrameScheduler {
+        void scheduleFrame(UiUpdateBridge bridge, long delayMs);
+    }
+
+    /**
+     * Muestra el texto de un campo; se llama en el hilo principal.
+     */
+    public interface Renderer {
+        void render(int field, String text);
+    }
+
+    private final FrameScheduler scheduler;
+    private final Renderer renderer;
+    private final long minIntervalNs;
+
+    // Compartido con el hilo de sensores, protegido por lock
+    private final Object lock = new Object();
+    private final float[] values = new float[FIELD_COUNT * 3];
+    private final boolean[] dirty = new boolean[FIELD_COUNT];
+    private boolean frameScheduled = false;
+    private boolean targetAttached = true;
+    private boolean redrawAll = false;
+    private long postedUpdates = 0;
+    private long coalescedUpdates = 0;
+
+    // Solo hilo principal
+    private final float[] frameValues = new float[FIELD_COUNT * 3];
+    private final boolean[] frameDirty = new boolean[FIELD_COUNT];
+    private final String[] shownText = new String[FIELD_COUNT];
+    private long lastFlushNs = 0;
+    private boolean hasFlushed = false;
+    private volatile long skippedUnchanged = 0; // volatile: se lee al loguear métricas
+
+    public UiUpdateBridge(FrameScheduler scheduler, Renderer renderer) {
+        this(scheduler, renderer, DEFAULT_MIN_INTERVAL_NS);
+    }
+
+    /**
+     * @param minIntervalNs separación mínima entre volcados; 0 = uno por frame
+     */
+    public UiUpdateBridge(FrameScheduler scheduler, Renderer renderer, long minIntervalNs) {
+        if (minIntervalNs < 0) {
+            throw new IllegalArgumentException("El intervalo mínimo no puede ser negativo: " + minIntervalNs);
+        }
+        this.scheduler = scheduler;
+        this.renderer = renderer;
+        this.minIntervalNs = minIntervalNs;
+    }
+
+    /**
+     * Guarda el último valor de un campo. Llamado desde el hilo de sensores.
+     */
+    public void post(int field, float x, float y, float z) {
+        boolean schedule;
+        synchronized (lock) {
+            int base = field * 3;
+            values[base] = x;
+            values[base + 1] = y;
+            values[base + 2] = z;
+            if (dirty[field]) {
+                coalescedUpdates++; // El valor anterior nunca llegó a mostrarse
+            }
+            dirty[field] = true;
+            postedUpdates++;
+            schedule = !frameScheduled && targetAttached;
+            if (schedule) {
+                frameScheduled = true;
+            }
+        }
+        if (schedule) {
+            scheduler.scheduleFrame(this, 0);
+        }
+    }
+
+    /**
+     * Callback del frame, en el hilo principal.
+     */
+    public void onFrame(long frameTimeNanos) {
+        long sinceFlushNs = frameTimeNanos - lastFlushNs;
+        if (hasFlushed && sinceFlushNs < minIntervalNs) {
+            // Demasiado pronto: un solo frame más, cuando se cumpla el intervalo
+            long remainingNs = minIntervalNs - sinceFlushNs;
+            scheduler.scheduleFrame(this, (remainingNs + NANOS_PER_MS - 1) / NANOS_PER_MS);
+            return;
+        }
+
+        boolean any = false;
+        synchronized (lock) {
+            frameScheduled = false;
+            if (!targetAttached) {
+                return; // Los valores quedan pendientes hasta que vuelva el destino
+            }
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                frameDirty[field] = dirty[field] || redrawAll;
+                if (frameDirty[field]) {
+                    dirty[field] = false;
+                    any = true;
+                    int base = field * 3;
+                    frameValues[base] = values[base];
+                    frameValues[base + 1] = values[base + 1];
+                    frameValues[base + 2] = values[base + 2];
+                }
+            }
+            redrawAll = false;
+        }
+        if (!any) {
+            return;
+        }
+        hasFlushed = true;
+        lastFlushNs = frameTimeNanos;
+
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (!frameDirty[field]) {
+                continue;
+            }
+            int base = field * 3;
+            String text = String.format("%s:\nX: %.3f\nY: %.3f\nZ: %.3f", TITLES[field],
+                    frameValues[base], frameValues[base + 1], frameValues[base + 2]);
+            if (text.equals(shownText[field])) {
+                skippedUnchanged++;
+                continue;
+            }
+            shownText[field] = text;
+            renderer.render(field, text);
+        }
+    }
+
+    /**
+     * Olvida el texto mostrado, por ejemplo al recrear la vista, para que el
+     * próximo volcado vuelva a dibujar todos los campos.
+     */
+    public void invalidate() {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            shownText[field] = null;
+        }
+        boolean schedule;
+        synchronized (lock) {
+            redrawAll = true;
+            schedule = !frameScheduled && targetAttached;
+            if (schedule) {
+                frameScheduled = true;
+            }
+        }
+        if (schedule) {
+            scheduler.scheduleFrame(this, 0);
+        }
+    }
+
+    /**
+     * Indica si hay una vista que muestre el texto (en la app, HomeFragment).
+     * Sin ella no se piden frames; al volver se redibujan todos los campos con
+     * los últimos valores. Se llama en el hilo principal.
+     */
+    public void setTargetAttached(boolean attached) {
+        synchronized (lock) {
+            targetAttached = attached;
+        }
+        if (attached) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Valores publicados que fueron reemplazados antes de mostrarse.
+     */
+    public long getCoalescedUpdates() {
+        synchronized (lock) {
+            return coalescedUpdates;
+        }
+    }
+
+    public long getPostedUpdates() {
+        synchronized (lock) {
+            return postedUpdates;
+        }
+    }
+
+    /**
+     * Volcados en los que el texto formateado era igual al mostrado.
+     */
+    public long getSkippedUnchanged() {
+        return skippedUnchanged;
+    }
+
+    public String describeMetrics() {
+        return "Publicadas: " + getPostedUpdates()
+                + " | Agrupadas: " + getCoalescedUpdates()
+                + " | Sin cambios: " + skippedUnchanged
+                + " | Intervalo: " + (minIntervalNs / 1_000_000L) + "ms";
+    }
+}
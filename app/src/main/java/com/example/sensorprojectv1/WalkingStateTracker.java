@@ -0,0 +1,206 @@
+package com.example.sensorprojectv1;
+
+import java.util.Arrays;
+
+/**
+ * Estado de caminata compartido por todas las fuentes de pasos (Java puro).
+ *
+ * Recibe pasos candidatos ya detectados, sea por el detector de picos por
+ * software o por el TYPE_STEP_DETECTOR del sensor hub, y aplica las mismas
+ * validaciones de intervalo y patrón, la clasificación de velocidad por
+ * cadencia y el timeout de detención. Así isWalking, walkingSpeed, stepCount
+ * y las alertas se comportan igual con cualquier fuente.
+ *
+ * Los tiempos son timestamps monotónicos en nanosegundos (SensorEvent.timestamp).
+ * No es thread-safe: cada instancia debe usarse desde un único hilo.
+ */
+public class WalkingStateTracker {
+
+    // Para validación de patrón (evitar falsos positivos)
+    public static final int STEPS_WINDOW = 4; // Ventana para validar patrón
+
+    // Sin pasos en este tiempo → usuario detenido; pausa larga → siguiente paso es "primero"
+    private static final long STOP_TIMEOUT_MS = 2500;
+    private static final long LONG_PAUSE_MS = 5000;
+    private static final long PATTERN_WINDOW_MS = 3000;
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final long MIN_STEP_INTERVAL_NS = StepDetector.MIN_STEP_INTERVAL * NANOS_PER_MS;
+    private static final long MAX_STEP_INTERVAL_NS = StepDetector.MAX_STEP_INTERVAL * NANOS_PER_MS;
+    private static final long STOP_TIMEOUT_NS = STOP_TIMEOUT_MS * NANOS_PER_MS;
+    private static final long LONG_PAUSE_NS = LONG_PAUSE_MS * NANOS_PER_MS;
+    private static final long PATTERN_WINDOW_NS = PATTERN_WINDOW_MS * NANOS_PER_MS;
+
+    // Marca de "sin paso" en recentStepTimes (un timestamp válido puede ser 0 en replay)
+    private static final long NO_STEP = Long.MIN_VALUE;
+
+    private boolean hasLastStep = false;
+    private long lastStepTime = 0; // ns
+    private long lastStepInterval = 0; // ns
+
+    private final long[] recentStepTimes = new long[STEPS_WINDOW];
+    private int stepTimeIndex = 0;
+
+    private int stepCount = 0;
+    private int rejectedSteps = 0;
+    private boolean isWalking = false;
+    private String walkingSpeed = StepDetector.SPEED_NONE;
+
+    public WalkingStateTracker() {
+        Arrays.fill(recentStepTimes, NO_STEP);
+    }
+
+    /**
+     * Registra un paso candidato.
+     *
+     * @param now timestamp del paso en nanosegundos
+     * @return true si el paso fue aceptado y contado
+     */
+    public boolean onStep(long now) {
+        // Si es el primer paso, aceptarlo sin validar intervalo
+        if (!hasLastStep) {
+            recordStepTime(now);
+
+            stepCount++;
+            hasLastStep = true;
+            lastStepTime = now;
+            lastStepInterval = 0;
+            isWalking = true;
+            walkingSpeed = StepDetector.SPEED_NORMAL; // Asumir velocidad normal para primer paso
+            return true;
+        }
+
+        // Pasos subsecuentes - validar intervalo temporal
+        long stepInterval = now - lastStepTime;
+
+        // Validar intervalo temporal (evitar pasos imposibles)
+        if (stepInterval <= MIN_STEP_INTERVAL_NS || stepInterval >= MAX_STEP_INTERVAL_NS) {
+            rejectedSteps++;
+            return false;
+        }
+
+        recordStepTime(now);
+
+        // Validar patrón de pasos
+        if (!isValidStepPattern(now)) {
+            return false;
+        }
+
+        stepCount++;
+        lastStepTime = now;
+        lastStepInterval = stepInterval;
+        isWalking = true;
+        updateWalkingSpeed(stepInterval);
+        return true;
+    }
+
+    /**
+     * Avanza el reloj sin paso: detecta que el usuario se detuvo.
+     */
+    public void update(long now) {
+        // VERIFICAR SI DEJÓ DE CAMINAR
+        // Si no hay pasos en 2.5s, asumir que está detenido
+        if (hasLastStep && (now - lastStepTime > STOP_TIMEOUT_NS)) {
+            isWalking = false;
+            walkingSpeed = StepDetector.SPEED_NONE;
+
+            // Si la pausa es MUY larga (>5s), reiniciar lastStepTime
+            // Esto permite que el siguiente paso sea aceptado como "primer paso"
+            if (now - lastStepTime > LONG_PAUSE_NS) {
+                hasLastStep = false;
+            }
+        }
+    }
+
+    /**
+     * Cuenta los pasos registrados en los últimos windowNs nanosegundos antes de now.
+     */
+    public int countRecentSteps(long now, long windowNs) {
+        int recentSteps = 0;
+        for (long stepTime : recentStepTimes) {
+            if (stepTime != NO_STEP && (now - stepTime) < windowNs) {
+                recentSteps++;
+            }
+        }
+        return recentSteps;
+    }
+
+    public void reset() {
+        hasLastStep = false;
+        lastStepTime = 0;
+        lastStepInterval = 0;
+        stepCount = 0;
+        rejectedSteps = 0;
+        isWalking = false;
+        walkingSpeed = StepDetector.SPEED_NONE;
+        Arrays.fill(recentStepTimes, NO_STEP);
+        stepTimeIndex = 0;
+    }
+
+    private void recordStepTime(long now) {
+        recentStepTimes[stepTimeIndex] = now;
+        stepTimeIndex = (stepTimeIndex + 1) % STEPS_WINDOW;
+    }
+
+    /**
+     * Valida que los pasos recientes formen un patrón consistente
+     * Evita falsos positivos por movimientos únicos del teléfono
+     */
+    private boolean isValidStepPattern(long now) {
+        // Contar cuántos pasos hay en los últimos 3 segundos
+        int recentSteps = countRecentSteps(now, PATTERN_WINDOW_NS);
+
+        // Permitir primeros 2 pasos para establecer patrón
+        // Después, necesitamos al menos 2 pasos en 3 segundos para confirmar caminata
+        if (stepCount < 2) {
+            return true; // Permitir los primeros 2 pasos sin validación
+        }
+
+        // A partir del tercer paso, validar patrón temporal
+        return recentSteps >= 2;
+    }
+
+    /**
+     * Determina velocidad de caminata basada en cadencia (pasos/minuto)
+     * Literatura: Lento <100, Normal 100-120, Rápido >120 pasos/min
+     */
+    private void updateWalkingSpeed(long stepIntervalNs) {
+        // Convertir intervalo a pasos/minuto
+        float cadence = 60000.0f * NANOS_PER_MS / stepIntervalNs; // pasos/min
+        walkingSpeed = speedForCadence(cadence);
+    }
+
+    /**
+     * Clase de velocidad para una cadencia en pasos/minuto; la usan tanto el
+     * intervalo entre pasos como {@link CadenceEstimator}.
+     */
+    public static String speedForCadence(float cadence) {
+        if (cadence < 80) {
+            return StepDetector.SPEED_SLOW; // <80 pasos/min
+        } else if (cadence < 120) {
+            return StepDetector.SPEED_NORMAL; // 80-120 pasos/min
+        } else {
+            return StepDetector.SPEED_FAST; // >120 pasos/min
+        }
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    public boolean isWalking() {
+        return isWalking;
+    }
+
+    public String getWalkingSpeed() {
+        return walkingSpeed;
+    }
+
+    public long getLastStepIntervalMs() {
+        return lastStepInterval / NANOS_PER_MS;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.sensorprojectv1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del ejecutor de ApiService: orden por prioridad, colas acotadas,
+ * descarte de telemetría y el hilo reservado.
+ */
+public class ApiExecutorTest {
+
+    private static final long TIMEOUT_S = 5;
+
+    private ApiExecutor executor;
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        executor = new ApiExecutor("test", 2, new int[] { 2, 2, 2 }, 1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_S * 1000));
+    }
+
+    private Runnable record(String name, CountDownLatch done) {
+        return () -> {
+            order.add(name);
+            done.countDown();
+        };
+    }
+
+    /**
+     * Ocupa un hilo hasta que se abra gate; vuelve cuando ya empezó.
+     */
+    private void block(CountDownLatch gate) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(executor.submit(ApiExecutor.Priority.CRITICAL, () -> {
+            started.countDown();
+            try {
+                gate.await(TIMEOUT_S, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null));
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void pendingRequests_runByPriority() throws InterruptedException {
+        CountDownLatch gateA = new CountDownLatch(1);
+        CountDownLatch gateB = new CountDownLatch(1);
+        block(gateA);
+        block(gateB);
+
+        CountDownLatch done = new CountDownLatch(3);
+        executor.submit(ApiExecutor.Priority.TELEMETRY, record("telemetría", done), null);
+        executor.submit(ApiExecutor.Priority.INTERACTIVE, record("pantalla", done), null);
+        executor.submit(ApiExecutor.Priority.CRITICAL, record("alerta", done), null);
+        assertEquals(1, executor.getQueueDepth(ApiExecutor.Priority.CRITICAL));
+
+        // Un solo hilo libre: ejecuta en orden de prioridad
+        gateB.countDown();
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("alerta", "pantalla", "telemetría"), order);
+        gateA.countDown();
+    }
+
+    @Test
+    public void fullLane_rejectsAndNotifies() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        block(gate);
+        block(gate);
+
+        Runnable noop = () -> { };
+        assertTrue(executor.submit(ApiExecutor.Priority.INTERACTIVE, noop, dropped::incrementAndGet));
+        assertTrue(executor.submit(ApiExecutor.Priority.INTERACTIVE, noop, dropped::incrementAndGet));
+        assertFalse(executor.submit(ApiExecutor.Priority.INTERACTIVE, noop, dropped::incrementAndGet));
+
+        assertEquals(1, dropped.get());
+        assertEquals(1, executor.getRejectedCount(ApiExecutor.Priority.INTERACTIVE));
+        assertEquals(2, executor.getQueueDepth(ApiExecutor.Priority.INTERACTIVE));
+        gate.countDown();
+    }
+
+    @Test
+    public void fullTelemetryLane_dropsOldest() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        block(gate);
+        block(gate);
+
+        CountDownLatch done = new CountDownLatch(2);
+        assertTrue(executor.submit(ApiExecutor.Priority.TELEMETRY, record("1", done), dropped::incrementAndGet));
+        assertTrue(executor.submit(ApiExecutor.Priority.TELEMETRY, record("2", done), dropped::incrementAndGet));
+        assertTrue(executor.submit(ApiExecutor.Priority.TELEMETRY, record("3", done), dropped::incrementAndGet));
+
+        assertEquals(1, dropped.get());
+        assertEquals(1, executor.getDroppedTelemetry());
+        assertEquals(0, executor.getRejectedCount(ApiExecutor.Priority.TELEMETRY));
+
+        gate.countDown();
+        assertTrue(done.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("2", "3"), order);
+    }
+
+    @Test
+    public void stuckTelemetry_leavesThreadForOtherLanes() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch telemetryStarted = new CountDownLatch(1);
+        executor.submit(ApiExecutor.Priority.TELEMETRY, () -> {
+            telemetryStarted.countDown();
+            try {
+                gate.await(TIMEOUT_S, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null);
+        assertTrue(telemetryStarted.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        CountDownLatch second = new CountDownLatch(1);
+        executor.submit(ApiExecutor.Priority.TELEMETRY, record("telemetría", second), null);
+        CountDownLatch alert = new CountDownLatch(1);
+        executor.submit(ApiExecutor.Priority.CRITICAL, record("alerta", alert), null);
+
+        // La alerta usa el hilo libre; la segunda telemetría espera su turno
+        assertTrue(alert.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(1, executor.getQueueDepth(ApiExecutor.Priority.TELEMETRY));
+
+        gate.countDown();
+        assertTrue(second.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("alerta", "telemetría"), order);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void telemetryCannotTakeEveryThread() {
+        new ApiExecutor("test", 2, new int[] { 1, 1, 1 }, 2);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del estimador de cadencia por autocorrelación con caminatas sintéticas.
+ */
+public class CadenceEstimatorTest {
+
+    private static final float G = 9.81f;
+
+    /**
+     * Alimenta el estimador con la aceleración vertical (proyección sobre la gravedad).
+     * Con missedStep >= 0 se borra el pulso de ese paso, como un pico perdido.
+     */
+    private static void feed(CadenceEstimator estimator, GaitSignalGenerator.Chunk chunk,
+            long timeOffsetNs, int missedStep) {
+        long missedAt = missedStep >= 0 && missedStep < chunk.steps
+                ? chunk.stepTimestamps[missedStep] : Long.MIN_VALUE;
+        for (int i = 0; i < chunk.size; i++) {
+            float vertical = (chunk.accX[i] * chunk.gravityX[i] + chunk.accY[i] * chunk.gravityY[i]
+                    + chunk.accZ[i] * chunk.gravityZ[i]) / G - G;
+            if (Math.abs(chunk.timestamps[i] - missedAt) < 200_000_000L) {
+                vertical = 0f;
+            }
+            estimator.onSample(vertical, chunk.timestamps[i] + timeOffsetNs);
+        }
+    }
+
+    private static GaitSignalGenerator.Chunk walk(float cadenceSpm, int samples) {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.cadenceSpm = cadenceSpm;
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(samples);
+        new GaitSignalGenerator(config).next(chunk);
+        return chunk;
+    }
+
+    @Test
+    public void tracksCadenceAcrossSpeedClasses() {
+        float[] cadences = {70f, 110f, 150f};
+        String[] speeds = {StepDetector.SPEED_SLOW, StepDetector.SPEED_NORMAL, StepDetector.SPEED_FAST};
+        for (int c = 0; c < cadences.length; c++) {
+            CadenceEstimator estimator = new CadenceEstimator();
+            feed(estimator, walk(cadences[c], 500), 0, -1); // 10 s a 50 Hz
+
+            assertTrue("Confianza a " + cadences[c] + ": " + estimator.getConfidence(),
+                    estimator.isConfident());
+            assertEquals(cadences[c], estimator.getCadence(), 4f);
+            assertEquals(speeds[c], WalkingStateTracker.speedForCadence(estimator.getCadence()));
+        }
+    }
+
+    @Test
+    public void missedStep_doesNotChangeSpeedClass() {
+        CadenceEstimator estimator = new CadenceEstimator();
+        GaitSignalGenerator.Chunk chunk = walk(110f, 250); // 5 s
+        feed(estimator, chunk, 0, -1);
+        assertTrue(estimator.isConfident());
+
+        // Siguientes 10 s con un pulso borrado: el intervalo aislado sería ~55 ppm
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.cadenceSpm = 110f;
+        config.seed = 7;
+        GaitSignalGenerator.Chunk next = new GaitSignalGenerator.Chunk(500);
+        new GaitSignalGenerator(config).next(next);
+        long offset = chunk.timestamps[chunk.size - 1] + 20_000_000L;
+        for (int i = 0; i < next.size; i += 50) {
+            // Por segundos para revisar la cadencia durante todo el recorrido
+            GaitSignalGenerator.Chunk second = slice(next, i, 50);
+            feed(estimator, second, offset, second.steps > 0 && i == 100 ? 0 : -1);
+            assertEquals(StepDetector.SPEED_NORMAL,
+                    WalkingStateTracker.speedForCadence(estimator.getCadence()));
+        }
+        assertEquals(110f, estimator.getCadence(), 5f);
+    }
+
+    @Test
+    public void standingStill_hasNoConfidence() {
+        CadenceEstimator estimator = new CadenceEstimator();
+        feed(estimator, walk(0f, 500), 0, -1);
+
+        assertFalse(estimator.isConfident());
+        assertEquals(0f, estimator.getConfidence(), 0f);
+        assertEquals(0f, estimator.getCadence(), 0f);
+    }
+
+    @Test
+    public void longGap_restartsWindow() {
+        CadenceEstimator estimator = new CadenceEstimator();
+        GaitSignalGenerator.Chunk chunk = walk(110f, 500);
+        feed(estimator, chunk, 0, -1);
+        assertTrue(estimator.isConfident());
+
+        // Sensores pausados 30 s: la primera muestra después no alcanza para estimar
+        long resumeNs = chunk.timestamps[chunk.size - 1] + 30_000_000_000L;
+        assertFalse(estimator.onSample(0f, resumeNs));
+        assertFalse(estimator.isConfident());
+    }
+
+    private static GaitSignalGenerator.Chunk slice(GaitSignalGenerator.Chunk source, int from, int length) {
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(length);
+        System.arraycopy(source.accX, from, chunk.accX, 0, length);
+        System.arraycopy(source.accY, from, chunk.accY, 0, length);
+        System.arraycopy(source.accZ, from, chunk.accZ, 0, length);
+        System.arraycopy(source.gravityX, from, chunk.gravityX, 0, length);
+        System.arraycopy(source.gravityY, from, chunk.gravityY, 0, length);
+        System.arraycopy(source.gravityZ, from, chunk.gravityZ, 0, length);
+        System.arraycopy(source.timestamps, from, chunk.timestamps, 0, length);
+        long end = source.timestamps[from + length - 1];
+        for (int s = 0; s < source.steps; s++) {
+            long t = source.stepTimestamps[s];
+            if (t >= source.timestamps[from] && t <= end) {
+                chunk.stepTimestamps[chunk.steps++] = t;
+            }
+        }
+        chunk.size = length;
+        return chunk;
+    }
+}
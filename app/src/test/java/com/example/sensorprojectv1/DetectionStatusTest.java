@@ -0,0 +1,43 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la instantánea de estado publicada en la UI.
+ */
+public class DetectionStatusTest {
+
+    @Test
+    public void unchangedFields_returnSameInstance() {
+        DetectionStatus status = DetectionStatus.INITIAL.with(false, true, false,
+                StepDetector.SPEED_NORMAL, 12, 0);
+        for (int i = 0; i < 100; i++) {
+            assertSame(status, status.with(false, true, false, StepDetector.SPEED_NORMAL, 12, 0));
+        }
+    }
+
+    @Test
+    public void anyChangedField_returnsNewSnapshot() {
+        DetectionStatus status = DetectionStatus.INITIAL.with(false, true, false,
+                StepDetector.SPEED_NORMAL, 12, 0);
+
+        assertNotSame(status, status.with(false, true, false, StepDetector.SPEED_NORMAL, 13, 0));
+        assertNotSame(status, status.with(false, true, false, StepDetector.SPEED_FAST, 12, 0));
+        assertNotSame(status, status.with(false, true, true, StepDetector.SPEED_NORMAL, 12, 0));
+        assertNotSame(status, status.with(true, true, true, StepDetector.SPEED_NORMAL, 12, 1));
+
+        // La instantánea original no se modifica
+        assertEquals(12, status.getStepCount());
+        assertEquals(StepDetector.SPEED_NORMAL, status.getWalkingSpeed());
+    }
+
+    @Test
+    public void state_followsAlertPriority() {
+        assertEquals(DetectionStatus.State.SAFE, DetectionStatus.State.of(false, false, false));
+        assertEquals(DetectionStatus.State.PHONE_STATIC, DetectionStatus.State.of(false, false, true));
+        assertEquals(DetectionStatus.State.WALKING, DetectionStatus.State.of(false, true, true));
+        assertEquals(DetectionStatus.State.ALERT, DetectionStatus.State.of(true, true, true));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del buffer circular de traza: niveles, sobrescritura y volcado por ventana.
+ */
+public class DetectionTraceTest {
+
+    private static final long NANOS_PER_S = 1_000_000_000L;
+
+    @Test
+    public void eventsAboveLevel_areNotRecorded() {
+        DetectionTrace trace = new DetectionTrace(16, DetectionTrace.LEVEL_INFO);
+        trace.record(DetectionTrace.Event.PHONE_USAGE, 0, 1f, 2f, 3f, 1f, 0f, 1f);
+        assertEquals(0, trace.getWrittenCount());
+        assertFalse(trace.isEnabled(DetectionTrace.Event.PHONE_USAGE));
+
+        trace.record(DetectionTrace.Event.STEP_REJECTED, 0, 1f, 2f, 3f);
+        assertEquals(1, trace.getWrittenCount());
+    }
+
+    @Test
+    public void dump_formatsOnlyTheRequestedWindow() {
+        DetectionTrace trace = new DetectionTrace(16, DetectionTrace.LEVEL_DEBUG);
+        for (int i = 0; i < 10; i++) {
+            trace.record(DetectionTrace.Event.STEP_DETECTED, i * NANOS_PER_S,
+                    500, 2.5f, 1.2f, i + 1, DetectionTrace.speedCode(StepDetector.SPEED_FAST), 0f);
+        }
+
+        List<String> lines = new ArrayList<>();
+        int dumped = trace.dump(9 * NANOS_PER_S, 3 * NANOS_PER_S, line -> lines.add(line.toString()));
+
+        assertEquals(4, dumped); // t = 6, 7, 8, 9 s
+        assertTrue(lines.get(0), lines.get(0).contains("STEP_DETECTED"));
+        assertTrue(lines.get(0), lines.get(0).contains("Pasos: 7"));
+        assertTrue(lines.get(3), lines.get(3).contains("Velocidad: " + StepDetector.SPEED_FAST));
+    }
+
+    @Test
+    public void fullBuffer_keepsMostRecentRecords() {
+        DetectionTrace trace = new DetectionTrace(4, DetectionTrace.LEVEL_DEBUG);
+        for (int i = 0; i < 10; i++) {
+            trace.record(DetectionTrace.Event.ALERT, i, i, 0f, 0f);
+        }
+        List<String> lines = new ArrayList<>();
+        assertEquals(4, trace.dump(9, Long.MAX_VALUE, line -> lines.add(line.toString())));
+        assertTrue(lines.get(0), lines.get(0).contains("Alerta: 6"));
+        assertTrue(lines.get(3), lines.get(3).contains("Alerta: 9"));
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.sensorprojectv1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la cola persistente: orden, confirmación, recuperación tras un
+ * cierre (o una escritura cortada), registros dañados y tope de disco.
+ */
+public class DurableUploadQueueTest {
+
+    private static final long SEGMENT_BYTES = 256;
+    private static final long MAX_BYTES = 1024;
+
+    // Posición del segundo registro (el primero es "registro-0")
+    private static final long HEADER_BYTES_AND_FIRST = DurableUploadQueue.HEADER_BYTES + payload(0).length;
+
+    private File dir;
+    private DurableUploadQueue queue;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("upload_queue", "");
+        assertTrue(dir.delete());
+        queue = DurableUploadQueue.open(dir, SEGMENT_BYTES, MAX_BYTES);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        queue.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static byte[] payload(int n) {
+        return ("registro-" + n).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(DurableUploadQueue.Record record) {
+        return new String(record.payload, StandardCharsets.UTF_8);
+    }
+
+    private void reopen() throws IOException {
+        queue.close();
+        queue = DurableUploadQueue.open(dir, SEGMENT_BYTES, MAX_BYTES);
+    }
+
+    @Test
+    public void records_areDeliveredInOrderUntilCommitted() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, queue.append((byte) (i % 2), payload(i)));
+        }
+        assertTrue(queue.getSegmentCount() > 1);
+
+        for (int i = 0; i < 20; i++) {
+            DurableUploadQueue.Record record = queue.peek();
+            assertEquals(i, record.sequence);
+            assertEquals(i % 2, record.type);
+            // Sin confirmar se devuelve el mismo registro
+            assertEquals(i, queue.peek().sequence);
+            queue.commit(record.sequence);
+        }
+        assertNull(queue.peek());
+        assertEquals(0, queue.getPendingCount());
+        // Los segmentos confirmados se borran
+        assertEquals(1, queue.getSegmentCount());
+    }
+
+    @Test
+    public void reopen_resumesAtCommittedRecord() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        queue.commit(11);
+
+        reopen();
+        assertEquals(8, queue.getPendingCount());
+        assertEquals("registro-12", text(queue.peek()));
+
+        // Las secuencias siguen después de las existentes
+        assertEquals(20, queue.append((byte) 1, payload(20)));
+        queue.commit(19);
+        assertEquals("registro-20", text(queue.peek()));
+    }
+
+    @Test
+    public void tornWrite_isTruncatedOnReopen() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        queue.close();
+
+        // Escritura interrumpida: el último registro queda a medias
+        File segment = dir.listFiles((d, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        queue = DurableUploadQueue.open(dir, SEGMENT_BYTES, MAX_BYTES);
+        assertEquals(2, queue.getPendingCount());
+        assertEquals(2, queue.append((byte) 1, payload(9)));
+
+        reopen();
+        queue.commit(1);
+        assertEquals("registro-9", text(queue.peek()));
+    }
+
+    @Test
+    public void corruptRecord_isSkippedAndLaterRecordsKept() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        queue.close();
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(HEADER_BYTES_AND_FIRST + DurableUploadQueue.HEADER_BYTES);
+            file.write('X');
+        }
+
+        queue = DurableUploadQueue.open(dir, SEGMENT_BYTES, MAX_BYTES);
+        assertEquals(3, queue.getPendingCount());
+        queue.commit(queue.peek().sequence);
+        assertEquals("registro-2", text(queue.peek()));
+        assertEquals(1, queue.getDroppedRecords());
+    }
+
+    @Test
+    public void corruptLength_stopsRecoveryAtLastValidRecord() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        queue.close();
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(HEADER_BYTES_AND_FIRST);
+            file.write(0x7F);
+        }
+
+        queue = DurableUploadQueue.open(dir, SEGMENT_BYTES, MAX_BYTES);
+        assertEquals(1, queue.getPendingCount());
+        assertEquals("registro-0", text(queue.peek()));
+    }
+
+    @Test
+    public void recordDamagedWhileOpen_isSkipped() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        // Se daña el payload del registro 1 con la cola abierta
+        File segment = dir.listFiles((d, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(HEADER_BYTES_AND_FIRST + DurableUploadQueue.HEADER_BYTES);
+            file.write('X');
+        }
+
+        queue.commit(queue.peek().sequence);
+        assertEquals("registro-2", text(queue.peek()));
+        assertEquals(1, queue.getDroppedRecords());
+
+        // El salto queda confirmado en disco
+        reopen();
+        assertEquals("registro-2", text(queue.peek()));
+    }
+
+    @Test
+    public void damagedLength_dropsRestOfSegmentAndKeepsAppending() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+        File segment = dir.listFiles((d, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(HEADER_BYTES_AND_FIRST);
+            file.write(0x7F); // Largo imposible
+        }
+
+        queue.commit(queue.peek().sequence);
+        assertNull(queue.peek());
+        assertEquals(2, queue.getDroppedRecords());
+
+        // Lo nuevo va a un segmento legible
+        assertEquals(3, queue.append((byte) 1, payload(3)));
+        assertEquals("registro-3", text(queue.peek()));
+    }
+
+    @Test
+    public void diskCap_dropsOldestUncommittedSegments() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            queue.append((byte) 1, payload(i));
+        }
+
+        assertTrue(queue.getBytesOnDisk() <= MAX_BYTES);
+        assertTrue(queue.getDroppedRecords() > 0);
+        assertEquals(200, queue.getPendingCount() + queue.getDroppedRecords());
+        DurableUploadQueue.Record first = queue.peek();
+        assertEquals(queue.getDroppedRecords(), first.sequence);
+
+        // El descarte queda confirmado en disco
+        long dropped = queue.getDroppedRecords();
+        reopen();
+        assertEquals(dropped, queue.peek().sequence);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capSmallerThanTwoSegments_isRejected() throws IOException {
+        DurableUploadQueue.open(dir, SEGMENT_BYTES, SEGMENT_BYTES);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de los perfiles de rendimiento y su uso en el controlador de frecuencia.
+ */
+public class PerformanceProfileTest {
+
+    @Test
+    public void standard_keepsPreviousConstants() {
+        PerformanceProfile standard = PerformanceProfile.STANDARD;
+
+        assertEquals(SamplingRateController.Mode.ACTIVE.samplingPeriodUs,
+                standard.getSamplingPeriodUs(SamplingRateController.Mode.ACTIVE));
+        assertEquals(SamplingRateController.Mode.STATIONARY.samplingPeriodUs,
+                standard.getSamplingPeriodUs(SamplingRateController.Mode.STATIONARY));
+        assertEquals(StepDetector.SAMPLE_SIZE, standard.getStepWindowSize());
+        assertEquals(StepDetector.WARM_UP_TIME_MS, standard.warmUpTimeMs);
+        assertEquals(1000, standard.dataSendIntervalMs);
+    }
+
+    @Test
+    public void stepWindow_coversSameTimeAtEveryRate() {
+        assertEquals(12, PerformanceProfile.BATTERY_SAVER.getStepWindowSize());
+        assertEquals(50, PerformanceProfile.RESEARCH.getStepWindowSize());
+    }
+
+    @Test
+    public void fromKey_unknownFallsBackToStandard() {
+        for (PerformanceProfile profile : PerformanceProfile.values()) {
+            assertSame(profile, PerformanceProfile.fromKey(profile.key));
+        }
+        assertSame(PerformanceProfile.STANDARD, PerformanceProfile.fromKey("turbo"));
+        assertSame(PerformanceProfile.STANDARD, PerformanceProfile.fromKey(null));
+    }
+
+    @Test
+    public void samplingController_usesProfilePeriods() {
+        SamplingRateController controller = new SamplingRateController();
+        controller.setProfile(PerformanceProfile.BATTERY_SAVER);
+        assertEquals(40_000, controller.getSamplingPeriodUs());
+
+        // Pantalla apagada y sin actividad: periodo de reposo del perfil
+        controller.setScreenOn(false);
+        controller.onSample(0, false);
+        controller.onSample(SamplingRateController.IDLE_DELAY_NS + 1, false);
+        assertEquals(SamplingRateController.Mode.SCREEN_OFF_IDLE, controller.getMode());
+        assertEquals(100_000, controller.getSamplingPeriodUs());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del detector de uso del teléfono sin trigonometría.
+ */
+public class PhoneUsageDetectorTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final float G = 9.81f;
+
+    @Test
+    public void squaredComparisons_matchAtan2Reference() {
+        // Sin histéresis ni permanencia el detector es una función pura de la muestra
+        PhoneUsageDetector detector = new PhoneUsageDetector(0.2f, 0.2f, 20f, 85f, 0f, 0);
+        Random random = new Random(42);
+        int mismatches = 0;
+        for (int i = 0; i < 100_000; i++) {
+            float x = (random.nextFloat() * 2 - 1) * G;
+            float y = (random.nextFloat() * 2 - 1) * G;
+            float z = (random.nextFloat() * 2 - 1) * G;
+            detector.onSample(0f, 0f, 0f, x, y, z, i);
+
+            float pitch = (float) Math.toDegrees(Math.atan2(x, Math.sqrt(y * y + z * z)));
+            float roll = (float) Math.toDegrees(Math.atan2(y, z));
+            boolean expected = (Math.abs(pitch) > 20f && Math.abs(pitch) < 85f)
+                    || (Math.abs(roll) > 20f && Math.abs(roll) < 85f);
+            if (expected != detector.isOriented()) {
+                mismatches++;
+            }
+        }
+        // Solo pueden diferir muestras a un redondeo de float del borde de la banda
+        assertTrue("diferencias: " + mismatches, mismatches <= 5);
+    }
+
+    @Test
+    public void shortFlicker_isIgnoredByDwellTime() {
+        PhoneUsageDetector detector = new PhoneUsageDetector();
+        long t = 0;
+        // Plano sobre la mesa, con un giro de 100 ms
+        for (int i = 0; i < 50; i++, t += 20 * NANOS_PER_MS) {
+            float gyro = (i >= 10 && i < 15) ? 1.0f : 0f;
+            assertFalse(detector.onSample(gyro, 0f, 0f, 0f, 0f, G, t));
+        }
+        assertFalse(detector.isUsingPhone());
+        assertEquals(0, detector.getStateChanges());
+    }
+
+    @Test
+    public void sustainedTilt_changesStateOnceAfterDwell() {
+        PhoneUsageDetector detector = new PhoneUsageDetector();
+        // Inclinado ~45° en roll (teléfono en la mano, pantalla hacia el usuario)
+        float c = (float) (G / Math.sqrt(2));
+        long t = 0;
+        int changes = 0;
+        long changedAt = -1;
+        for (int i = 0; i < 50; i++, t += 20 * NANOS_PER_MS) {
+            if (detector.onSample(0f, 0f, 0f, 0f, c, c, t)) {
+                changes++;
+                changedAt = t;
+            }
+        }
+        assertEquals(1, changes);
+        assertTrue(detector.isUsingPhone());
+        assertEquals(PhoneUsageDetector.DEFAULT_MIN_DWELL_NS, changedAt);
+    }
+
+    @Test
+    public void tiltHysteresis_keepsStateNearBandEdge() {
+        PhoneUsageDetector detector = new PhoneUsageDetector(0.2f, 0.15f, 20f, 85f, 5f, 0);
+        detector.onSample(0f, 0f, 0f, 0f, tiltY(30), tiltZ(30), 0);
+        assertTrue(detector.isUsingPhone());
+        // 18° está fuera de la banda de entrada pero dentro de la de salida (15°)
+        assertFalse(detector.onSample(0f, 0f, 0f, 0f, tiltY(18), tiltZ(18), 1));
+        assertTrue(detector.isUsingPhone());
+        assertTrue(detector.onSample(0f, 0f, 0f, 0f, tiltY(10), tiltZ(10), 2));
+        assertFalse(detector.isUsingPhone());
+    }
+
+    private static float tiltY(double rollDeg) {
+        return (float) (G * Math.sin(Math.toRadians(rollDeg)));
+    }
+
+    private static float tiltZ(double rollDeg) {
+        return (float) (G * Math.cos(Math.toRadians(rollDeg)));
+    }
+}
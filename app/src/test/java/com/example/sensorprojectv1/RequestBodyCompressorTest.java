@@ -0,0 +1,95 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la compresión de cuerpos: formato, mínimo, activación por
+ * endpoint, reutilización de Deflater y contadores.
+ */
+public class RequestBodyCompressorTest {
+
+    private static final String BATCH = "/sensordata/batch";
+    private static final String SINGLE = "/sensordata";
+
+    private static byte[] jsonBatch(int samples) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < samples; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"acc_x\":").append(0.1 * i).append(",\"acc_y\":9.81,\"acc_z\":0.2")
+                    .append(",\"is_walking\":true,\"battery_status\":\"discharging\",\"recorded_at\":")
+                    .append(1_700_000_000_000L + i * 1000L).append('}');
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] inflate(byte[] data, int expectedLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        byte[] result = new byte[expectedLength];
+        int length = inflater.inflate(result);
+        assertTrue(inflater.finished());
+        inflater.end();
+        assertEquals(expectedLength, length);
+        return result;
+    }
+
+    @Test
+    public void enabledEndpoint_isWrittenAsZlibAndCounted() throws Exception {
+        RequestBodyCompressor compressor = new RequestBodyCompressor();
+        compressor.setEnabled(BATCH, true);
+        byte[] body = jsonBatch(60);
+
+        assertTrue(compressor.shouldCompress(BATCH, body.length));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.write(out, BATCH, body, true);
+
+        assertArrayEquals(body, inflate(out.toByteArray(), body.length));
+        RequestBodyCompressor.Stats stats = compressor.getStats(BATCH);
+        assertEquals(1, stats.compressedRequests);
+        assertEquals(body.length, stats.originalBytes);
+        assertEquals(out.size(), stats.wireBytes);
+        assertTrue(stats.getRatio() < 0.3);
+    }
+
+    @Test
+    public void smallBodyOrDisabledEndpoint_isSentAsIs() throws Exception {
+        RequestBodyCompressor compressor = new RequestBodyCompressor();
+        compressor.setEnabled(BATCH, true);
+
+        assertFalse(compressor.shouldCompress(BATCH, compressor.getMinBytes() - 1));
+        assertFalse(compressor.shouldCompress(SINGLE, 100_000));
+
+        byte[] body = jsonBatch(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.write(out, SINGLE, body, false);
+        assertArrayEquals(body, out.toByteArray());
+        assertEquals(0, compressor.getStats(SINGLE).compressedRequests);
+        assertEquals(body.length, compressor.getStats(SINGLE).skippedBytes);
+
+        compressor.setEnabled(BATCH, false);
+        assertFalse(compressor.shouldCompress(BATCH, 100_000));
+    }
+
+    @Test
+    public void deflaters_areReused() throws Exception {
+        RequestBodyCompressor compressor = new RequestBodyCompressor();
+        byte[] body = jsonBatch(30);
+        for (int i = 0; i < 20; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            compressor.write(out, BATCH, body, true);
+            // Un Deflater reutilizado produce lo mismo que uno nuevo
+            assertArrayEquals(body, inflate(out.toByteArray(), body.length));
+        }
+        assertEquals(1, compressor.getDeflatersCreated());
+        assertEquals(20, compressor.getStats(BATCH).compressedRequests);
+    }
+}
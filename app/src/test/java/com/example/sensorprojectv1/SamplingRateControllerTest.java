@@ -0,0 +1,137 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de las transiciones entre modos de muestreo (actividad y pantalla),
+ * con la histéresis de bajada y los contadores por modo.
+ */
+public class SamplingRateControllerTest {
+
+    private static final long NANOS_PER_S = 1_000_000_000L;
+    private static final long IDLE = SamplingRateController.IDLE_DELAY_NS;
+
+    private SamplingRateController controller;
+
+    @Before
+    public void setUp() {
+        controller = new SamplingRateController();
+    }
+
+    private void assertMode(SamplingRateController.Mode expected) {
+        assertEquals(expected, controller.getMode());
+    }
+
+    /**
+     * Pantalla encendida, caminando y después sin pasos hasta pasar a STATIONARY.
+     */
+    private long goStationary() {
+        controller.onSample(0, true);
+        assertFalse(controller.onSample(IDLE, false)); // justo en el límite: sigue activo
+        assertTrue(controller.onSample(IDLE + 1, false));
+        assertMode(SamplingRateController.Mode.STATIONARY);
+        return IDLE + 1;
+    }
+
+    @Test
+    public void active_dropsToStationaryOnlyAfterIdleDelay() {
+        assertMode(SamplingRateController.Mode.ACTIVE);
+        goStationary();
+        assertFalse(SamplingRateController.Mode.STATIONARY.gyroscopeEnabled);
+        assertEquals(25, SamplingRateController.Mode.STATIONARY.getSamplingRateHz());
+    }
+
+    @Test
+    public void stationary_returnsToActiveOnCandidateStep() {
+        long t = goStationary();
+        assertFalse(controller.onSample(t + NANOS_PER_S, false));
+        assertTrue(controller.onSample(t + 2 * NANOS_PER_S, true));
+        assertMode(SamplingRateController.Mode.ACTIVE);
+        assertTrue(SamplingRateController.Mode.ACTIVE.gyroscopeEnabled);
+        assertEquals(50, SamplingRateController.Mode.ACTIVE.getSamplingRateHz());
+    }
+
+    @Test
+    public void screenOffWhileWalking_keepsStepRateWithoutGyroscope() {
+        controller.onSample(0, true);
+        assertTrue(controller.setScreenOn(false));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_WALKING);
+        assertFalse(SamplingRateController.Mode.SCREEN_OFF_WALKING.gyroscopeEnabled);
+        assertEquals(50, SamplingRateController.Mode.SCREEN_OFF_WALKING.getSamplingRateHz());
+
+        // Siguen los pasos: no hay cambio
+        assertFalse(controller.onSample(NANOS_PER_S, true));
+    }
+
+    @Test
+    public void screenOffFromActiveWithoutSteps_goesCoarse() {
+        // ACTIVE solo por haber encendido la pantalla: la primera muestra no es un paso
+        controller.onSample(0, false);
+        assertMode(SamplingRateController.Mode.ACTIVE);
+
+        assertTrue(controller.setScreenOn(false));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE);
+        // Y no vuelve a subir con las muestras siguientes
+        assertFalse(controller.onSample(NANOS_PER_S, false));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE);
+    }
+
+    @Test
+    public void screenOffFromStationary_goesIdle() {
+        goStationary();
+        assertTrue(controller.setScreenOn(false));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE);
+        assertEquals(25, SamplingRateController.Mode.SCREEN_OFF_IDLE.getSamplingRateHz());
+    }
+
+    @Test
+    public void screenOffIdle_rampsUpOnCandidateStepAndBackDownAfterIdleDelay() {
+        controller.setScreenOn(false);
+        controller.onSample(0, false);
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE);
+
+        assertTrue(controller.onSample(NANOS_PER_S, true));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_WALKING);
+
+        assertFalse(controller.onSample(NANOS_PER_S + IDLE, false));
+        assertTrue(controller.onSample(NANOS_PER_S + IDLE + 1, false));
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE);
+    }
+
+    @Test
+    public void screenOn_alwaysReturnsToActive() {
+        controller.onSample(0, true);
+        controller.setScreenOn(false);
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_WALKING);
+        assertTrue(controller.setScreenOn(true));
+        assertMode(SamplingRateController.Mode.ACTIVE);
+
+        controller.setScreenOn(false);
+        assertMode(SamplingRateController.Mode.SCREEN_OFF_IDLE); // sin pasos desde que se encendió
+        assertTrue(controller.setScreenOn(true));
+        assertMode(SamplingRateController.Mode.ACTIVE);
+
+        // Recién encendida no baja hasta IDLE_DELAY_NS después de la primera muestra
+        long t = 100 * NANOS_PER_S;
+        controller.onSample(t, false);
+        assertFalse(controller.onSample(t + IDLE, false));
+        assertTrue(controller.onSample(t + IDLE + 1, false));
+        assertMode(SamplingRateController.Mode.STATIONARY);
+    }
+
+    @Test
+    public void repeatedNotifications_doNotCountTransitions() {
+        assertFalse(controller.setScreenOn(true));
+        controller.setScreenOn(false);
+        assertFalse(controller.setScreenOn(false));
+        controller.setScreenOn(true);
+
+        assertEquals(2, controller.getTotalTransitions());
+        assertEquals(1, controller.getTransitionCount(SamplingRateController.Mode.SCREEN_OFF_IDLE));
+        assertEquals(1, controller.getTransitionCount(SamplingRateController.Mode.ACTIVE));
+        assertEquals(0, controller.getTransitionCount(SamplingRateController.Mode.SCREEN_OFF_WALKING));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del formato por columnas: ida y vuelta contra el JSON de
+ * SensorPayload, tamaño y rechazo de cuerpos inválidos.
+ */
+public class SensorBatchCodecTest {
+
+    private static final long SESSION_ID = 4217;
+
+    private static JSONArray batch(int count) throws JSONException {
+        SensorPayload payload = new SensorPayload();
+        JSONArray samples = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            payload.accX = (float) Math.sin(i * 0.3) * 2.5f;
+            payload.accY = 9.81f + (float) Math.cos(i * 0.3);
+            payload.accZ = -0.42f;
+            payload.gyroX = 0.0123f * i;
+            payload.walking = i % 3 != 0;
+            payload.usingPhone = i % 2 == 0;
+            payload.walkingAndUsingPhone = payload.walking && payload.usingPhone;
+            payload.stepCount = i * 2;
+            payload.gravityZ = 9.806f;
+            payload.batteryLevel = 87 - i / 30;
+            payload.batteryStatus = i < 40 ? "discharging" : "charging";
+            payload.screenBrightness = 128;
+            payload.screenOn = true;
+            payload.recordedAt = 1_700_000_000_000L + i * 1000L;
+            samples.put(payload.toJson());
+        }
+        return samples;
+    }
+
+    @Test
+    public void roundTrip_keepsKeysTypesAndQuantizedValues() throws JSONException {
+        JSONArray samples = batch(60);
+        SensorBatchCodec.Batch decoded = SensorBatchCodec.decode(new SensorBatchCodec().encode(SESSION_ID, samples));
+
+        assertEquals(SESSION_ID, decoded.sessionId);
+        assertEquals(60, decoded.samples.length());
+        for (int i = 0; i < 60; i++) {
+            JSONObject expected = samples.getJSONObject(i);
+            JSONObject actual = decoded.samples.getJSONObject(i);
+            assertEquals(SESSION_ID, actual.getLong("id_sesion"));
+            assertEquals(expected.getDouble("acc_x"), actual.getDouble("acc_x"), 0.0005);
+            assertEquals(expected.getDouble("acc_y"), actual.getDouble("acc_y"), 0.0005);
+            assertEquals(expected.getDouble("gyro_x"), actual.getDouble("gyro_x"), 0.0005);
+            assertEquals(expected.getBoolean("is_walking"), actual.getBoolean("is_walking"));
+            assertEquals(expected.getInt("is_walking_using_phone"), actual.getInt("is_walking_using_phone"));
+            assertEquals(expected.getInt("step_count"), actual.getInt("step_count"));
+            assertEquals(expected.getString("battery_status"), actual.getString("battery_status"));
+            assertEquals(expected.getLong("recorded_at"), actual.getLong("recorded_at"));
+        }
+    }
+
+    @Test
+    public void encodedBatch_isMuchSmallerThanJson() throws JSONException {
+        JSONArray samples = batch(60);
+        SensorBatchCodec codec = new SensorBatchCodec();
+        byte[] encoded = codec.encode(SESSION_ID, samples);
+        int json = samples.toString().getBytes(StandardCharsets.UTF_8).length;
+
+        assertTrue(encoded.length * 5 < json);
+        assertTrue(codec.getSizeRatio() > 0 && codec.getSizeRatio() < 0.2);
+        assertEquals(1, codec.getBatches());
+    }
+
+    @Test
+    public void missingStatus_isDecodedWithoutKey() throws JSONException {
+        JSONArray samples = batch(2);
+        samples.getJSONObject(1).remove("battery_status");
+
+        JSONArray decoded = SensorBatchCodec.decode(new SensorBatchCodec().encode(SESSION_ID, samples)).samples;
+        assertTrue(decoded.getJSONObject(0).has("battery_status"));
+        assertFalse(decoded.getJSONObject(1).has("battery_status"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedBody_isRejected() throws JSONException {
+        byte[] encoded = new SensorBatchCodec().encode(SESSION_ID, batch(10));
+        byte[] truncated = new byte[encoded.length - 4];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        SensorBatchCodec.decode(truncated);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jsonBody_isRejected() {
+        SensorBatchCodec.decode("[{\"acc_x\":1}]".getBytes(StandardCharsets.UTF_8));
+    }
+}
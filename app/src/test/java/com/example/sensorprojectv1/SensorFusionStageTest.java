@@ -0,0 +1,77 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la alineación por timestamp y la tasa de salida de la etapa de fusión.
+ */
+public class SensorFusionStageTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    private static class Capture implements SensorFusionStage.Listener {
+        int count;
+        float gyroX;
+        long timestampNs;
+
+        @Override
+        public void onFusedSample(SensorFusionStage.FusedSample sample) {
+            count++;
+            gyroX = sample.gyroX;
+            timestampNs = sample.timestampNs;
+        }
+    }
+
+    @Test
+    public void gyroscopeEvents_doNotTriggerOutput() {
+        Capture capture = new Capture();
+        SensorFusionStage stage = new SensorFusionStage(0, capture);
+        for (int i = 0; i < 10; i++) {
+            stage.onGyroscope(1f, 0f, 0f, i * 20 * NANOS_PER_MS);
+        }
+        assertEquals(0, capture.count);
+        assertEquals(10, stage.getGyroscopeEventsIn());
+        assertEquals(0, stage.getSamplesOut());
+    }
+
+    @Test
+    public void gyroscope_isInterpolatedToAccelerometerTimestamp() {
+        Capture capture = new Capture();
+        SensorFusionStage stage = new SensorFusionStage(0, capture);
+        stage.onGyroscope(0f, 0f, 0f, 100 * NANOS_PER_MS);
+        stage.onGyroscope(2f, 0f, 0f, 120 * NANOS_PER_MS);
+        stage.onAccelerometer(0f, 0f, 9.81f, 0f, 0f, 0f, 115 * NANOS_PER_MS);
+
+        assertEquals(1, capture.count);
+        assertEquals(1.5f, capture.gyroX, 1e-6f);
+        assertEquals(1, stage.getInterpolatedSamples());
+    }
+
+    @Test
+    public void outputRate_isCappedByOutputPeriod() {
+        Capture capture = new Capture();
+        SensorFusionStage stage = new SensorFusionStage(40 * NANOS_PER_MS, capture);
+        // 2 s de acelerómetro a 50 Hz con jitter de ±1 ms y giroscopio a 50 Hz
+        for (int i = 0; i < 100; i++) {
+            long t = i * 20 * NANOS_PER_MS + (i % 2 == 0 ? NANOS_PER_MS : -NANOS_PER_MS);
+            stage.onGyroscope(0.1f, 0f, 0f, t + 5 * NANOS_PER_MS);
+            stage.onAccelerometer(0f, 0f, 9.81f, 0f, 0f, 0f, t);
+        }
+        assertEquals(100, stage.getAccelerometerEventsIn());
+        assertEquals(100, stage.getGyroscopeEventsIn());
+        assertEquals(50, stage.getSamplesOut());
+        assertEquals(50, capture.count);
+    }
+
+    @Test
+    public void disabledGyroscope_yieldsZeroAngularRate() {
+        Capture capture = new Capture();
+        SensorFusionStage stage = new SensorFusionStage(0, capture);
+        stage.onGyroscope(3f, 0f, 0f, 0);
+        stage.setGyroscopeEnabled(false);
+        stage.onAccelerometer(0f, 0f, 9.81f, 0f, 0f, 0f, 10 * NANOS_PER_MS);
+        assertEquals(0f, capture.gyroX, 0f);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.sensorprojectv1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la grabación binaria y su reproducción por la cadena de detección.
+ */
+public class SensorTraceReplayTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final long SAMPLE_PERIOD_NS = 20 * NANOS_PER_MS; // ~50 Hz
+    private static final float G = 9.81f;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("sensor-trace").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * 20 s caminando a 2 pasos/s con el teléfono en la mano (inclinado ~40° y
+     * girando un poco), con el giroscopio entrelazado con el acelerómetro.
+     */
+    private File recordWalkingWithPhone(String name, int bufferBytes) throws IOException {
+        return recordWalkingWithPhone(name, bufferBytes, PerformanceProfile.STANDARD, false);
+    }
+
+    private File recordWalkingWithPhone(String name, int bufferBytes, PerformanceProfile profile,
+            boolean batching) throws IOException {
+        File file = new File(dir, name);
+        try (SensorTraceRecorder recorder = SensorTraceRecorder.open(file, true, profile,
+                batching, 0L, bufferBytes, SensorTraceRecorder.DEFAULT_MAX_BYTES)) {
+            float gx = 0f;
+            float gy = (float) (G * Math.sin(Math.toRadians(40)));
+            float gz = (float) (G * Math.cos(Math.toRadians(40)));
+            recorder.recordGyroscopeEnabled(true, 0);
+            for (long t = 0; t < 20_000 * NANOS_PER_MS; t += SAMPLE_PERIOD_NS) {
+                float pulse = stepPulse(t, 500);
+                recorder.recordMotion(gx + pulse * gx / G, gy + pulse * gy / G, gz + pulse * gz / G,
+                        gx, gy, gz, t);
+                recorder.recordGyroscope(0.3f, 0.1f, 0f, t + SAMPLE_PERIOD_NS / 2);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void replay_detectsStepsPhoneUseAndAlert() throws IOException {
+        File file = recordWalkingWithPhone("caminata.strc", SensorTraceRecorder.DEFAULT_BUFFER_BYTES);
+        List<DetectionStatus.State> states = new ArrayList<>();
+        SensorTraceReplayer replayer = new SensorTraceReplayer(false);
+        replayer.setTransitionListener((t, from, to) -> states.add(to));
+
+        SensorTraceReplayer.Report report = replayer.replay(file);
+
+        assertTrue(report.fusedGravity);
+        assertEquals(1000, report.motionSamples);
+        assertEquals(1000, report.gyroscopeSamples);
+        assertFalse(report.truncated);
+        assertTrue("pasos: " + report.steps, report.steps >= 30 && report.steps <= 42);
+        assertEquals(1, report.alerts);
+        assertEquals(DetectionStatus.State.ALERT, states.get(states.size() - 1));
+        assertEquals(states.size(), report.stateTransitions);
+    }
+
+    @Test
+    public void replay_usesProfileAndBatchingFromHeader() throws IOException {
+        File file = recordWalkingWithPhone("lotes.strc", SensorTraceRecorder.DEFAULT_BUFFER_BYTES,
+                PerformanceProfile.RESEARCH, true);
+
+        SensorTraceReplayer.Report report = new SensorTraceReplayer(false).replay(file);
+
+        assertEquals(PerformanceProfile.RESEARCH, report.profile);
+        assertTrue(report.batching);
+        assertEquals(1000, report.motionSamples);
+        // En ráfagas de 1 s la detección corre menos veces, pero ve la misma caminata
+        assertTrue("pasos: " + report.steps, report.steps >= 30 && report.steps <= 42);
+        assertEquals(1, report.alerts);
+    }
+
+    @Test
+    public void replay_isDeterministicAcrossBufferSizes() throws IOException {
+        SensorTraceReplayer.Report large = new SensorTraceReplayer(false)
+                .replay(recordWalkingWithPhone("grande.strc", SensorTraceRecorder.DEFAULT_BUFFER_BYTES));
+        // Buffer chico: muchas escrituras parciales al FileChannel
+        SensorTraceReplayer.Report small = new SensorTraceReplayer(false)
+                .replay(recordWalkingWithPhone("chico.strc", SensorTraceRecorder.MOTION_BYTES * 3));
+
+        assertEquals(large.steps, small.steps);
+        assertEquals(large.alerts, small.alerts);
+        assertEquals(large.stateTransitions, small.stateTransitions);
+        assertEquals(large.phoneUsageChanges, small.phoneUsageChanges);
+    }
+
+    @Test
+    public void truncatedLastRecord_isReportedAndSkipped() throws IOException {
+        File file = recordWalkingWithPhone("truncada.strc", SensorTraceRecorder.DEFAULT_BUFFER_BYTES);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        SensorTraceReplayer.Report report = new SensorTraceReplayer(false).replay(file);
+
+        assertTrue(report.truncated);
+        assertEquals(999, report.gyroscopeSamples);
+    }
+
+    @Test
+    public void maxBytes_stopsRecording() throws IOException {
+        File file = new File(dir, "limite.strc");
+        long maxBytes = SensorTraceRecorder.HEADER_BYTES + 10L * SensorTraceRecorder.HARDWARE_STEP_BYTES;
+        SensorTraceRecorder recorder = SensorTraceRecorder.open(file, false, PerformanceProfile.STANDARD,
+                false, 0L, SensorTraceRecorder.DEFAULT_BUFFER_BYTES, maxBytes);
+        for (int i = 0; i < 20; i++) {
+            recorder.recordHardwareStep(i * 500 * NANOS_PER_MS);
+        }
+        recorder.close();
+
+        assertTrue(recorder.isFull());
+        assertEquals(10, recorder.getRecordCount());
+        assertEquals(maxBytes, file.length());
+
+        SensorTraceReplayer.Report report = new SensorTraceReplayer(true).replay(file);
+        assertEquals(10, report.hardwareSteps);
+        assertEquals(10, report.steps);
+    }
+
+    @Test(expected = IOException.class)
+    public void notATrace_isRejected() throws IOException {
+        File file = new File(dir, "otro.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[64]);
+        }
+        new SensorTraceReplayer(false).replay(file);
+    }
+
+    private static float stepPulse(long tNs, long periodMs) {
+        long phase = (tNs / NANOS_PER_MS) % periodMs;
+        if (phase >= 200) {
+            return 0f;
+        }
+        return (float) (4.0 * Math.sin(Math.PI * phase / 200.0));
+    }
+}
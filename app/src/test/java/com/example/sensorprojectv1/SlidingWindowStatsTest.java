@@ -0,0 +1,59 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compara las estadísticas incrementales contra el recorrido completo de la ventana.
+ */
+public class SlidingWindowStatsTest {
+
+    @Test
+    public void matchesFullRecomputation() {
+        for (int size : new int[] { 1, 25, 100, 200 }) {
+            SlidingWindowStats stats = new SlidingWindowStats(size);
+            float[] window = new float[size];
+            Random random = new Random(42);
+
+            for (int i = 0; i < 20_000; i++) {
+                float value = (float) (random.nextGaussian() * 2.0 + 9.81);
+                stats.add(value);
+                window[i % size] = value;
+
+                if (i % 97 == 0) {
+                    double mean = 0;
+                    for (float v : window) {
+                        mean += v;
+                    }
+                    mean /= size;
+                    double variance = 0;
+                    for (float v : window) {
+                        variance += (v - mean) * (v - mean);
+                    }
+                    variance /= size;
+
+                    assertEquals(mean, stats.getMean(), 1e-4);
+                    assertEquals(variance, stats.getVariance(), 1e-3);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void constantWindow_hasZeroVariance() {
+        SlidingWindowStats stats = new SlidingWindowStats(25);
+        for (int i = 0; i < 100; i++) {
+            stats.add(3.5f);
+        }
+        assertEquals(3.5f, stats.getMean(), 1e-6f);
+        assertEquals(0f, stats.getStdDev(), 1e-3f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyWindow() {
+        new SlidingWindowStats(0);
+    }
+}
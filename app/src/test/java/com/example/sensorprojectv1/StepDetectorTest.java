@@ -0,0 +1,150 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas locales del motor de detección de pasos con señales sintéticas.
+ */
+public class StepDetectorTest {
+
+    private static final float GRAVITY = 9.81f;
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final long SAMPLE_PERIOD_NS = 20 * NANOS_PER_MS; // ~50 Hz (SENSOR_DELAY_GAME)
+
+    @Test
+    public void phoneAtRest_detectsNoSteps() {
+        StepDetector detector = new StepDetector();
+        long t = 0;
+        for (int i = 0; i < 500; i++, t += SAMPLE_PERIOD_NS) {
+            detector.addSample(0f, 0f, GRAVITY, t);
+        }
+        assertEquals(0, detector.getStepCount());
+        assertFalse(detector.isWalking());
+    }
+
+    @Test
+    public void periodicVerticalSignal_detectsSteps() {
+        StepDetector detector = new StepDetector();
+        // 10 s a 2 pasos/s; los primeros 2 s son warm-up
+        long t = 0;
+        for (int i = 0; i < 500; i++, t += SAMPLE_PERIOD_NS) {
+            detector.addSample(0f, 0f, GRAVITY + stepPulse(t, 500), t);
+        }
+        int steps = detector.getStepCount();
+        assertTrue("pasos detectados: " + steps, steps >= 10 && steps <= 18);
+        assertTrue(detector.isWalking());
+    }
+
+    @Test
+    public void stepInterval_usesSampleTimestamps() {
+        // La cadencia se calcula con el timestamp de muestreo (ns desde el arranque),
+        // independientemente de cuándo se entregue o procese el evento
+        StepDetector detector = new StepDetector();
+        long t = 5_000_000_000L;
+        for (int i = 0; i < 500; i++, t += SAMPLE_PERIOD_NS) {
+            detector.addSample(0f, 0f, GRAVITY + stepPulse(t, 700), t);
+        }
+        assertTrue(detector.getStepCount() > 0);
+        assertEquals(700, detector.getLastStepIntervalMs(), 40);
+    }
+
+    @Test
+    public void batchApi_matchesSampleBySample() {
+        int n = 600;
+        float[] x = new float[n];
+        float[] y = new float[n];
+        float[] z = new float[n];
+        long[] t = new long[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = i * SAMPLE_PERIOD_NS;
+            x[i] = 0.3f;
+            y[i] = (float) (0.5 * Math.cos(i * 0.1));
+            z[i] = GRAVITY + stepPulse(t[i], 600);
+        }
+
+        StepDetector single = new StepDetector();
+        for (int i = 0; i < n; i++) {
+            single.addSample(x[i], y[i], z[i], t[i]);
+        }
+
+        StepDetector batch = new StepDetector();
+        int steps = batch.addSamples(x, y, z, t, 0, 250);
+        steps += batch.addSamples(x, y, z, t, 250, n - 250);
+
+        assertEquals(single.getStepCount(), batch.getStepCount());
+        assertEquals(single.getStepCount(), steps);
+        assertEquals(single.getVariance(), batch.getVariance(), 0f);
+    }
+
+    @Test
+    public void fusedGravity_detectsStepsWithTiltedPhone() {
+        // Gravedad entregada por TYPE_GRAVITY: el teléfono inclinado 45° no requiere
+        // que el filtro por software converja antes de proyectar sobre la vertical
+        float g = (float) (GRAVITY / Math.sqrt(2));
+        StepDetector detector = new StepDetector();
+        long t = 0;
+        for (int i = 0; i < 500; i++, t += SAMPLE_PERIOD_NS) {
+            float pulse = (float) (stepPulse(t, 500) / Math.sqrt(2));
+            detector.addSample(0f, g + pulse, g + pulse, 0f, g, g, t);
+        }
+        int steps = detector.getStepCount();
+        assertTrue("pasos detectados: " + steps, steps >= 10 && steps <= 18);
+        assertEquals(g, detector.getGravityY(), 0f);
+    }
+
+    @Test
+    public void fusedBatchApi_matchesSampleBySample() {
+        int n = 500;
+        float[] x = new float[n];
+        float[] y = new float[n];
+        float[] z = new float[n];
+        float[] gx = new float[n];
+        float[] gy = new float[n];
+        float[] gz = new float[n];
+        long[] t = new long[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = i * SAMPLE_PERIOD_NS;
+            gz[i] = GRAVITY;
+            z[i] = GRAVITY + stepPulse(t[i], 600);
+        }
+
+        StepDetector single = new StepDetector();
+        for (int i = 0; i < n; i++) {
+            single.addSample(x[i], y[i], z[i], gx[i], gy[i], gz[i], t[i]);
+        }
+
+        StepDetector batch = new StepDetector();
+        int steps = batch.addSamples(x, y, z, gx, gy, gz, t, 0, n);
+
+        assertTrue(single.getStepCount() > 0);
+        assertEquals(single.getStepCount(), steps);
+        assertEquals(single.getVariance(), batch.getVariance(), 0f);
+    }
+
+    @Test
+    public void reset_clearsState() {
+        StepDetector detector = new StepDetector();
+        long t = 0;
+        for (int i = 0; i < 500; i++, t += SAMPLE_PERIOD_NS) {
+            detector.addSample(0f, 0f, GRAVITY + stepPulse(t, 500), t);
+        }
+        assertTrue(detector.getStepCount() > 0);
+        detector.reset();
+        assertEquals(0, detector.getStepCount());
+        assertFalse(detector.isWalking());
+        assertEquals(StepDetector.SPEED_NONE, detector.getWalkingSpeed());
+    }
+
+    /**
+     * Impacto vertical de un paso: medio seno de 200 ms al inicio de cada periodo.
+     */
+    private static float stepPulse(long tNs, long periodMs) {
+        long phase = (tNs / NANOS_PER_MS) % periodMs;
+        if (phase >= 200) {
+            return 0f;
+        }
+        return (float) (4.0 * Math.sin(Math.PI * phase / 200.0));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de las fuentes de pasos intercambiables y del estado de caminata compartido.
+ */
+public class StepSourceTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    @Test
+    public void hardwareSteps_driveSharedWalkingState() {
+        HardwareStepSource source = new HardwareStepSource();
+        long t = 1_000 * NANOS_PER_MS;
+        for (int i = 0; i < 10; i++, t += 450 * NANOS_PER_MS) {
+            assertTrue(source.onHardwareStep(t));
+        }
+        WalkingStateTracker state = source.getWalkingState();
+        assertEquals(10, state.getStepCount());
+        assertTrue(state.isWalking());
+        assertEquals(StepDetector.SPEED_FAST, state.getWalkingSpeed()); // ~133 pasos/min
+        assertEquals(450, state.getLastStepIntervalMs());
+
+        // Sin pasos durante 3 s las muestras de movimiento marcan la detención
+        source.onMotionSample(0f, 0f, 9.81f, 0f, 0f, 9.81f, t + 3_000 * NANOS_PER_MS);
+        assertFalse(state.isWalking());
+        assertEquals(StepDetector.SPEED_NONE, state.getWalkingSpeed());
+    }
+
+    @Test
+    public void walkingState_rejectsImpossibleIntervals() {
+        WalkingStateTracker state = new WalkingStateTracker();
+        long t = 0;
+        assertTrue(state.onStep(t));
+        assertFalse(state.onStep(t + 100 * NANOS_PER_MS)); // < MIN_STEP_INTERVAL
+        assertEquals(1, state.getStepCount());
+        assertEquals(1, state.getRejectedSteps());
+    }
+
+    @Test
+    public void comparisonMode_reportsPrimaryAndMeasuresDifference() {
+        HardwareStepSource hardware = new HardwareStepSource();
+        SoftwareStepSource software = new SoftwareStepSource(new StepDetector(), false);
+        ComparisonStepSource comparison = new ComparisonStepSource(hardware, software);
+
+        long t = 0;
+        for (int i = 0; i < 4; i++, t += 500 * NANOS_PER_MS) {
+            comparison.onHardwareStep(t);
+        }
+        assertTrue(comparison.usesHardwareStepDetector());
+        assertSame(hardware.getWalkingState(), comparison.getWalkingState());
+        assertEquals(4, comparison.getWalkingState().getStepCount());
+        assertEquals(4, comparison.getStepDifference());
+
+        comparison.reset();
+        assertEquals(0, comparison.getStepDifference());
+    }
+
+    @Test
+    public void hardwareSteps_doNotReportStalePeakDetectorSignals() throws Exception {
+        StepDetector stepDetector = new StepDetector();
+        DetectionTrace trace = new DetectionTrace(64, DetectionTrace.LEVEL_INFO);
+        DetectionPipeline pipeline = new DetectionPipeline(stepDetector,
+                new SoftwareStepSource(stepDetector, true), true, trace,
+                DetectionPipeline.DEFAULT_FUSION_PERIOD_NS, new DetectionPipeline.Listener() {
+                    @Override
+                    public void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking) {
+                    }
+
+                    @Override
+                    public void onDetection(long timestampNs) {
+                    }
+
+                    @Override
+                    public void onAlert(long timestampNs) {
+                    }
+                });
+
+        // El detector de picos corre un rato y queda con valores
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(500);
+        new GaitSignalGenerator(new GaitSignalGenerator.Config()).next(chunk);
+        for (int i = 0; i < chunk.size; i++) {
+            pipeline.onMotionSample(chunk.accX[i], chunk.accY[i], chunk.accZ[i],
+                    chunk.gravityX[i], chunk.gravityY[i], chunk.gravityZ[i], chunk.timestamps[i]);
+        }
+        assertTrue(stepDetector.getDynamicThreshold() > 0f);
+
+        // Cambio al sensor hub con el teléfono vertical
+        pipeline.setStepSource(new HardwareStepSource());
+        long t = chunk.timestamps[chunk.size - 1];
+        for (int i = 0; i < 4; i++) {
+            t += 500 * NANOS_PER_MS;
+            pipeline.onMotionSample(0f, 10.81f, 0f, 0f, 9.81f, 0f, t);
+            pipeline.onHardwareStep(t);
+        }
+        assertNull(pipeline.getActiveStepDetector());
+
+        List<String> lines = new ArrayList<>();
+        trace.dump(t, 0, line -> lines.add(line.toString()));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).contains("STEP_DETECTED"));
+        assertTrue(lines.get(0), lines.get(0).contains("Peak: - | Threshold: -"));
+
+        SensorPayload payload = new SensorPayload();
+        payload.setDetection(pipeline);
+        JSONObject json = payload.toJson();
+        assertFalse(json.has("dynamic_threshold"));
+        assertFalse(json.has("std_dev"));
+        // Vertical y gravedad de la etapa de fusión, no del detector
+        assertEquals(9.81, json.getDouble("gravity_y"), 1e-3);
+        assertEquals(0.0, json.getDouble("gravity_z"), 1e-3);
+        assertEquals(1.0, json.getDouble("vertical_acceleration"), 1e-3);
+
+        // El contador de muestras avanza con el sensor hub; la varianza del
+        // estado de detección tampoco sale del detector de picos
+        assertEquals(chunk.size + 4, pipeline.getMotionSampleCount());
+        trace.setLevel(DetectionTrace.LEVEL_DEBUG);
+        t += 500 * NANOS_PER_MS;
+        pipeline.onMotionSample(0f, 10.81f, 0f, 0f, 9.81f, 0f, t);
+        lines.clear();
+        trace.dump(t, 0, line -> lines.add(line.toString()));
+        String status = null;
+        for (String line : lines) {
+            if (line.contains("DETECTION_STATUS")) {
+                status = line;
+            }
+        }
+        assertNotNull(lines.toString(), status);
+        assertTrue(status, status.contains("Varianza: -"));
+    }
+
+    @Test
+    public void activeStepDetector_isThePrimarySources() {
+        StepDetector detector = new StepDetector();
+        SoftwareStepSource software = new SoftwareStepSource(detector, false);
+        HardwareStepSource hardware = new HardwareStepSource();
+
+        assertSame(detector, software.getStepDetector());
+        assertNull(hardware.getStepDetector());
+        assertNull(new ComparisonStepSource(hardware, software).getStepDetector());
+        assertSame(detector, new ComparisonStepSource(software, hardware).getStepDetector());
+    }
+}
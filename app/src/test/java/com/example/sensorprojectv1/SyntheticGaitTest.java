@@ -0,0 +1,131 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Detectores contra caminatas sintéticas (GaitSignalGenerator, de :fixtures):
+ * banda de orientación de PhoneUsageDetector y precisión/recall de
+ * StepDetector en un barrido de cadencia, ruido e inclinación.
+ */
+public class SyntheticGaitTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final int SAMPLES = 3000; // 60 s a 50 Hz
+
+    /**
+     * Un punto del barrido con sus mínimos. Los mínimos quedan unos puntos por
+     * debajo de lo medido con la semilla por defecto: una regresión del
+     * detector los rompe, el ruido de la semilla no. El recall nunca llega a 1
+     * porque los primeros pasos se usan para confirmar la caminata.
+     */
+    private static class SweepPoint {
+        final float cadenceSpm;
+        final float accNoise;
+        final float tiltDeg;
+        final float minPrecision;
+        final float minRecall;
+
+        SweepPoint(float cadenceSpm, float accNoise, float tiltDeg, float minPrecision, float minRecall) {
+            this.cadenceSpm = cadenceSpm;
+            this.accNoise = accNoise;
+            this.tiltDeg = tiltDeg;
+            this.minPrecision = minPrecision;
+            this.minRecall = minRecall;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f ppm, ruido %.2f m/s², %.0f°", cadenceSpm, accNoise, tiltDeg);
+        }
+    }
+
+    // Cadencia lenta, normal y rápida × ruido bajo, alto y extremo × teléfono
+    // casi plano, en la mano y vertical
+    private static final SweepPoint[] SWEEP = {
+            new SweepPoint(70f, 0.15f, 10f, 0.95f, 0.94f),
+            new SweepPoint(70f, 0.15f, 40f, 0.95f, 0.94f),
+            new SweepPoint(70f, 0.15f, 90f, 0.95f, 0.94f),
+            new SweepPoint(70f, 0.5f, 10f, 0.95f, 0.94f),
+            new SweepPoint(70f, 0.5f, 40f, 0.95f, 0.94f),
+            new SweepPoint(70f, 0.5f, 90f, 0.95f, 0.94f),
+            // Con ruido extremo, a cadencia lenta aparecen picos falsos entre pasos
+            new SweepPoint(70f, 0.8f, 10f, 0.90f, 0.90f),
+            new SweepPoint(70f, 0.8f, 40f, 0.90f, 0.90f),
+            new SweepPoint(70f, 0.8f, 90f, 0.90f, 0.90f),
+            new SweepPoint(110f, 0.15f, 10f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.15f, 40f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.15f, 90f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.5f, 10f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.5f, 40f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.5f, 90f, 0.95f, 0.93f),
+            new SweepPoint(110f, 0.8f, 10f, 0.95f, 0.92f),
+            new SweepPoint(110f, 0.8f, 40f, 0.95f, 0.92f),
+            new SweepPoint(110f, 0.8f, 90f, 0.95f, 0.92f),
+            new SweepPoint(150f, 0.15f, 10f, 0.95f, 0.93f),
+            new SweepPoint(150f, 0.15f, 40f, 0.95f, 0.93f),
+            new SweepPoint(150f, 0.15f, 90f, 0.95f, 0.93f),
+            // A cadencia rápida el ruido tapa pasos: baja el recall, no la precisión
+            new SweepPoint(150f, 0.5f, 10f, 0.95f, 0.87f),
+            new SweepPoint(150f, 0.5f, 40f, 0.95f, 0.87f),
+            new SweepPoint(150f, 0.5f, 90f, 0.95f, 0.87f),
+            new SweepPoint(150f, 0.8f, 10f, 0.95f, 0.75f),
+            new SweepPoint(150f, 0.8f, 40f, 0.95f, 0.75f),
+            new SweepPoint(150f, 0.8f, 90f, 0.95f, 0.75f),
+    };
+
+    @Test
+    public void tilt_controlsPhoneUsageOrientationBand() {
+        assertEquals(true, orientedAt(40f));
+        assertEquals(false, orientedAt(5f)); // casi plano sobre la mesa
+        assertEquals(false, orientedAt(89f)); // casi vertical (en el bolsillo)
+    }
+
+    private static boolean orientedAt(float tiltDeg) {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.tiltDeg = tiltDeg;
+        config.cadenceSpm = 0f;
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(100);
+        new GaitSignalGenerator(config).next(chunk);
+
+        PhoneUsageDetector detector = new PhoneUsageDetector();
+        int i = chunk.size - 1;
+        detector.onSample(0f, 0f, 0f, chunk.gravityX[i], chunk.gravityY[i], chunk.gravityZ[i],
+                chunk.timestamps[i]);
+        return detector.isOriented();
+    }
+
+    @Test
+    public void stepDetector_meetsPrecisionAndRecallAcrossSweep() {
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(SAMPLES);
+        long[] detected = new long[SAMPLES];
+        StringBuilder failures = new StringBuilder();
+
+        for (SweepPoint point : SWEEP) {
+            GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+            config.cadenceSpm = point.cadenceSpm;
+            config.accNoise = point.accNoise;
+            config.tiltDeg = point.tiltDeg;
+            new GaitSignalGenerator(config).next(chunk);
+
+            StepDetector detector = new StepDetector();
+            int count = 0;
+            for (int i = 0; i < chunk.size; i++) {
+                if (detector.addSample(chunk.accX[i], chunk.accY[i], chunk.accZ[i],
+                        chunk.gravityX[i], chunk.gravityY[i], chunk.gravityZ[i], chunk.timestamps[i])) {
+                    detected[count++] = chunk.timestamps[i];
+                }
+            }
+
+            StepAccuracy accuracy = new StepAccuracy(100 * NANOS_PER_MS, 400 * NANOS_PER_MS);
+            accuracy.match(chunk.stepTimestamps, chunk.steps, detected, count);
+            if (accuracy.getPrecision() < point.minPrecision || accuracy.getRecall() < point.minRecall) {
+                failures.append('\n').append(point).append(": ").append(accuracy);
+            }
+        }
+
+        // Se informan todos los puntos que fallan, no solo el primero
+        assertEquals("Puntos bajo el mínimo:", "", failures.toString());
+    }
+}
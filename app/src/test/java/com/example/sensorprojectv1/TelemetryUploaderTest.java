@@ -0,0 +1,113 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del armado de lotes de telemetría: cuándo se envía y a qué sesión.
+ */
+public class TelemetryUploaderTest {
+
+    private final List<JSONArray> batches = new ArrayList<>();
+    private final List<Long> sessions = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private TelemetryUploader uploader;
+
+    @Before
+    public void setUp() {
+        uploader = new TelemetryUploader(3, 60_000, (sessionId, samples, token) -> {
+            sessions.add(sessionId);
+            batches.add(samples);
+            tokens.add(token);
+        });
+    }
+
+    private static JSONObject sample(int n) throws JSONException {
+        return new JSONObject().put("n", n);
+    }
+
+    @Test
+    public void fullBatch_isSentInOneRequest() throws JSONException {
+        for (int i = 0; i < 7; i++) {
+            uploader.add(sample(i), 10, "token", i * 1000L);
+        }
+
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.get(0).length());
+        assertEquals(3, batches.get(1).getJSONObject(0).getInt("n"));
+        assertEquals(1, uploader.getPendingCount());
+        assertEquals(2, uploader.getFlushCount(TelemetryUploader.FlushReason.SIZE));
+    }
+
+    @Test
+    public void oldSample_isSentByAge() throws JSONException {
+        uploader.add(sample(0), 10, null, 0);
+        uploader.poll(59_999);
+        assertTrue(batches.isEmpty());
+
+        uploader.poll(60_000);
+        assertEquals(1, batches.size());
+        assertEquals(1, uploader.getFlushCount(TelemetryUploader.FlushReason.AGE));
+
+        // La espera cuenta desde la primera muestra del lote siguiente
+        uploader.add(sample(1), 10, null, 70_000);
+        uploader.poll(120_000);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void millisUntilAgeFlush_countsFromOldestPendingSample() throws JSONException {
+        assertEquals(-1, uploader.getMillisUntilAgeFlush(0));
+
+        uploader.add(sample(0), 10, null, 1000);
+        uploader.add(sample(1), 10, null, 20_000);
+        assertEquals(41_000, uploader.getMillisUntilAgeFlush(20_000));
+        assertEquals(0, uploader.getMillisUntilAgeFlush(90_000));
+
+        uploader.poll(61_000);
+        assertEquals(-1, uploader.getMillisUntilAgeFlush(61_000));
+    }
+
+    @Test
+    public void stateTransition_flushesPendingSamples() throws JSONException {
+        uploader.add(sample(0), 10, null, 0);
+        uploader.add(sample(1), 10, null, 1000);
+        uploader.onStateTransition();
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).length());
+
+        // Sin pendientes no hay petición vacía
+        uploader.onStateTransition();
+        uploader.flush();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void sessionOrTokenChange_keepsBatchesSeparate() throws JSONException {
+        uploader.add(sample(0), 10, null, 0);
+        uploader.add(sample(1), 11, null, 1000);
+        uploader.add(sample(2), 11, "token", 2000);
+        uploader.flush();
+
+        assertEquals(3, batches.size());
+        assertEquals(Long.valueOf(10), sessions.get(0));
+        assertEquals(Long.valueOf(11), sessions.get(1));
+        assertNull(tokens.get(1));
+        assertEquals("token", tokens.get(2));
+        assertEquals(2, uploader.getFlushCount(TelemetryUploader.FlushReason.SESSION));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyBatchSize_isRejected() {
+        uploader.configure(0, 1000);
+    }
+}
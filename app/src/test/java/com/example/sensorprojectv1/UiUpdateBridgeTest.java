@@ -0,0 +1,147 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del canal de actualización de la UI con un planificador manual.
+ */
+public class UiUpdateBridgeTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+    private static final long FRAME_NS = 16 * NANOS_PER_MS;
+
+    private int scheduledFrames = 0;
+    private final List<Long> scheduledDelays = new ArrayList<>();
+    private final List<String> rendered = new ArrayList<>();
+
+    private UiUpdateBridge newBridge(long minIntervalNs) {
+        UiUpdateBridge.FrameScheduler scheduler = (bridge, delayMs) -> {
+            scheduledFrames++;
+            scheduledDelays.add(delayMs);
+        };
+        return new UiUpdateBridge(scheduler, (field, text) -> rendered.add(field + ":" + text), minIntervalNs);
+    }
+
+    @Test
+    public void manyPostsBetweenFrames_renderOnlyLatestValue() {
+        UiUpdateBridge bridge = newBridge(0);
+        for (int i = 1; i <= 10; i++) {
+            bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, i, 0f, 9.81f);
+        }
+        assertEquals("Un solo frame pedido para toda la ráfaga", 1, scheduledFrames);
+
+        bridge.onFrame(FRAME_NS);
+        assertEquals(1, rendered.size());
+        assertTrue(rendered.get(0).contains("X: 10.000"));
+        assertEquals(9, bridge.getCoalescedUpdates());
+        assertEquals(10, bridge.getPostedUpdates());
+    }
+
+    @Test
+    public void framesCloserThanMinInterval_arePostponed() {
+        UiUpdateBridge bridge = newBridge(UiUpdateBridge.DEFAULT_MIN_INTERVAL_NS);
+        long frame = FRAME_NS;
+        int flushes = 0;
+        // 1 segundo con un evento por frame a 60 Hz
+        for (int i = 0; i < 60; i++) {
+            bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, i * 0.01f, 0f, 0f);
+            int before = rendered.size();
+            bridge.onFrame(frame);
+            if (rendered.size() > before) {
+                flushes++;
+            }
+            frame += FRAME_NS;
+        }
+        assertTrue("volcados: " + flushes, flushes <= 10);
+        assertTrue(bridge.getCoalescedUpdates() >= 50);
+    }
+
+    @Test
+    public void unchangedText_skipsRender() {
+        UiUpdateBridge bridge = newBridge(0);
+        bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, 0.1f, 0.2f, 0.3f);
+        bridge.onFrame(FRAME_NS);
+        // Diferencia por debajo de la precisión mostrada
+        bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, 0.1001f, 0.2f, 0.3f);
+        bridge.onFrame(2 * FRAME_NS);
+
+        assertEquals(1, rendered.size());
+        assertEquals(1, bridge.getSkippedUnchanged());
+    }
+
+    @Test
+    public void invalidate_redrawsLastValues() {
+        UiUpdateBridge bridge = newBridge(0);
+        bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, 1f, 2f, 3f);
+        bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, 4f, 5f, 6f);
+        bridge.onFrame(FRAME_NS);
+        assertEquals(2, rendered.size());
+
+        bridge.invalidate();
+        bridge.onFrame(2 * FRAME_NS);
+        assertEquals(4, rendered.size());
+        assertEquals(rendered.get(0), rendered.get(2));
+        assertEquals(0, bridge.getCoalescedUpdates());
+    }
+
+    @Test
+    public void throttledFrame_schedulesOneDelayedFrame() {
+        UiUpdateBridge bridge = newBridge(UiUpdateBridge.DEFAULT_MIN_INTERVAL_NS);
+        bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, 1f, 2f, 3f);
+        bridge.onFrame(FRAME_NS);
+        assertEquals(1, rendered.size());
+
+        bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, 4f, 5f, 6f);
+        assertEquals(2, scheduledFrames);
+        bridge.onFrame(2 * FRAME_NS);
+        assertEquals(1, rendered.size());
+        // Un solo frame más, demorado lo que falta de los 100 ms
+        assertEquals(3, scheduledFrames);
+        assertEquals(Long.valueOf(84), scheduledDelays.get(2));
+
+        // Los eventos que llegan mientras tanto no piden más frames
+        bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, 7f, 8f, 9f);
+        assertEquals(3, scheduledFrames);
+
+        bridge.onFrame(FRAME_NS + UiUpdateBridge.DEFAULT_MIN_INTERVAL_NS);
+        assertEquals(2, rendered.size());
+        assertTrue(rendered.get(1).contains("X: 7.000"));
+    }
+
+    @Test
+    public void detachedTarget_keepsValuesWithoutFrames() {
+        UiUpdateBridge bridge = newBridge(0);
+        bridge.setTargetAttached(false);
+        bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, 1f, 2f, 3f);
+        bridge.post(UiUpdateBridge.FIELD_ACCELEROMETER, 4f, 5f, 6f);
+        assertEquals(0, scheduledFrames);
+
+        bridge.setTargetAttached(true);
+        assertEquals(1, scheduledFrames);
+        bridge.onFrame(FRAME_NS);
+        assertEquals(2, rendered.size());
+    }
+
+    @Test
+    public void frameAfterDetach_rendersNothing() {
+        UiUpdateBridge bridge = newBridge(0);
+        bridge.post(UiUpdateBridge.FIELD_GYROSCOPE, 1f, 2f, 3f);
+        bridge.setTargetAttached(false);
+        bridge.onFrame(FRAME_NS);
+        assertEquals(0, rendered.size());
+
+        // Sin frame pendiente: al volver el destino se pide uno nuevo y se
+        // redibujan todos los campos
+        bridge.setTargetAttached(true);
+        assertEquals(2, scheduledFrames);
+        bridge.onFrame(2 * FRAME_NS);
+        assertEquals(2, rendered.size());
+        assertTrue(rendered.toString(), rendered.get(1).startsWith(UiUpdateBridge.FIELD_GYROSCOPE + ":"));
+        assertTrue(rendered.get(1).contains("X: 1.000"));
+    }
+}
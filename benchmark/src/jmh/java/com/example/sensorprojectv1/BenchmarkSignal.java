@@ -0,0 +1,45 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Señal sintética para los benchmarks: caminata a 2 pasos/s con el teléfono en
+ * la mano, generada con {@link GaitSignalGenerator} (inclinación, ruido y
+ * giroscopio por defecto). Se precalcula un ciclo y los benchmarks lo
+ * recorren en bucle con timestamps siempre crecientes.
+ */
+final class BenchmarkSignal {
+
+    static final long SAMPLE_PERIOD_NS = 20_000_000L; // ~50 Hz
+    static final int LENGTH = 1000; // 20 s
+
+    final float[] accX;
+    final float[] accY;
+    final float[] accZ;
+    final float[] gravityX;
+    final float[] gravityY;
+    final float[] gravityZ;
+    final float[] gyroX;
+    final float[] gyroY;
+    final float[] gyroZ;
+
+    BenchmarkSignal() {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.sampleRateHz = (int) (1_000_000_000L / SAMPLE_PERIOD_NS);
+        // Pasos cada 25 muestras y giroscopio cada 40, sin jitter: el ciclo de
+        // LENGTH muestras cierra sin un salto al volver al principio
+        config.cadenceSpm = 120f;
+        config.cadenceJitter = 0f;
+        config.gyroFrequencyHz = 1.25f;
+
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(LENGTH);
+        new GaitSignalGenerator(config).next(chunk);
+        accX = chunk.accX;
+        accY = chunk.accY;
+        accZ = chunk.accZ;
+        gravityX = chunk.gravityX;
+        gravityY = chunk.gravityY;
+        gravityZ = chunk.gravityZ;
+        gyroX = chunk.gyroX;
+        gyroY = chunk.gyroY;
+        gyroZ = chunk.gyroZ;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sensorprojectv1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Generación del estado de detección: la instantánea publicada en la UI (sin
+ * cambios y con un contador que cambia) y la cadena completa por muestra, como
+ * la ejecuta MainActivity (pasos, fusión, uso del teléfono, detección combinada
+ * y traza en nivel DEBUG).
+ */
+@State(Scope.Thread)
+public class DetectionStatusBenchmark {
+
+    private final BenchmarkSignal signal = new BenchmarkSignal();
+    private DetectionStatus status;
+    private DetectionPipeline pipeline;
+    private int steps;
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        status = DetectionStatus.INITIAL.with(false, true, true, StepDetector.SPEED_NORMAL, 10, 0);
+        StepDetector stepDetector = new StepDetector();
+        pipeline = new DetectionPipeline(stepDetector, new SoftwareStepSource(stepDetector, true), true,
+                new DetectionTrace(4096, DetectionTrace.LEVEL_DEBUG),
+                DetectionPipeline.DEFAULT_FUSION_PERIOD_NS, new DetectionPipeline.Listener() {
+                    @Override
+                    public void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking) {
+                    }
+
+                    @Override
+                    public void onDetection(long timestampNs) {
+                    }
+
+                    @Override
+                    public void onAlert(long timestampNs) {
+                    }
+                });
+        steps = 10;
+        sample = 0;
+    }
+
+    @Benchmark
+    public DetectionStatus unchangedSnapshot() {
+        return status.with(false, true, true, StepDetector.SPEED_NORMAL, 10, 0);
+    }
+
+    @Benchmark
+    public DetectionStatus changedSnapshot() {
+        return status.with(false, true, true, StepDetector.SPEED_NORMAL, steps++, 0);
+    }
+
+    @Benchmark
+    public void pipelineSample(Blackhole blackhole) {
+        int i = (int) (sample % BenchmarkSignal.LENGTH);
+        long t = sample++ * BenchmarkSignal.SAMPLE_PERIOD_NS;
+        pipeline.onGyroscope(signal.gyroX[i], signal.gyroY[i], signal.gyroZ[i], t);
+        pipeline.onMotionSample(signal.accX[i], signal.accY[i], signal.accZ[i],
+                signal.gravityX[i], signal.gravityY[i], signal.gravityZ[i], t);
+        blackhole.consume(pipeline.isWalkingAndUsingPhone());
+    }
+}
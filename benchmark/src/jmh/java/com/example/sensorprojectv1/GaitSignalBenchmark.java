@@ -0,0 +1,53 @@
+package com.example.sensorprojectv1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Rendimiento del generador de caminata sintética y del detector de pasos
+ * sobre sus bloques, en distintos puntos del espacio de parámetros. El tiempo
+ * se informa por muestra.
+ */
+@State(Scope.Thread)
+public class GaitSignalBenchmark {
+
+    private static final int CHUNK = 4096;
+
+    @Param({ "60", "110", "160" })
+    public float cadenceSpm;
+
+    @Param({ "0.05", "0.5" })
+    public float accNoise;
+
+    private GaitSignalGenerator generator;
+    private final GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(CHUNK);
+    private StepDetector detector;
+
+    @Setup
+    public void setUp() {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.cadenceSpm = cadenceSpm;
+        config.accNoise = accNoise;
+        generator = new GaitSignalGenerator(config);
+        detector = new StepDetector();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public int generate() {
+        generator.next(chunk);
+        return chunk.steps;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public int generateAndDetect() {
+        generator.next(chunk);
+        return detector.addSamples(chunk.accX, chunk.accY, chunk.accZ,
+                chunk.gravityX, chunk.gravityY, chunk.gravityZ, chunk.timestamps, 0, chunk.size);
+    }
+}
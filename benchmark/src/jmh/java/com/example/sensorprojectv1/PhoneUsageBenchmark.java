@@ -0,0 +1,31 @@
+package com.example.sensorprojectv1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Costo por muestra combinada de {@link PhoneUsageDetector}.
+ */
+@State(Scope.Thread)
+public class PhoneUsageBenchmark {
+
+    private final BenchmarkSignal signal = new BenchmarkSignal();
+    private PhoneUsageDetector detector;
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        detector = new PhoneUsageDetector();
+        sample = 0;
+    }
+
+    @Benchmark
+    public boolean onSample() {
+        int i = (int) (sample % BenchmarkSignal.LENGTH);
+        long t = sample++ * BenchmarkSignal.SAMPLE_PERIOD_NS;
+        return detector.onSample(signal.gyroX[i], signal.gyroY[i], signal.gyroZ[i],
+                signal.gravityX[i], signal.gravityY[i], signal.gravityZ[i], t);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.sensorprojectv1;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Armado del payload de sendSensorData: el JSONObject y su serialización a
+ * texto, que es lo que ApiService escribe en la conexión. Para un lote de
+ * subida compara el JSON con el formato por columnas de SensorBatchCodec.
+ */
+@State(Scope.Thread)
+public class SensorPayloadBenchmark {
+
+    // Un lote del perfil estándar
+    private static final int BATCH_SIZE = 60;
+    private static final long SESSION_ID = 4217;
+
+    private final SensorPayload payload = new SensorPayload();
+    private final SensorBatchCodec codec = new SensorBatchCodec(0); // Sin medir el JSON dentro
+    private final JSONArray batch = new JSONArray();
+    private DetectionPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSignal signal = new BenchmarkSignal();
+        StepDetector stepDetector = new StepDetector();
+        pipeline = new DetectionPipeline(stepDetector, new SoftwareStepSource(stepDetector, true), true,
+                new DetectionTrace(1, DetectionTrace.LEVEL_OFF),
+                DetectionPipeline.DEFAULT_FUSION_PERIOD_NS, new DetectionPipeline.Listener() {
+                    @Override
+                    public void onStepUpdate(long timestampNs, boolean stepDetected, boolean stoppedWalking) {
+                    }
+
+                    @Override
+                    public void onDetection(long timestampNs) {
+                    }
+
+                    @Override
+                    public void onAlert(long timestampNs) {
+                    }
+                });
+        // Estado realista: varios segundos de caminata ya procesados
+        for (int i = 0; i < BenchmarkSignal.LENGTH; i++) {
+            long t = i * BenchmarkSignal.SAMPLE_PERIOD_NS;
+            pipeline.onMotionSample(signal.accX[i], signal.accY[i], signal.accZ[i],
+                    signal.gravityX[i], signal.gravityY[i], signal.gravityZ[i], t);
+        }
+
+        payload.accX = signal.accX[0];
+        payload.accY = signal.accY[0];
+        payload.accZ = signal.accZ[0];
+        payload.gyroX = signal.gyroX[0];
+        payload.gyroY = signal.gyroY[0];
+        payload.gyroZ = signal.gyroZ[0];
+        payload.batteryLevel = 87.5f;
+        payload.batteryStatus = "discharging";
+        payload.screenBrightness = 128;
+        payload.screenOn = true;
+        payload.recordedAt = 1_700_000_000_000L;
+
+        // Lote con muestras que varían como en una caminata (una por segundo)
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int index = (i * 50) % BenchmarkSignal.LENGTH;
+            payload.accX = signal.accX[index];
+            payload.accY = signal.accY[index];
+            payload.accZ = signal.accZ[index];
+            payload.gyroX = signal.gyroX[index];
+            payload.gyroY = signal.gyroY[index];
+            payload.gyroZ = signal.gyroZ[index];
+            payload.recordedAt = 1_700_000_000_000L + i * 1000L;
+            try {
+                payload.setDetection(pipeline);
+                batch.put(payload.toJson());
+            } catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public JSONObject buildJson() throws JSONException {
+        payload.setDetection(pipeline);
+        return payload.toJson();
+    }
+
+    @Benchmark
+    public String buildAndSerialize() throws JSONException {
+        payload.setDetection(pipeline);
+        return payload.toJson().toString();
+    }
+
+    @Benchmark
+    public byte[] serializeBatchJson() {
+        return batch.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeBatchColumnar() {
+        return codec.encode(SESSION_ID, batch);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sensorprojectv1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Costo por muestra de {@link StepDetector}: con el filtro de gravedad por
+ * software y con la gravedad de un sensor fusionado. También el de
+ * {@link CadenceEstimator}, que corre en paralelo con cualquier fuente de pasos.
+ */
+@State(Scope.Thread)
+public class StepDetectionBenchmark {
+
+    private final BenchmarkSignal signal = new BenchmarkSignal();
+    private StepDetector softwareDetector;
+    private StepDetector fusedDetector;
+    private CadenceEstimator cadenceEstimator;
+    private long sample;
+
+    @Setup
+    public void setUp() {
+        softwareDetector = new StepDetector();
+        fusedDetector = new StepDetector();
+        cadenceEstimator = new CadenceEstimator();
+        sample = 0;
+    }
+
+    @Benchmark
+    public boolean softwareGravity() {
+        int i = (int) (sample % BenchmarkSignal.LENGTH);
+        long t = sample++ * BenchmarkSignal.SAMPLE_PERIOD_NS;
+        return softwareDetector.addSample(signal.accX[i], signal.accY[i], signal.accZ[i], t);
+    }
+
+    @Benchmark
+    public boolean fusedGravity() {
+        int i = (int) (sample % BenchmarkSignal.LENGTH);
+        long t = sample++ * BenchmarkSignal.SAMPLE_PERIOD_NS;
+        return fusedDetector.addSample(signal.accX[i], signal.accY[i], signal.accZ[i],
+                signal.gravityX[i], signal.gravityY[i], signal.gravityZ[i], t);
+    }
+
+    @Benchmark
+    public boolean cadenceEstimator() {
+        int i = (int) (sample % BenchmarkSignal.LENGTH);
+        long t = sample++ * BenchmarkSignal.SAMPLE_PERIOD_NS;
+        return cadenceEstimator.onSample(signal.accZ[i] - 9.81f, t);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Generador de señales sintéticas de caminata y manejo del teléfono con pasos
+ * reales conocidos (Java puro).
+ *
+ * Produce acelerómetro (aceleración equivalente), gravedad y giroscopio en
+ * coordenadas del teléfono, por bloques, para medir el rendimiento y la
+ * precisión/recall de los detectores (ver {@link StepAccuracy}) en todo el
+ * espacio de parámetros y no solo con unas pocas caminatas grabadas.
+ *
+ * Modelo:
+ * - Cada paso es un pulso vertical (parábola, aproximación de medio seno) de
+ *   {@link Config#stepAmplitude} m/s² centrado en el instante del paso, que es
+ *   el que se informa como verdad. El periodo sale de la cadencia con un
+ *   jitter aleatorio por paso.
+ * - La vertical del mundo se proyecta en el teléfono según
+ *   {@link Config#tiltDeg} (giro sobre X, el "roll" de PhoneUsageDetector) y
+ *   {@link Config#sideTiltDeg} (giro sobre Y, el "pitch").
+ * - El giroscopio oscila a {@link Config#gyroFrequencyHz} con amplitud
+ *   {@link Config#gyroActivity} rad/s (mano que mueve el teléfono).
+ * - Ruido aproximadamente gaussiano (suma de uniformes) en ambos sensores.
+ *
+ * Sin trigonometría ni reservas por muestra (el oscilador del giroscopio es
+ * una recurrencia de rotación), para generar millones de muestras por segundo.
+ * Mismo {@link Config#seed}, misma señal. No es thread-safe.
+ */
+public class GaitSignalGenerator {
+
+    private static final float G = 9.81f;
+    // Fracción del periodo de paso que dura el pulso vertical
+    private static final float PULSE_FRACTION = 0.4f;
+
+    /**
+     * Parámetros de la señal; los valores por defecto describen una caminata
+     * normal mirando el teléfono.
+     */
+    public static class Config {
+        public int sampleRateHz = 50;
+        public float cadenceSpm = 110f; // pasos por minuto; 0 = quieto
+        public float cadenceJitter = 0.05f; // variación relativa del periodo por paso
+        public float stepAmplitude = 3.0f; // m/s², pico del pulso vertical
+        public float accNoise = 0.15f; // m/s², desvío del ruido
+        public float tiltDeg = 40f; // giro sobre X (pantalla hacia el usuario)
+        public float sideTiltDeg = 0f; // giro sobre Y
+        public float gyroActivity = 0.3f; // rad/s, amplitud del movimiento de la mano
+        public float gyroFrequencyHz = 1.5f;
+        public float gyroNoise = 0.02f; // rad/s
+        public long seed = 1;
+    }
+
+    /**
+     * Bloque reutilizable de muestras más los pasos reales que cayeron en él.
+     */
+    public static class Chunk {
+        public final float[] accX, accY, accZ;
+        public final float[] gravityX, gravityY, gravityZ;
+        public final float[] gyroX, gyroY, gyroZ;
+        public final long[] timestamps;
+        public final long[] stepTimestamps;
+        public int size;
+        public int steps;
+
+        public Chunk(int capacity) {
+            accX = new float[capacity];
+            accY = new float[capacity];
+            accZ = new float[capacity];
+            gravityX = new float[capacity];
+            gravityY = new float[capacity];
+            gravityZ = new float[capacity];
+            gyroX = new float[capacity];
+            gyroY = new float[capacity];
+            gyroZ = new float[capacity];
+            timestamps = new long[capacity];
+            // Como máximo un paso por muestra
+            stepTimestamps = new long[capacity];
+        }
+
+        public int capacity() {
+            return timestamps.length;
+        }
+    }
+
+    private final Config config;
+    private final long samplePeriodNs;
+    // Vertical del mundo en coordenadas del teléfono (unitario)
+    private final float upX, upY, upZ;
+    private final float gyroCos, gyroSin;
+
+    private long rng;
+    private long sampleIndex;
+    private long nextStepNs;
+    private long stepPeriodNs;
+    private long prevStepNs;
+    private boolean hasPrevStep;
+    private float gyroPhaseSin, gyroPhaseCos;
+
+    public GaitSignalGenerator(Config config) {
+        if (config.sampleRateHz <= 0 || config.cadenceSpm < 0 || config.cadenceSpm > 300) {
+            throw new IllegalArgumentException("Frecuencia o cadencia inválida: "
+                    + config.sampleRateHz + " Hz / " + config.cadenceSpm + " ppm");
+        }
+        this.config = config;
+        samplePeriodNs = 1_000_000_000L / config.sampleRateHz;
+
+        double tilt = Math.toRadians(config.tiltDeg);
+        double side = Math.toRadians(config.sideTiltDeg);
+        upX = (float) Math.sin(side);
+        upY = (float) (Math.cos(side) * Math.sin(tilt));
+        upZ = (float) (Math.cos(side) * Math.cos(tilt));
+
+        double step = 2 * Math.PI * config.gyroFrequencyHz / config.sampleRateHz;
+        gyroCos = (float) Math.cos(step);
+        gyroSin = (float) Math.sin(step);
+        reset();
+    }
+
+    public void reset() {
+        rng = config.seed != 0 ? config.seed : 0x9E3779B97F4A7C15L;
+        sampleIndex = 0;
+        hasPrevStep = false;
+        gyroPhaseSin = 0f;
+        gyroPhaseCos = 1f;
+        if (config.cadenceSpm > 0) {
+            stepPeriodNs = Math.round(60_000_000_000.0 / config.cadenceSpm);
+            // El primer paso a medio periodo, para que su pulso entre completo
+            nextStepNs = stepPeriodNs / 2;
+        } else {
+            stepPeriodNs = 0;
+            nextStepNs = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Llena el bloque completo con las siguientes muestras.
+     */
+    public void next(Chunk chunk) {
+        int capacity = chunk.capacity();
+        int steps = 0;
+        float amplitude = config.stepAmplitude;
+        float accNoise = config.accNoise;
+        float gyroNoise = config.gyroNoise;
+        float gyroActivity = config.gyroActivity;
+
+        for (int i = 0; i < capacity; i++) {
+            long t = sampleIndex++ * samplePeriodNs;
+
+            // Pasar al siguiente paso cuando la muestra ya quedó más cerca de él
+            if (t >= nextStepNs - samplePeriodNs / 2) {
+                prevStepNs = nextStepNs;
+                hasPrevStep = true;
+                chunk.stepTimestamps[steps++] = nextStepNs;
+                float jitter = config.cadenceJitter * (2f * uniform() - 1f);
+                nextStepNs += Math.round(stepPeriodNs * (1.0 + jitter));
+            }
+
+            float vertical = pulse(t, amplitude);
+            float total = G + vertical;
+            chunk.accX[i] = upX * total + accNoise * gaussian();
+            chunk.accY[i] = upY * total + accNoise * gaussian();
+            chunk.accZ[i] = upZ * total + accNoise * gaussian();
+            chunk.gravityX[i] = upX * G;
+            chunk.gravityY[i] = upY * G;
+            chunk.gravityZ[i] = upZ * G;
+
+            // Oscilador por recurrencia: sin(φ + Δ) y cos(φ + Δ) sin trigonometría
+            float s = gyroPhaseSin * gyroCos + gyroPhaseCos * gyroSin;
+            float c = gyroPhaseCos * gyroCos - gyroPhaseSin * gyroSin;
+            gyroPhaseSin = s;
+            gyroPhaseCos = c;
+            chunk.gyroX[i] = gyroActivity * s + gyroNoise * gaussian();
+            chunk.gyroY[i] = 0.5f * gyroActivity * c + gyroNoise * gaussian();
+            chunk.gyroZ[i] = gyroNoise * gaussian();
+
+            chunk.timestamps[i] = t;
+        }
+
+        // Corrige la deriva de amplitud del oscilador acumulada en el bloque
+        float norm = (float) Math.sqrt(gyroPhaseSin * gyroPhaseSin + gyroPhaseCos * gyroPhaseCos);
+        gyroPhaseSin /= norm;
+        gyroPhaseCos /= norm;
+
+        chunk.size = capacity;
+        chunk.steps = steps;
+    }
+
+    /**
+     * Pulso vertical de los pasos anterior y siguiente (el más cercano a t).
+     */
+    private float pulse(long t, float amplitude) {
+        if (stepPeriodNs == 0) {
+            return 0f;
+        }
+        float halfWidth = stepPeriodNs * PULSE_FRACTION / 2f;
+        float value = 0f;
+        if (hasPrevStep) {
+            value += parabola((t - prevStepNs) / halfWidth);
+        }
+        value += parabola((t - nextStepNs) / halfWidth);
+        return amplitude * value;
+    }
+
+    /**
+     * 1 - x² en [-1, 1], 0 fuera: forma de medio seno sin trigonometría.
+     */
+    private static float parabola(float x) {
+        return x > -1f && x < 1f ? 1f - x * x : 0f;
+    }
+
+    // xorshift64*: rápido y determinista
+    private float uniform() {
+        rng ^= rng >>> 12;
+        rng ^= rng << 25;
+        rng ^= rng >>> 27;
+        return ((rng * 0x2545F4914F6CDD1DL) >>> 40) * (1f / (1 << 24));
+    }
+
+    /**
+     * Suma de 4 uniformes centrada y escalada: media 0, desvío 1.
+     */
+    private float gaussian() {
+        return (uniform() + uniform() + uniform() + uniform() - 2f) * 1.7320508f;
+    }
+
+    public long getSamplePeriodNs() {
+        return samplePeriodNs;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+}
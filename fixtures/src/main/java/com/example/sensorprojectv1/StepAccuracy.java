@@ -0,0 +1,82 @@
+package com.example.sensorprojectv1;
+
+/**
+ * Compara los pasos detectados con los reales (Java puro).
+ *
+ * Un paso detectado es verdadero positivo si cae dentro de la tolerancia de
+ * un paso real todavía no emparejado; si no, es falso positivo. Los pasos
+ * reales sin pareja son falsos negativos. Ambas listas deben estar ordenadas
+ * y cubrir el mismo recorrido completo; llamando varias veces con recorridos
+ * independientes los totales se acumulan.
+ */
+public class StepAccuracy {
+
+    private final long toleranceBeforeNs;
+    private final long toleranceAfterNs;
+
+    private int truePositives = 0;
+    private int falsePositives = 0;
+    private int falseNegatives = 0;
+
+    /**
+     * @param toleranceBeforeNs cuánto antes del paso real puede detectarse
+     * @param toleranceAfterNs  cuánto después (el detector confirma el pico con retraso)
+     */
+    public StepAccuracy(long toleranceBeforeNs, long toleranceAfterNs) {
+        this.toleranceBeforeNs = toleranceBeforeNs;
+        this.toleranceAfterNs = toleranceAfterNs;
+    }
+
+    public void match(long[] truth, int truthCount, long[] detected, int detectedCount) {
+        int i = 0;
+        for (int d = 0; d < detectedCount; d++) {
+            long t = detected[d];
+            // Pasos reales que ya no pueden emparejarse con esta detección ni las siguientes
+            while (i < truthCount && truth[i] + toleranceAfterNs < t) {
+                falseNegatives++;
+                i++;
+            }
+            if (i < truthCount && truth[i] - toleranceBeforeNs <= t) {
+                truePositives++;
+                i++;
+            } else {
+                falsePositives++;
+            }
+        }
+        falseNegatives += truthCount - i;
+    }
+
+    public int getTruePositives() {
+        return truePositives;
+    }
+
+    public int getFalsePositives() {
+        return falsePositives;
+    }
+
+    public int getFalseNegatives() {
+        return falseNegatives;
+    }
+
+    public float getPrecision() {
+        int detected = truePositives + falsePositives;
+        return detected > 0 ? (float) truePositives / detected : 1f;
+    }
+
+    public float getRecall() {
+        int real = truePositives + falseNegatives;
+        return real > 0 ? (float) truePositives / real : 1f;
+    }
+
+    public void reset() {
+        truePositives = 0;
+        falsePositives = 0;
+        falseNegatives = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VP: %d | FP: %d | FN: %d | Precisión: %.3f | Recall: %.3f",
+                truePositives, falsePositives, falseNegatives, getPrecision(), getRecall());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.sensorprojectv1;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del generador de caminata sintética y de la medición de precisión/recall.
+ */
+public class GaitSignalGeneratorTest {
+
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    @Test
+    public void groundTruth_followsCadence() {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.cadenceSpm = 120f;
+        config.cadenceJitter = 0f;
+        GaitSignalGenerator generator = new GaitSignalGenerator(config);
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(3000); // 60 s
+
+        generator.next(chunk);
+
+        assertEquals(120, chunk.steps);
+        assertEquals(250 * NANOS_PER_MS, chunk.stepTimestamps[0]);
+        assertEquals(500 * NANOS_PER_MS, chunk.stepTimestamps[1] - chunk.stepTimestamps[0]);
+    }
+
+    @Test
+    public void standingStill_hasNoStepsAndOnlyGravity() {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.cadenceSpm = 0f;
+        config.accNoise = 0f;
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(500);
+        new GaitSignalGenerator(config).next(chunk);
+
+        assertEquals(0, chunk.steps);
+        for (int i = 0; i < chunk.size; i++) {
+            float magnitude = (float) Math.sqrt(chunk.accX[i] * chunk.accX[i]
+                    + chunk.accY[i] * chunk.accY[i] + chunk.accZ[i] * chunk.accZ[i]);
+            assertEquals(9.81f, magnitude, 1e-3f);
+        }
+    }
+
+    @Test
+    public void tilt_projectsGravityOnPhoneAxes() {
+        GaitSignalGenerator.Config config = new GaitSignalGenerator.Config();
+        config.tiltDeg = 90f;
+        config.cadenceSpm = 0f;
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(10);
+        new GaitSignalGenerator(config).next(chunk);
+
+        // Vertical: toda la gravedad sobre Y
+        assertEquals(0f, chunk.gravityX[0], 1e-4f);
+        assertEquals(9.81f, chunk.gravityY[0], 1e-4f);
+        assertEquals(0f, chunk.gravityZ[0], 1e-4f);
+    }
+
+    @Test
+    public void sameSeed_sameSignal() {
+        GaitSignalGenerator.Chunk a = new GaitSignalGenerator.Chunk(1000);
+        GaitSignalGenerator.Chunk b = new GaitSignalGenerator.Chunk(1000);
+        GaitSignalGenerator generator = new GaitSignalGenerator(new GaitSignalGenerator.Config());
+        generator.next(a);
+        generator.reset();
+        generator.next(b);
+
+        assertArrayEquals(a.accY, b.accY, 0f);
+        assertArrayEquals(a.gyroX, b.gyroX, 0f);
+        assertEquals(a.steps, b.steps);
+    }
+
+    @Test
+    public void stepAccuracy_countsMatchesMissesAndExtras() {
+        long[] truth = { 1000, 2000, 3000, 4000 };
+        long[] detected = { 1050, 2500, 3020, 9000 };
+        StepAccuracy accuracy = new StepAccuracy(100, 100);
+        accuracy.match(truth, truth.length, detected, detected.length);
+
+        assertEquals(2, accuracy.getTruePositives()); // 1050 y 3020
+        assertEquals(2, accuracy.getFalsePositives()); // 2500 y 9000
+        assertEquals(2, accuracy.getFalseNegatives()); // 2000 y 4000
+        assertEquals(0.5f, accuracy.getPrecision(), 0f);
+        assertEquals(0.5f, accuracy.getRecall(), 0f);
+    }
+}
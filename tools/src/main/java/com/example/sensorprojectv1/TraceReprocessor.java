@@ -0,0 +1,313 @@
+package com.example.sensorprojectv1;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Herramienta de línea de comandos: reprocesa un archivo completo de
+ * grabaciones de sensores con la detección actual y resume pasos, alertas y
+ * latencias.
+ *
+ * Cada grabación pasa por su propio {@link SensorTraceReplayer} (un
+ * {@link DetectionPipeline} nuevo, sin estado compartido), así que las
+ * grabaciones se reparten entre todos los núcleos con un ForkJoinPool: la
+ * lista se divide a la mitad recursivamente hasta llegar a una grabación por
+ * tarea y los resúmenes parciales se combinan al volver. Las más grandes van
+ * primero para que ninguna quede sola al final; el robo de tareas equilibra el
+ * resto.
+ *
+ * Uso: reprocesar-trazas [--threads N] [--hardware-steps] [--verbose] ruta...
+ * Cada ruta puede ser un archivo .strc o un directorio (se recorre completo).
+ */
+public class TraceReprocessor {
+
+    private static final String TRACE_EXTENSION = ".strc";
+    private static final double NANOS_PER_MS = 1e6;
+
+    /**
+     * Totales de un conjunto de grabaciones; se combinan con {@link #merge}.
+     */
+    static class Summary {
+        int traces;
+        int truncated;
+        final List<String> failures = new ArrayList<>();
+        long motionSamples;
+        long durationNs;
+        long steps;
+        long alerts;
+        long stateTransitions;
+        long processingNs;
+        // Costo por grabación y tiempo entre el inicio de la caminata y la alerta
+        LongList processingTimes = new LongList();
+        LongList alertLatencies = new LongList();
+
+        void add(SensorTraceReplayer.Report report, LongList latencies) {
+            traces++;
+            if (report.truncated) {
+                truncated++;
+            }
+            motionSamples += report.motionSamples;
+            durationNs += report.getDurationNs();
+            steps += report.steps;
+            alerts += report.alerts;
+            stateTransitions += report.stateTransitions;
+            processingNs += report.elapsedNs;
+            processingTimes.add(report.elapsedNs);
+            alertLatencies.addAll(latencies);
+        }
+
+        Summary merge(Summary other) {
+            traces += other.traces;
+            truncated += other.truncated;
+            failures.addAll(other.failures);
+            motionSamples += other.motionSamples;
+            durationNs += other.durationNs;
+            steps += other.steps;
+            alerts += other.alerts;
+            stateTransitions += other.stateTransitions;
+            processingNs += other.processingNs;
+            processingTimes.addAll(other.processingTimes);
+            alertLatencies.addAll(other.alertLatencies);
+            return this;
+        }
+    }
+
+    /**
+     * Lista de long sin boxing (miles de grabaciones, decenas de miles de alertas).
+     */
+    static class LongList {
+        private long[] values = new long[16];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Percentil por rango más cercano; ordena la lista.
+         */
+        long percentile(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            Arrays.sort(values, 0, size);
+            int index = (int) Math.ceil(p * size) - 1;
+            return values[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+
+    /**
+     * Reprocesa files[from, to): divide hasta una grabación por tarea.
+     */
+    private static class ReprocessTask extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+
+        private final File[] files;
+        private final int from;
+        private final int to;
+        private final boolean useHardwareSteps;
+        private final boolean verbose;
+
+        ReprocessTask(File[] files, int from, int to, boolean useHardwareSteps, boolean verbose) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.useHardwareSteps = useHardwareSteps;
+            this.verbose = verbose;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from == 1) {
+                return reprocess(files[from], useHardwareSteps, verbose);
+            }
+            int middle = (from + to) >>> 1;
+            ReprocessTask left = new ReprocessTask(files, from, middle, useHardwareSteps, verbose);
+            left.fork();
+            Summary right = new ReprocessTask(files, middle, to, useHardwareSteps, verbose).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    static Summary reprocess(File file, boolean useHardwareSteps, boolean verbose) {
+        Summary summary = new Summary();
+        SensorTraceReplayer replayer = new SensorTraceReplayer(useHardwareSteps);
+        AlertLatencyListener latencyListener = new AlertLatencyListener();
+        replayer.setTransitionListener(latencyListener);
+        try {
+            SensorTraceReplayer.Report report = replayer.replay(file);
+            summary.add(report, latencyListener.latencies);
+            if (verbose) {
+                System.out.println(file.getPath() + " | " + report);
+            }
+        } catch (IOException | RuntimeException e) {
+            summary.failures.add(file.getPath() + ": " + e);
+        }
+        return summary;
+    }
+
+    /**
+     * Mide cuánto tarda cada alerta desde que empezó la caminata en curso.
+     */
+    static class AlertLatencyListener implements SensorTraceReplayer.TransitionListener {
+        final LongList latencies = new LongList();
+        private long walkingSinceNs;
+
+        @Override
+        public void onTransition(long timestampNs, DetectionStatus.State from, DetectionStatus.State to) {
+            if (!isWalking(from) && isWalking(to)) {
+                walkingSinceNs = timestampNs;
+            }
+            if (to == DetectionStatus.State.ALERT) {
+                latencies.add(timestampNs - walkingSinceNs);
+            }
+        }
+
+        private static boolean isWalking(DetectionStatus.State state) {
+            return state == DetectionStatus.State.WALKING || state == DetectionStatus.State.ALERT;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean useHardwareSteps = false;
+        boolean verbose = false;
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    if (i + 1 == args.length) {
+                        usage("Falta el número de hilos");
+                    }
+                    try {
+                        threads = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        usage("Número de hilos inválido: " + args[i]);
+                    }
+                    break;
+                case "--hardware-steps":
+                    useHardwareSteps = true;
+                    break;
+                case "--verbose":
+                    verbose = true;
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        usage("Opción desconocida: " + args[i]);
+                    }
+                    roots.add(Paths.get(args[i]));
+            }
+        }
+        if (roots.isEmpty() || threads < 1) {
+            usage(null);
+        }
+
+        File[] files = findTraces(roots);
+        if (files.length == 0) {
+            System.err.println("No se encontraron grabaciones " + TRACE_EXTENSION);
+            System.exit(1);
+        }
+        System.out.printf("Reprocesando %d grabaciones con %d hilos (pasos: %s)%n",
+                files.length, threads, useHardwareSteps ? "sensor hub" : "software");
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long started = System.nanoTime();
+        Summary summary;
+        try {
+            summary = pool.invoke(new ReprocessTask(files, 0, files.length, useHardwareSteps, verbose));
+        } finally {
+            pool.shutdown();
+        }
+        long wallNs = System.nanoTime() - started;
+
+        printSummary(summary, wallNs);
+        if (!summary.failures.isEmpty()) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Grabaciones de las rutas dadas, de la más grande a la más chica.
+     */
+    private static File[] findTraces(List<Path> roots) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    files.addAll(walk.filter(path -> path.toString().endsWith(TRACE_EXTENSION))
+                            .filter(Files::isRegularFile)
+                            .map(Path::toFile)
+                            .collect(Collectors.toList()));
+                }
+            } else if (Files.isRegularFile(root)) {
+                files.add(root.toFile());
+            } else {
+                System.err.println("No existe: " + root);
+            }
+        }
+        files.sort(Comparator.comparingLong(File::length).reversed());
+        return files.toArray(new File[0]);
+    }
+
+    private static void printSummary(Summary summary, long wallNs) {
+        double hours = summary.durationNs / 3.6e12;
+        System.out.println("=== RESUMEN ===");
+        System.out.printf("Grabaciones: %d | Fallidas: %d | Truncadas: %d%n",
+                summary.traces, summary.failures.size(), summary.truncated);
+        System.out.printf("Duración grabada: %.1f h | Muestras de movimiento: %d%n",
+                hours, summary.motionSamples);
+        System.out.printf("Pasos: %d | Alertas: %d (%.1f/h) | Transiciones: %d%n",
+                summary.steps, summary.alerts, hours > 0 ? summary.alerts / hours : 0,
+                summary.stateTransitions);
+        System.out.printf("Latencia de alerta desde el inicio de la caminata (ms): p50 %.0f | p95 %.0f | máx %.0f (%d alertas)%n",
+                summary.alertLatencies.percentile(0.5) / NANOS_PER_MS,
+                summary.alertLatencies.percentile(0.95) / NANOS_PER_MS,
+                summary.alertLatencies.percentile(1.0) / NANOS_PER_MS,
+                summary.alertLatencies.size());
+        System.out.printf("Procesamiento por grabación (ms): p50 %.1f | p95 %.1f | máx %.1f%n",
+                summary.processingTimes.percentile(0.5) / NANOS_PER_MS,
+                summary.processingTimes.percentile(0.95) / NANOS_PER_MS,
+                summary.processingTimes.percentile(1.0) / NANOS_PER_MS);
+        // Suma de los tiempos por grabación / tiempo total: cuántos núcleos se aprovecharon
+        System.out.printf("Tiempo total: %.1f s | Paralelismo efectivo: x%.1f | x%.0f tiempo real%n",
+                wallNs / 1e9, wallNs > 0 ? (double) summary.processingNs / wallNs : 0,
+                wallNs > 0 ? (double) summary.durationNs / wallNs : 0);
+        for (String failure : summary.failures) {
+            System.out.println("ERROR " + failure);
+        }
+    }
+
+    private static void usage(String error) {
+        if (error != null) {
+            System.err.println(error);
+        }
+        System.err.println("Uso: reprocesar-trazas [--threads N] [--hardware-steps] [--verbose] ruta...");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.sensorprojectv1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del reprocesamiento en lote: combinación de resúmenes, percentiles,
+ * latencia de alerta y una grabación sintética completa.
+ */
+public class TraceReprocessorTest {
+
+    private static final long NANOS_PER_S = 1_000_000_000L;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("reprocess").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static TraceReprocessor.LongList listOf(long... values) {
+        TraceReprocessor.LongList list = new TraceReprocessor.LongList();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Test
+    public void percentile_usesNearestRank() {
+        TraceReprocessor.LongList list = listOf(50, 10, 40, 20, 30);
+
+        assertEquals(10, list.percentile(0.0));
+        assertEquals(10, list.percentile(0.2));
+        assertEquals(30, list.percentile(0.5));
+        assertEquals(50, list.percentile(0.95));
+        assertEquals(50, list.percentile(1.0));
+        assertEquals(0, new TraceReprocessor.LongList().percentile(0.5));
+    }
+
+    @Test
+    public void longList_growsAndAppendsPastInitialCapacity() {
+        TraceReprocessor.LongList list = new TraceReprocessor.LongList();
+        TraceReprocessor.LongList other = new TraceReprocessor.LongList();
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+            other.add(100 + i);
+        }
+        list.addAll(other);
+
+        assertEquals(40, list.size());
+        assertEquals(0, list.percentile(0.0));
+        assertEquals(119, list.percentile(1.0));
+        assertEquals(19, list.percentile(0.5)); // posición 20 de 40
+    }
+
+    @Test
+    public void merge_addsTotalsAndConcatenatesLists() {
+        TraceReprocessor.Summary a = new TraceReprocessor.Summary();
+        a.traces = 2;
+        a.truncated = 1;
+        a.steps = 100;
+        a.alerts = 1;
+        a.durationNs = 10 * NANOS_PER_S;
+        a.processingTimes = listOf(5, 7);
+        a.alertLatencies = listOf(3 * NANOS_PER_S);
+        a.failures.add("a.strc: error");
+
+        TraceReprocessor.Summary b = new TraceReprocessor.Summary();
+        b.traces = 1;
+        b.steps = 40;
+        b.alerts = 2;
+        b.motionSamples = 500;
+        b.durationNs = 5 * NANOS_PER_S;
+        b.processingTimes = listOf(9);
+        b.alertLatencies = listOf(NANOS_PER_S, 2 * NANOS_PER_S);
+
+        assertSame(a, a.merge(b));
+        assertEquals(3, a.traces);
+        assertEquals(1, a.truncated);
+        assertEquals(140, a.steps);
+        assertEquals(3, a.alerts);
+        assertEquals(500, a.motionSamples);
+        assertEquals(15 * NANOS_PER_S, a.durationNs);
+        assertEquals(3, a.processingTimes.size());
+        assertEquals(3, a.alertLatencies.size());
+        assertEquals(2 * NANOS_PER_S, a.alertLatencies.percentile(0.5));
+        assertEquals(1, a.failures.size());
+        // El otro resumen no cambia
+        assertEquals(1, b.traces);
+    }
+
+    @Test
+    public void alertLatency_isMeasuredFromStartOfCurrentWalk() {
+        TraceReprocessor.AlertLatencyListener listener = new TraceReprocessor.AlertLatencyListener();
+        listener.onTransition(NANOS_PER_S, DetectionStatus.State.SAFE, DetectionStatus.State.WALKING);
+        listener.onTransition(4 * NANOS_PER_S, DetectionStatus.State.WALKING, DetectionStatus.State.ALERT);
+        // Deja el teléfono y lo vuelve a mirar sin dejar de caminar: misma caminata
+        listener.onTransition(6 * NANOS_PER_S, DetectionStatus.State.ALERT, DetectionStatus.State.WALKING);
+        listener.onTransition(8 * NANOS_PER_S, DetectionStatus.State.WALKING, DetectionStatus.State.ALERT);
+        // Se detiene y arranca otra caminata ya usando el teléfono
+        listener.onTransition(10 * NANOS_PER_S, DetectionStatus.State.ALERT, DetectionStatus.State.PHONE_STATIC);
+        listener.onTransition(12 * NANOS_PER_S, DetectionStatus.State.PHONE_STATIC, DetectionStatus.State.ALERT);
+
+        assertEquals(3, listener.latencies.size());
+        assertEquals(0, listener.latencies.percentile(0.0));
+        assertEquals(3 * NANOS_PER_S, listener.latencies.percentile(0.5));
+        assertEquals(7 * NANOS_PER_S, listener.latencies.percentile(1.0));
+    }
+
+    @Test
+    public void reprocess_syntheticWalkWithPhone() throws IOException {
+        File file = new File(dir, "sintetica.strc");
+        GaitSignalGenerator.Chunk chunk = new GaitSignalGenerator.Chunk(1500); // 30 s
+        new GaitSignalGenerator(new GaitSignalGenerator.Config()).next(chunk);
+        try (SensorTraceRecorder recorder = SensorTraceRecorder.open(file, true, PerformanceProfile.STANDARD, false)) {
+            recorder.recordGyroscopeEnabled(true, 0);
+            for (int i = 0; i < chunk.size; i++) {
+                recorder.recordMotion(chunk.accX[i], chunk.accY[i], chunk.accZ[i],
+                        chunk.gravityX[i], chunk.gravityY[i], chunk.gravityZ[i], chunk.timestamps[i]);
+                recorder.recordGyroscope(chunk.gyroX[i], chunk.gyroY[i], chunk.gyroZ[i], chunk.timestamps[i]);
+            }
+        }
+
+        TraceReprocessor.Summary summary = TraceReprocessor.reprocess(file, false, false);
+
+        assertTrue(summary.failures.toString(), summary.failures.isEmpty());
+        assertEquals(1, summary.traces);
+        assertEquals(chunk.size, summary.motionSamples);
+        assertTrue("pasos: " + summary.steps, summary.steps >= chunk.steps * 8 / 10);
+        assertEquals(1, summary.alerts);
+        assertEquals(1, summary.alertLatencies.size());
+    }
+}